@@ -0,0 +1,245 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Annotations of a class, its methods and fields, resolved once with inheritance and meta-annotations.
+ * <p>
+ * Annotations of the class include annotations of all its superclasses and superinterfaces, annotations of a
+ * method include annotations of the methods it overrides. Annotations present on the element itself take
+ * precedence over inherited ones, nearer supertypes take precedence over farther ones. Meta-annotations,
+ * i.e. annotations of annotation types, are resolved transitively and take the lowest precedence, annotations
+ * of {@code java.lang.annotation} are not followed.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 22.10.26 15:30
+ */
+public final class AnnotationIndex {
+
+    private final Map<Class<? extends Annotation>, Annotation> classAnnotations;
+    private final Map<Method, Map<Class<? extends Annotation>, Annotation>> methodAnnotations = new HashMap<>();
+    private final Map<Field, Map<Class<? extends Annotation>, Annotation>> fieldAnnotations = new HashMap<>();
+    private final Map<Class<? extends Annotation>, Set<Method>> annotatedMethods = new HashMap<>();
+    private final Map<Class<? extends Annotation>, Set<Field>> annotatedFields = new HashMap<>();
+    private final Class<?> type;
+    private final Set<Class<?>> hierarchy;
+
+    AnnotationIndex(@Nonnull ClassReflection<?> classReflection) {
+        this.type = classReflection.getReflectionSubject();
+        this.hierarchy = hierarchy(type);
+        this.classAnnotations = resolve(hierarchy);
+        for (Method method : classReflection.getAllMethods()) {
+            Map<Class<? extends Annotation>, Annotation> annotations = resolve(overridden(method, hierarchy));
+            if (!annotations.isEmpty()) {
+                methodAnnotations.put(method, annotations);
+                for (Class<? extends Annotation> annotationType : annotations.keySet()) {
+                    annotatedMethods.computeIfAbsent(annotationType, k -> new LinkedHashSet<>()).add(method);
+                }
+            }
+        }
+        for (Field field : classReflection.getAllFields()) {
+            Map<Class<? extends Annotation>, Annotation> annotations = resolve(Collections.singletonList(field));
+            if (!annotations.isEmpty()) {
+                fieldAnnotations.put(field, annotations);
+                for (Class<? extends Annotation> annotationType : annotations.keySet()) {
+                    annotatedFields.computeIfAbsent(annotationType, k -> new LinkedHashSet<>()).add(field);
+                }
+            }
+        }
+        annotatedMethods.replaceAll((annotationType, methods) -> Collections.unmodifiableSet(methods));
+        annotatedFields.replaceAll((annotationType, fields) -> Collections.unmodifiableSet(fields));
+    }
+
+    //<editor-fold desc="Class">
+    public @Nullable <A extends Annotation> A getAnnotation(@Nonnull Class<A> annotationType) {
+        return annotationType.cast(classAnnotations.get(annotationType));
+    }
+
+    public @Nonnull <A extends Annotation> Optional<A> getAnnotationOp(@Nonnull Class<A> annotationType) {
+        return Optional.ofNullable(getAnnotation(annotationType));
+    }
+
+    public boolean isAnnotated(@Nonnull Class<? extends Annotation> annotationType) {
+        return classAnnotations.containsKey(annotationType);
+    }
+
+    public @Nonnull Collection<Annotation> getAnnotations() {
+        return Collections.unmodifiableCollection(classAnnotations.values());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Methods">
+    /**
+     * @param method method of the class hierarchy, other methods are resolved without caching
+     */
+    public @Nullable <A extends Annotation> A getAnnotation(@Nonnull Method method,
+                                                            @Nonnull Class<A> annotationType) {
+        return annotationType.cast(annotations(method).get(annotationType));
+    }
+
+    public boolean isAnnotated(@Nonnull Method method, @Nonnull Class<? extends Annotation> annotationType) {
+        return annotations(method).containsKey(annotationType);
+    }
+
+    public @Nonnull Collection<Annotation> getAnnotations(@Nonnull Method method) {
+        return Collections.unmodifiableCollection(annotations(method).values());
+    }
+
+    /**
+     * @return methods of the class hierarchy having the annotation, shared like
+     *         {@link ClassReflection#getAllMethods()}
+     */
+    public @Nonnull Set<Method> getMethodsAnnotatedWith(@Nonnull Class<? extends Annotation> annotationType) {
+        return annotatedMethods.getOrDefault(annotationType, Collections.emptySet());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Fields">
+    /**
+     * @param field field of the class hierarchy, other fields are resolved without caching
+     */
+    public @Nullable <A extends Annotation> A getAnnotation(@Nonnull Field field, @Nonnull Class<A> annotationType) {
+        return annotationType.cast(annotations(field).get(annotationType));
+    }
+
+    public boolean isAnnotated(@Nonnull Field field, @Nonnull Class<? extends Annotation> annotationType) {
+        return annotations(field).containsKey(annotationType);
+    }
+
+    public @Nonnull Collection<Annotation> getAnnotations(@Nonnull Field field) {
+        return Collections.unmodifiableCollection(annotations(field).values());
+    }
+
+    /**
+     * @return fields of the class hierarchy having the annotation, shared like {@link ClassReflection#getAllFields()}
+     */
+    public @Nonnull Set<Field> getFieldsAnnotatedWith(@Nonnull Class<? extends Annotation> annotationType) {
+        return annotatedFields.getOrDefault(annotationType, Collections.emptySet());
+    }
+    //</editor-fold>
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " of " + type.getName();
+    }
+
+    private Map<Class<? extends Annotation>, Annotation> annotations(Method method) {
+        Map<Class<? extends Annotation>, Annotation> annotations = methodAnnotations.get(method);
+        if (annotations == null) {
+            if (hierarchy.contains(method.getDeclaringClass())) {
+                return Collections.emptyMap();
+            }
+            return resolve(overridden(method, hierarchy(method.getDeclaringClass())));
+        }
+        return annotations;
+    }
+
+    private Map<Class<? extends Annotation>, Annotation> annotations(Field field) {
+        Map<Class<? extends Annotation>, Annotation> annotations = fieldAnnotations.get(field);
+        if (annotations == null) {
+            if (hierarchy.contains(field.getDeclaringClass())) {
+                return Collections.emptyMap();
+            }
+            return resolve(Collections.singletonList(field));
+        }
+        return annotations;
+    }
+
+    /**
+     * @param elements the element followed by the elements it inherits annotations from, nearest first
+     */
+    private static Map<Class<? extends Annotation>, Annotation> resolve(
+            Collection<? extends AnnotatedElement> elements) {
+
+        Map<Class<? extends Annotation>, Annotation> annotations = new LinkedHashMap<>();
+        for (AnnotatedElement element : elements) {
+            for (Annotation annotation : element.getDeclaredAnnotations()) {
+                annotations.putIfAbsent(annotation.annotationType(), annotation);
+            }
+        }
+        if (annotations.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        for (Annotation annotation : new ArrayList<>(annotations.values())) {
+            for (Annotation metaAnnotation : META_ANNOTATIONS.get(annotation.annotationType())) {
+                annotations.putIfAbsent(metaAnnotation.annotationType(), metaAnnotation);
+            }
+        }
+        return Collections.unmodifiableMap(annotations);
+    }
+
+    /**
+     * @return the type, its superclasses and superinterfaces in breadth first order
+     */
+    private static Set<Class<?>> hierarchy(Class<?> type) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            Class<?> next = queue.poll();
+            if (next != Object.class && hierarchy.add(next)) {
+                if (next.getSuperclass() != null) {
+                    queue.add(next.getSuperclass());
+                }
+                queue.addAll(Arrays.asList(next.getInterfaces()));
+            }
+        }
+        return hierarchy;
+    }
+
+    /**
+     * @return the method followed by the methods of supertypes it overrides
+     */
+    private static List<Method> overridden(Method method, Set<Class<?>> hierarchy) {
+        if (Modifier.STATIC.presentIn(method) || Modifier.PRIVATE.presentIn(method)) {
+            return Collections.singletonList(method);
+        }
+        List<Method> methods = new ArrayList<>();
+        methods.add(method);
+        Class<?> declaringClass = method.getDeclaringClass();
+        for (Class<?> type : hierarchy) {
+            if (type == declaringClass || !type.isAssignableFrom(declaringClass)) {
+                continue;
+            }
+            try {
+                Method overridden = type.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                if (!Modifier.STATIC.presentIn(overridden) && !Modifier.PRIVATE.presentIn(overridden)) {
+                    methods.add(overridden);
+                }
+            }
+            catch (NoSuchMethodException ignored) {
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Meta-annotations of annotation types, transitively, nearest first
+     */
+    private static final ClassValue<List<Annotation>> META_ANNOTATIONS = new ClassValue<List<Annotation>>() {
+        @Override
+        protected List<Annotation> computeValue(Class<?> annotationType) {
+            List<Annotation> metaAnnotations = new ArrayList<>();
+            Set<Class<?>> visited = new HashSet<>();
+            visited.add(annotationType);
+            Deque<Class<?>> queue = new ArrayDeque<>();
+            queue.add(annotationType);
+            while (!queue.isEmpty()) {
+                for (Annotation annotation : queue.poll().getDeclaredAnnotations()) {
+                    Class<? extends Annotation> type = annotation.annotationType();
+                    if (!type.getName().startsWith("java.lang.annotation.") && visited.add(type)) {
+                        metaAnnotations.add(annotation);
+                        queue.add(type);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(metaAnnotations);
+        }
+    };
+}
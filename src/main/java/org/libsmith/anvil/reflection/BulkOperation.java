@@ -0,0 +1,149 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Member applied to many targets: the invoker is resolved and its arguments are packed once, then every target
+ * costs a single call. Operation is sequential by default, {@link #parallel()} splits arrays and collections longer
+ * than the threshold into fork-join tasks and runs streams in parallel within the pool.
+ * <p>
+ * Exceptions thrown for a target abort the operation and propagate to the caller, in the parallel mode
+ * some of the remaining targets may still be processed.
+ *
+ * @see MethodInvoker.NoArgument#bulk()
+ * @see FieldAccessor.Regular#bulk()
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 24.10.26 19:30
+ */
+public final class BulkOperation<T, R> {
+
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    private final Function<? super T, ? extends R> function;
+    private final @Nullable ForkJoinPool pool;
+    private final int threshold;
+
+    private BulkOperation(Function<? super T, ? extends R> function, @Nullable ForkJoinPool pool, int threshold) {
+        this.function = function;
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public static @Nonnull <T, R> BulkOperation<T, R> of(@Nonnull Function<? super T, ? extends R> function) {
+        return new BulkOperation<>(function, null, Integer.MAX_VALUE);
+    }
+
+    public @Nonnull BulkOperation<T, R> sequential() {
+        return new BulkOperation<>(function, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Common pool with {@link #DEFAULT_THRESHOLD}
+     */
+    public @Nonnull BulkOperation<T, R> parallel() {
+        return parallel(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold number of targets processed by a single task, shorter inputs are processed by the caller
+     */
+    public @Nonnull BulkOperation<T, R> parallel(@Nonnull ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        return new BulkOperation<>(function, pool, threshold);
+    }
+
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    /**
+     * Stores results into the array if it is long enough, like {@link Collection#toArray(Object[])} does
+     *
+     * @return array of results in the order of targets
+     */
+    @SuppressWarnings("unchecked")
+    public @Nonnull R[] applyTo(@Nonnull T[] targets, @Nonnull R[] results) {
+        R[] array = results.length >= targets.length
+                    ? results
+                    : (R[]) Array.newInstance(results.getClass().getComponentType(), targets.length);
+        apply(targets, array);
+        return array;
+    }
+
+    /**
+     * @return fixed size list of results in the iteration order of targets
+     */
+    @SuppressWarnings("unchecked")
+    public @Nonnull List<R> applyTo(@Nonnull Collection<? extends T> targets) {
+        Object[] array = targets.toArray();
+        Object[] results = new Object[array.length];
+        apply((T[]) array, (R[]) results);
+        return Arrays.asList((R[]) results);
+    }
+
+    public @Nonnull <C> C applyTo(@Nonnull Stream<? extends T> targets, @Nonnull Collector<? super R, ?, C> collector) {
+        if (pool == null) {
+            return targets.sequential().<R>map(function).collect(collector);
+        }
+        return pool.submit(() -> targets.parallel().<R>map(function).collect(collector)).join();
+    }
+
+    private void apply(T[] targets, R[] results) {
+        if (pool == null || targets.length <= threshold) {
+            for (int i = 0; i < targets.length; i++) {
+                results[i] = function.apply(targets[i]);
+            }
+        }
+        else {
+            pool.invoke(new ApplyTask(targets, results, 0, targets.length));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + (pool == null ? " sequential" : " parallel by " + threshold);
+    }
+
+    private final class ApplyTask extends RecursiveAction {
+
+        private static final long serialVersionUID = -5306418273619048561L;
+
+        private final T[] targets;
+        private final R[] results;
+        private final int from;
+        private final int to;
+
+        private ApplyTask(T[] targets, R[] results, int from, int to) {
+            this.targets = targets;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    results[i] = function.apply(targets[i]);
+                }
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ApplyTask(targets, results, from, middle), new ApplyTask(targets, results, middle, to));
+            }
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package org.libsmith.anvil.reflection;
 
+import org.libsmith.anvil.time.TimePeriod;
+import org.libsmith.anvil.time.TimeSource;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.annotation.*;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.*;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
@@ -12,26 +19,300 @@ public interface CachedProxy {
 
     void dropCaches();
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Drops cached results of all methods with the given name
+     */
+    void dropCaches(@Nonnull String methodName);
+
+    /**
+     * Drops cached result of the call with exactly these arguments, of all methods with the given name and
+     * the number of parameters
+     */
+    void dropCachedValue(@Nonnull String methodName, Object ... args);
+
+    @Nonnull Stats getCacheStats();
+
+    @Nonnull Stats getCacheStats(@Nonnull String methodName);
+
+    /**
+     * Results are cached per method and arguments, each method has its own cache. Results of methods without
+     * parameters are memoized in a single slot, methods with one parameter are cached by the argument itself.
+     * Concurrent calls with the same arguments wait for a single invocation of the target, calls with other
+     * arguments and cache hits are not blocked. Failed invocations are not cached.
+     * <p>
+     * Methods returning {@code CompletableFuture} or {@code CompletionStage} are cached asynchronously: calls
+     * share the pending future of the target, exceptionally completed futures are dropped from the cache,
+     * and each call gets its own dependent future, completed in place for already completed values.
+     */
     static <T> T wrap(final T object, Class<T> proxyInterface) {
-        final Map<Key, Object> cache = Collections.synchronizedMap(new HashMap<Key, Object>());
-        return (T) Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
-                                          new Class[] { proxyInterface, CachedProxy.class },
-                (proxy, method, args) -> {
-                    if (DROP_CACHES_METHOD.equals(method)) {
-                        cache.clear();
-                        return null;
-                    }
-                    Key key = new Key(method, args);
-                    synchronized (cache) {
-                        Object result = cache.get(key);
-                        if (result == null && !cache.containsKey(key)) {
-                            result = method.invoke(object, args);
-                            cache.put(key, result);
-                        }
-                        return result;
-                    }
-                });
+        return policy().wrap(object, proxyInterface);
+    }
+
+    static <T> T wrap(final T object, Class<T> proxyInterface, @Nonnull Policy policy) {
+        return policy.wrap(object, proxyInterface);
+    }
+
+    static Policy policy() {
+        return new Policy();
+    }
+
+    enum Eviction {
+        /** Least recently used entry is evicted */
+        LRU,
+        /** Least recently used entry is evicted unless the new entry is less frequently used than it, then
+         * the new entry is not retained. Access frequencies are estimated by a compact counting sketch. */
+        TINY_LFU
+    }
+
+    enum ValueStrength {
+        STRONG,
+        /** Values are retained while referenced from elsewhere */
+        WEAK,
+        /** Values are retained until the memory is required by the collector */
+        SOFT
+    }
+
+    final class Policy {
+
+        private long maximumSize = Long.MAX_VALUE;
+        private Eviction eviction = Eviction.LRU;
+        private TimePeriod expireAfterWrite;
+        private TimePeriod expireAfterAccess;
+        private TimePeriod refreshAfterWrite;
+        private ValueStrength values = ValueStrength.STRONG;
+        private TimeSource timeSource = TimeSource.NANO_TIME_SOURCE;
+        private boolean annotatedOnly;
+
+        private Policy()
+        { }
+
+        private Policy(@Nonnull Policy policy) {
+            this.maximumSize = policy.maximumSize;
+            this.eviction = policy.eviction;
+            this.expireAfterWrite = policy.expireAfterWrite;
+            this.expireAfterAccess = policy.expireAfterAccess;
+            this.refreshAfterWrite = policy.refreshAfterWrite;
+            this.values = policy.values;
+            this.timeSource = policy.timeSource;
+            this.annotatedOnly = policy.annotatedOnly;
+        }
+
+        public Policy maximumSize(long maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("Maximum size must be positive, got " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Policy eviction(@Nonnull Eviction eviction) {
+            this.eviction = Objects.requireNonNull(eviction, "eviction");
+            return this;
+        }
+
+        public Policy expireAfterWrite(@Nullable TimePeriod expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+            return this;
+        }
+
+        public Policy expireAfterAccess(@Nullable TimePeriod expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+            return this;
+        }
+
+        /**
+         * Applies to methods returning {@code CompletableFuture} or {@code CompletionStage} only: a hit on
+         * the entry older than this period starts reloading it, the current value is returned meanwhile.
+         * Should be shorter than expiration periods to take effect.
+         */
+        public Policy refreshAfterWrite(@Nullable TimePeriod refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+            return this;
+        }
+
+        public Policy values(@Nonnull ValueStrength values) {
+            this.values = Objects.requireNonNull(values, "values");
+            return this;
+        }
+
+        public Policy timeSource(@Nonnull TimeSource timeSource) {
+            this.timeSource = Objects.requireNonNull(timeSource, "timeSource");
+            return this;
+        }
+
+        /**
+         * When set, only methods annotated with {@link Cached} are cached, others are passed through
+         */
+        public Policy annotatedOnly(boolean annotatedOnly) {
+            this.annotatedOnly = annotatedOnly;
+            return this;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public @Nonnull Eviction getEviction() {
+            return eviction;
+        }
+
+        public @Nullable TimePeriod getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public @Nullable TimePeriod getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public @Nullable TimePeriod getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public @Nonnull ValueStrength getValues() {
+            return values;
+        }
+
+        public @Nonnull TimeSource getTimeSource() {
+            return timeSource;
+        }
+
+        public boolean isAnnotatedOnly() {
+            return annotatedOnly;
+        }
+
+        /**
+         * @return policy of the method: this one, the one described by {@link Cached} annotation with the time
+         *         source of this policy, or {@code null} if the method is not cached
+         */
+        @Nullable Policy forMethod(@Nonnull Method method) {
+            if (method.isAnnotationPresent(NotCached.class)) {
+                return null;
+            }
+            Cached cached = method.getAnnotation(Cached.class);
+            if (cached == null) {
+                return annotatedOnly ? null : this;
+            }
+            Policy policy = new Policy().eviction(cached.eviction())
+                                        .expireAfterWrite(TimePeriod.parse(cached.expireAfterWrite()))
+                                        .expireAfterAccess(TimePeriod.parse(cached.expireAfterAccess()))
+                                        .refreshAfterWrite(TimePeriod.parse(cached.refreshAfterWrite()))
+                                        .values(cached.values())
+                                        .timeSource(timeSource);
+            return cached.maximumSize() == Long.MAX_VALUE ? policy : policy.maximumSize(cached.maximumSize());
+        }
+
+        /**
+         * Policy is read once, later changes do not affect already wrapped objects. Size limit applies to
+         * each method separately.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T wrap(final T object, Class<T> proxyInterface) {
+            return (T) Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
+                                              new Class[] { proxyInterface, CachedProxy.class },
+                                              new CachedProxyHandler(object, new Policy(this)));
+        }
+    }
+
+    /**
+     * Caches the method with its own policy instead of the one the proxy is wrapped with
+     */
+    @Documented
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Cached {
+
+        long maximumSize() default Long.MAX_VALUE;
+
+        Eviction eviction() default Eviction.LRU;
+
+        /**
+         * @see TimePeriod#parse(String)
+         */
+        String expireAfterWrite() default "";
+
+        /**
+         * @see TimePeriod#parse(String)
+         */
+        String expireAfterAccess() default "";
+
+        /**
+         * @see TimePeriod#parse(String)
+         * @see Policy#refreshAfterWrite(TimePeriod)
+         */
+        String refreshAfterWrite() default "";
+
+        ValueStrength values() default ValueStrength.STRONG;
+    }
+
+    @Documented
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface NotCached
+    { }
+
+    final class Stats {
+
+        static final Stats EMPTY = new Stats(0, 0, 0, 0, 0);
+
+        private final long hitCount;
+        private final long missCount;
+        private final long loadFailureCount;
+        private final long evictionCount;
+        private final long totalLoadNanos;
+
+        Stats(long hitCount, long missCount, long loadFailureCount, long evictionCount, long totalLoadNanos) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadFailureCount = loadFailureCount;
+            this.evictionCount = evictionCount;
+            this.totalLoadNanos = totalLoadNanos;
+        }
+
+        /**
+         * Calls answered from the cache, including calls that waited for the load started by another caller
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Calls that invoked the target
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getLoadFailureCount() {
+            return loadFailureCount;
+        }
+
+        /**
+         * Entries removed by size limit, expiration or collected values, explicit drops are not counted
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public @Nonnull TimePeriod getTotalLoadTime() {
+            return TimePeriod.ofNanos(totalLoadNanos);
+        }
+
+        public double getHitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        public @Nonnull Stats plus(@Nonnull Stats other) {
+            return new Stats(hitCount + other.hitCount, missCount + other.missCount,
+                             loadFailureCount + other.loadFailureCount, evictionCount + other.evictionCount,
+                             totalLoadNanos + other.totalLoadNanos);
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", loadFailures=" + loadFailureCount +
+                   ", evictions=" + evictionCount + ", totalLoadTime=" + getTotalLoadTime() + "}";
+        }
     }
 
     final class Key {
@@ -39,7 +320,7 @@ public interface CachedProxy {
         private final Object[] args;
         private final int argsHash;
 
-        private Key(Method method, Object[] args) {
+        Key(Method method, Object[] args) {
             this.method = method;
             this.args = args;
             this.argsHash = Arrays.hashCode(args);
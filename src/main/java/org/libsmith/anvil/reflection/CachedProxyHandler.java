@@ -0,0 +1,198 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.libsmith.anvil.reflection.ReflectionCommons.EMPTY_OBJECT_ARRAY;
+
+/**
+ * Dispatches proxy calls to per method caches, created on the first call of the method
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 18.10.26 14:05
+ */
+final class CachedProxyHandler implements InvocationHandler {
+
+    private final Object object;
+    private final CachedProxy.Policy policy;
+    private final ConcurrentMap<Method, MethodCache> caches = new ConcurrentHashMap<>();
+
+    CachedProxyHandler(@Nonnull Object object, @Nonnull CachedProxy.Policy policy) {
+        this.object = object;
+        this.policy = policy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == CachedProxy.class) {
+            return invokeCachedProxyMethod(method, args == null ? EMPTY_OBJECT_ARRAY : args);
+        }
+        MethodCache cache = caches.get(method);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(method, m -> new MethodCache(object, m, policy.forMethod(m)));
+        }
+        ReflectionMetrics.Counter counter = ReflectionMetrics.counter(method);
+        if (counter == null) {
+            return cache.invoke(args);
+        }
+        long start = counter.enter();
+        try {
+            return cache.invoke(args);
+        }
+        catch (Throwable th) {
+            counter.fail();
+            throw th;
+        }
+        finally {
+            counter.exit(start);
+        }
+    }
+
+    private Object invokeCachedProxyMethod(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "dropCaches":
+                forEachCache(args.length == 0 ? null : (String) args[0], -1, MethodCache::invalidateAll);
+                return null;
+            case "dropCachedValue":
+                Object[] keyArgs = args[1] == null ? EMPTY_OBJECT_ARRAY : (Object[]) args[1];
+                forEachCache((String) args[0], keyArgs.length, c -> c.invalidate(keyArgs));
+                return null;
+            case "getCacheStats":
+                CachedProxy.Stats[] stats = { CachedProxy.Stats.EMPTY };
+                forEachCache(args.length == 0 ? null : (String) args[0], -1,
+                             c -> stats[0] = stats[0].plus(c.getStats()));
+                return stats[0];
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+    private void forEachCache(@Nullable String methodName, int arity, Consumer<MethodCache> action) {
+        for (MethodCache cache : caches.values()) {
+            if ((methodName == null || methodName.equals(cache.method.getName()))
+                    && (arity < 0 || arity == cache.method.getParameterCount())) {
+                action.accept(cache);
+            }
+        }
+    }
+
+    static <V> V awaitUninterruptibly(Future<V> future) throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                }
+                catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Cache of one method. Key is chosen by the number of parameters: a constant for no parameters,
+     * the argument itself for one, {@link CachedProxy.Key} otherwise.
+     */
+    private static final class MethodCache {
+
+        private static final Object NULL_KEY = new Object();
+
+        private final Method method;
+        private final int arity;
+        private final boolean async;
+        private final @Nullable ProxyCache<Object> cache;
+        private final ProxyCache.Loader loader;
+        private volatile String metricsName;
+
+        private MethodCache(@Nonnull Object object, @Nonnull Method method, @Nullable CachedProxy.Policy policy) {
+            this.method = method;
+            this.arity = method.getParameterCount();
+            this.async = method.getReturnType() == CompletableFuture.class
+                      || method.getReturnType() == CompletionStage.class;
+            this.cache = policy == null ? null : new ProxyCache<>(policy, arity == 0, async);
+            this.loader = async ? args -> toCompletableFuture(method.invoke(object, args))
+                                : args -> method.invoke(object, args);
+        }
+
+        /**
+         * Methods declared to return {@code CompletionStage} may return any implementation of it,
+         * the cache tracks completion of futures only
+         */
+        private static Object toCompletableFuture(Object result) {
+            return result instanceof CompletionStage ? ((CompletionStage<?>) result).toCompletableFuture() : result;
+        }
+
+        private Object invoke(Object[] args) throws Throwable {
+            if (cache == null) {
+                return loader.load(args);
+            }
+            ReflectionMetrics.CacheCounter cacheCounter = ReflectionMetrics.cacheCounter(getMetricsName());
+            Object result;
+            if (cacheCounter == null) {
+                result = cache.get(key(args), args, loader);
+            }
+            else {
+                cacheCounter.request();
+                result = cache.get(key(args), args, a -> {
+                    cacheCounter.loaded();
+                    return loader.load(a);
+                });
+            }
+            if (async && result != null) {
+                return ((CompletionStage<?>) result).toCompletableFuture().thenApply(Function.identity());
+            }
+            return result;
+        }
+
+        private String getMetricsName() {
+            String metricsName = this.metricsName;
+            if (metricsName == null) {
+                this.metricsName = metricsName = "CachedProxy " + ReflectionMetrics.describe(method);
+            }
+            return metricsName;
+        }
+
+        private void invalidate(Object[] args) {
+            if (cache != null) {
+                cache.invalidate(key(args));
+            }
+        }
+
+        private void invalidateAll() {
+            if (cache != null) {
+                cache.invalidateAll();
+            }
+        }
+
+        private @Nonnull CachedProxy.Stats getStats() {
+            return cache == null ? CachedProxy.Stats.EMPTY : cache.getStats();
+        }
+
+        private Object key(Object[] args) {
+            switch (arity) {
+                case 0:
+                    return NULL_KEY;
+                case 1:
+                    return args[0] == null ? NULL_KEY : args[0];
+                default:
+                    return new CachedProxy.Key(method, args);
+            }
+        }
+    }
+}
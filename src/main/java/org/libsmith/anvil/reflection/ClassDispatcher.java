@@ -0,0 +1,102 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Handlers registered by type, resolved to the most specific one for the class of dispatched object.
+ * Specificity is the {@link InheritanceDistance} from the class to the registered type, the handler
+ * registered later wins among the equally distant ones.
+ * <p>
+ * Resolution is cached per dispatched class, so after the warm-up dispatch is a single {@code ClassValue}
+ * lookup. Registration replaces the cache. Cache entries are held by the dispatched classes themselves
+ * and don't prevent their unloading.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 21.10.26 12:30
+ */
+public final class ClassDispatcher<V> {
+
+    private volatile State<V> state = new State<>(Collections.emptyMap());
+
+    public static <V> ClassDispatcher<V> create() {
+        return new ClassDispatcher<>();
+    }
+
+    public synchronized @Nonnull ClassDispatcher<V> register(@Nonnull Class<?> type, @Nonnull V handler) {
+        Map<Class<?>, V> handlers = new LinkedHashMap<>(state.handlers);
+        handlers.remove(type);
+        handlers.put(type, handler);
+        state = new State<>(handlers);
+        return this;
+    }
+
+    public synchronized @Nullable V unregister(@Nonnull Class<?> type) {
+        if (!state.handlers.containsKey(type)) {
+            return null;
+        }
+        Map<Class<?>, V> handlers = new LinkedHashMap<>(state.handlers);
+        V handler = handlers.remove(type);
+        state = new State<>(handlers);
+        return handler;
+    }
+
+    /**
+     * @return registered handlers in the order of registration
+     */
+    public @Nonnull Map<Class<?>, V> getHandlers() {
+        return state.handlers;
+    }
+
+    /**
+     * @return handler of the most specific registered type the object is instance of
+     */
+    public @Nullable V dispatch(@Nonnull Object object) {
+        return resolve(object.getClass());
+    }
+
+    /**
+     * @return handler of the most specific registered supertype of the type
+     */
+    public @Nullable V resolve(@Nonnull Class<?> type) {
+        return state.resolutions.get(type).handler;
+    }
+
+    /**
+     * @return the most specific registered supertype of the type
+     */
+    public @Nullable Class<?> resolveType(@Nonnull Class<?> type) {
+        return state.resolutions.get(type).type;
+    }
+
+    private static final class State<V> {
+
+        private final Map<Class<?>, V> handlers;
+        private final ClassValue<Resolution<V>> resolutions;
+
+        private State(Map<Class<?>, V> handlers) {
+            this.handlers = Collections.unmodifiableMap(handlers);
+            this.resolutions = new ClassValue<Resolution<V>>() {
+                @Override
+                protected Resolution<V> computeValue(Class<?> type) {
+                    Class<?> found = InheritanceDistance.toType(type).from(handlers.keySet()).getType();
+                    return new Resolution<>(found, found == null ? null : handlers.get(found));
+                }
+            };
+        }
+    }
+
+    private static final class Resolution<V> {
+
+        private final Class<?> type;
+        private final V handler;
+
+        private Resolution(Class<?> type, V handler) {
+            this.type = type;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the header of a class file: name, supertypes, access flags and class annotations. Only the constant
+ * pool offsets are collected, strings are decoded for the referenced entries only, fields and methods are
+ * skipped by their lengths, so reading doesn't depend on the class file version beyond the constant pool tags.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 22.10.26 10:20
+ */
+final class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final String[] strings;
+
+    private ClassFileReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        buffer.getInt(); // minor and major versions
+        int count = buffer.getShort() & 0xFFFF;
+        this.offsets = new int[count];
+        this.strings = new String[count];
+        for (int i = 1; i < count; i++) {
+            int tag = buffer.get();
+            offsets[i] = buffer.position();
+            switch (tag) {
+                case 1: // Utf8
+                    skip(buffer.getShort() & 0xFFFF);
+                    break;
+                case 7:  // Class
+                case 8:  // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skip(2);
+                    break;
+                case 15: // MethodHandle
+                    skip(3);
+                    break;
+                case 3:  // Integer
+                case 4:  // Float
+                case 9:  // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skip(4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    skip(8);
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at " + i);
+            }
+        }
+    }
+
+    /**
+     * @param buffer class file content from the current position, the position is moved
+     * @throws IllegalArgumentException if the content is not a valid class file
+     */
+    static @Nonnull Header read(@Nonnull ByteBuffer buffer) {
+        try {
+            return new ClassFileReader(buffer).readHeader();
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Truncated class file", ex);
+        }
+    }
+
+    private Header readHeader() {
+        int accessFlags = buffer.getShort() & 0xFFFF;
+        String name = className(buffer.getShort() & 0xFFFF);
+        int superIndex = buffer.getShort() & 0xFFFF;
+        String superName = superIndex == 0 ? null : className(superIndex);
+        int interfaceCount = buffer.getShort() & 0xFFFF;
+        List<String> interfaces = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(className(buffer.getShort() & 0xFFFF));
+        }
+        skipMembers(); // fields
+        skipMembers(); // methods
+        List<String> annotations = new ArrayList<>();
+        int attributeCount = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = utf8(buffer.getShort() & 0xFFFF);
+            int length = buffer.getInt();
+            if ("RuntimeVisibleAnnotations".equals(attributeName)) {
+                int annotationCount = buffer.getShort() & 0xFFFF;
+                for (int j = 0; j < annotationCount; j++) {
+                    annotations.add(readAnnotation());
+                }
+            }
+            else {
+                skip(length);
+            }
+        }
+        return new Header(name, superName, Collections.unmodifiableList(interfaces),
+                          Collections.unmodifiableList(annotations), accessFlags);
+    }
+
+    private void skipMembers() {
+        int count = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            skip(6); // access flags, name and descriptor
+            int attributeCount = buffer.getShort() & 0xFFFF;
+            for (int j = 0; j < attributeCount; j++) {
+                skip(2);
+                skip(buffer.getInt());
+            }
+        }
+    }
+
+    /**
+     * @return name of the annotation type, element values are skipped
+     */
+    private String readAnnotation() {
+        String descriptor = utf8(buffer.getShort() & 0xFFFF);
+        int pairCount = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < pairCount; i++) {
+            skip(2);
+            skipElementValue();
+        }
+        return descriptor.startsWith("L") && descriptor.endsWith(";")
+               ? descriptor.substring(1, descriptor.length() - 1).replace('/', '.')
+               : descriptor;
+    }
+
+    private void skipElementValue() {
+        int tag = buffer.get();
+        switch (tag) {
+            case 'e':
+                skip(4);
+                break;
+            case '@':
+                readAnnotation();
+                break;
+            case '[':
+                int count = buffer.getShort() & 0xFFFF;
+                for (int i = 0; i < count; i++) {
+                    skipElementValue();
+                }
+                break;
+            default:
+                skip(2);
+        }
+    }
+
+    private String className(int index) {
+        int offset = offsets[index];
+        return utf8(((buffer.get(offset) & 0xFF) << 8) | (buffer.get(offset + 1) & 0xFF)).replace('/', '.');
+    }
+
+    /**
+     * Decodes modified UTF-8 of the constant pool entry
+     */
+    private String utf8(int index) {
+        String string = strings[index];
+        if (string == null) {
+            int offset = offsets[index];
+            int length = ((buffer.get(offset) & 0xFF) << 8) | (buffer.get(offset + 1) & 0xFF);
+            char[] chars = new char[length];
+            int count = 0;
+            for (int i = offset + 2, end = offset + 2 + length; i < end; ) {
+                int b = buffer.get(i++) & 0xFF;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                }
+                else if ((b & 0xE0) == 0xC0) {
+                    chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get(i++) & 0x3F));
+                }
+                else {
+                    int b2 = buffer.get(i++) & 0x3F;
+                    chars[count++] = (char) (((b & 0x0F) << 12) | (b2 << 6) | (buffer.get(i++) & 0x3F));
+                }
+            }
+            strings[index] = string = new String(chars, 0, count);
+        }
+        return string;
+    }
+
+    private void skip(int length) {
+        buffer.position(buffer.position() + length);
+    }
+
+    static final class Header {
+
+        final String name;
+        final @Nullable String superName;
+        final List<String> interfaces;
+        final List<String> annotations;
+        final int accessFlags;
+
+        private Header(String name, @Nullable String superName, List<String> interfaces, List<String> annotations,
+                       int accessFlags) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.annotations = annotations;
+            this.accessFlags = accessFlags;
+        }
+    }
+}
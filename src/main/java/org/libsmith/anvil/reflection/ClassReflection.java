@@ -18,15 +18,19 @@ import static org.libsmith.anvil.reflection.ReflectionUtils.uncheckedClassCast;
 public class ClassReflection<T> implements ReflectionSubjectAware<Class<T>>  {
 
     private final Class<T> type;
+    private final MemberIndex<T> index;
 
     private volatile Set<Class<? super T>> hierarchyCached;
     private volatile Set<Method> allMethodsCached;
     private volatile Set<Field> allFieldsCached;
     private volatile Set<Method> localMethodsCached;
     private volatile Set<Field> localFieldsCached;
+    private volatile AnnotationIndex annotationIndexCached;
+    private volatile ReflectionIndex.ClassMetadata metadataCached;
 
     protected ClassReflection(@Nonnull Class<T> type) {
         this.type = type;
+        this.index = new MemberIndex<>(type);
     }
 
     @Override
@@ -34,25 +38,31 @@ public class ClassReflection<T> implements ReflectionSubjectAware<Class<T>>  {
         return type;
     }
 
+    /**
+     * @return process wide shared instance, so lazily collected hierarchy, members and annotations are computed once
+     *         per class. Returned members are shared as well, {@code accessible(true)} of invokers and accessors
+     *         works on a private copy, calling {@code setAccessible} on a returned member affects every caller.
+     */
+    @SuppressWarnings("unchecked")
     public static <T> ClassReflection<T> of(@Nonnull Class<T> type) {
-        return new ClassReflection<>(type);
+        return (ClassReflection<T>) SHARED_INSTANCES.get(type);
     }
 
     public static <T> ClassReflection<T> ofDeclaringClass(@Nonnull Method method) {
-        return new ClassReflection<>(uncheckedClassCast(method.getDeclaringClass()));
+        return of(uncheckedClassCast(method.getDeclaringClass()));
     }
 
     public static <T> ClassReflection<T> ofDeclaringClass(@Nonnull Field field) {
-        return new ClassReflection<>(uncheckedClassCast(field.getDeclaringClass()));
+        return of(uncheckedClassCast(field.getDeclaringClass()));
     }
 
     @SuppressWarnings("unchecked")
     public static <T> ClassReflection<T> ofInstance(@Nonnull T instance) {
-        return new ClassReflection<>((Class) instance.getClass());
+        return of((Class<T>) instance.getClass());
     }
 
     public MethodInvoker.Resolver<T> method(String name) {
-        return new MethodInvoker.Resolver<>(name, type::getMethod);
+        return new MethodInvoker.Resolver<>(name, index.methodResolver());
     }
 
     public @Nonnull Optional<Method> getMethodOp(@Nonnull String name, Class<?> ... parameters) {
@@ -64,7 +74,7 @@ public class ClassReflection<T> implements ReflectionSubjectAware<Class<T>>  {
     }
 
     public MethodInvoker.Resolver<T> localMethod(String name) {
-        return new MethodInvoker.Resolver<>(name, type::getDeclaredMethod);
+        return new MethodInvoker.Resolver<>(name, index.localMethodResolver());
     }
 
     public @Nonnull Method getLocalMethod(@Nonnull String name, Class<?> ... parameters) {
@@ -92,23 +102,23 @@ public class ClassReflection<T> implements ReflectionSubjectAware<Class<T>>  {
     }
 
     public @Nonnull Field getField(@Nonnull String name) {
-        return ((ReflectiveFunction<String, Field>) type::getField).apply(name);
+        return index.fieldResolver().apply(name);
     }
 
     public @Nonnull Optional<Field> getFieldOp(@Nonnull String name) {
-        return ((ReflectiveFunction<String, Field>) type::getField).applyOp(name);
+        return index.getFieldOp(name);
     }
 
     public @Nonnull Field getLocalField(@Nonnull String name) {
-        return ((ReflectiveFunction<String, Field>) type::getDeclaredField).apply(name);
+        return index.localFieldResolver().apply(name);
     }
 
     public @Nonnull Optional<Field> getLocalFieldOp(@Nonnull String name) {
-        return ((ReflectiveFunction<String, Field>) type::getDeclaredField).applyOp(name);
+        return index.getLocalFieldOp(name);
     }
 
     public @Nonnull ConstructorInvoker.Resolver<T> constructor() {
-        return new ConstructorInvoker.Resolver<>(type::getDeclaredConstructor);
+        return new ConstructorInvoker.Resolver<>(index.constructorResolver());
     }
 
     public @Nonnull Constructor<T> getConstructor(Class<?> ... params) {
@@ -201,11 +211,38 @@ public class ClassReflection<T> implements ReflectionSubjectAware<Class<T>>  {
                 }
                 row = newRow;
             }
-            this.hierarchyCached = Collections.unmodifiableSet(hierarchy);
+            this.hierarchyCached = hierarchy = Collections.unmodifiableSet(hierarchy);
         }
         return hierarchy;
     }
 
+    /**
+     * @return annotations of the class, its methods and fields with inherited and meta-annotations, built once
+     */
+    public @Nonnull AnnotationIndex getAnnotationIndex() {
+        AnnotationIndex annotationIndex = this.annotationIndexCached;
+        if (annotationIndex == null) {
+            this.annotationIndexCached = annotationIndex = new AnnotationIndex(this);
+        }
+        return annotationIndex;
+    }
+
+    /**
+     * The only consumer of the index, member getters reflect regardless of it
+     *
+     * @return metadata from {@link ReflectionIndex#getDefault() the build time index}, or collected by reflection
+     *         if the class is not indexed
+     */
+    public @Nonnull ReflectionIndex.ClassMetadata getMetadata() {
+        ReflectionIndex.ClassMetadata metadata = this.metadataCached;
+        if (metadata == null) {
+            ReflectionIndex reflectionIndex = ReflectionIndex.getDefault();
+            metadata = reflectionIndex == null ? null : reflectionIndex.get(type);
+            this.metadataCached = metadata = metadata == null ? ReflectionIndex.ClassMetadata.of(type) : metadata;
+        }
+        return metadata;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -228,6 +265,16 @@ public class ClassReflection<T> implements ReflectionSubjectAware<Class<T>>  {
         return getClass().getSimpleName() + " of " + type.getName();
     }
 
+    /**
+     * Values are kept by the class itself, so cache does not prevent class loaders from being collected
+     */
+    private static final ClassValue<ClassReflection<?>> SHARED_INSTANCES = new ClassValue<ClassReflection<?>>() {
+        @Override
+        protected ClassReflection<?> computeValue(Class<?> type) {
+            return new ClassReflection<>(type);
+        }
+    };
+
     private static final Predicate<Field> USER_FIELDS_FILTER = field -> !field.isSynthetic()
                                                                      &&  field.getDeclaringClass() != Object.class;
 
@@ -0,0 +1,455 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Indexes classes of directories and jar files without loading them. Only the header of each class file is
+ * read: name, supertypes, access flags and runtime visible class annotations. Class files are read in
+ * parallel in the fork-join pool, the common one unless another pool is given, each task of a jar file reads
+ * it through its own {@link ZipFile}.
+ * <p>
+ * Classes found in several roots are indexed from the first of them, like the class path does. Malformed
+ * class files are logged and skipped.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 22.10.26 11:05
+ */
+public final class ClassScanner {
+
+    private static final Logger LOG = Logger.getLogger(ClassScanner.class.getName());
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    private final List<Path> roots;
+    private final @Nullable ForkJoinPool pool;
+    private final Predicate<String> classNameFilter;
+
+    private ClassScanner(List<Path> roots, @Nullable ForkJoinPool pool, Predicate<String> classNameFilter) {
+        this.roots = roots;
+        this.pool = pool;
+        this.classNameFilter = classNameFilter;
+    }
+
+    public static @Nonnull ClassScanner of(@Nonnull Path ... roots) {
+        return of(Arrays.asList(roots));
+    }
+
+    /**
+     * @param roots directories and jar files
+     */
+    public static @Nonnull ClassScanner of(@Nonnull Collection<Path> roots) {
+        return new ClassScanner(Collections.unmodifiableList(new ArrayList<>(roots)), null, name -> true);
+    }
+
+    /**
+     * @return scanner of the {@code java.class.path} entries
+     */
+    public static @Nonnull ClassScanner ofClassPath() {
+        return of(Stream.of(System.getProperty("java.class.path", "").split(File.pathSeparator))
+                        .filter(entry -> !entry.isEmpty())
+                        .map(Paths::get)
+                        .collect(Collectors.toList()));
+    }
+
+    public @Nonnull ClassScanner withPool(@Nonnull ForkJoinPool pool) {
+        return new ClassScanner(roots, pool, classNameFilter);
+    }
+
+    /**
+     * @param classNameFilter checked against binary class names before the class file is read
+     */
+    public @Nonnull ClassScanner withFilter(@Nonnull Predicate<String> classNameFilter) {
+        return new ClassScanner(roots, pool, classNameFilter);
+    }
+
+    /**
+     * @return scanner of the classes in the packages and their subpackages
+     */
+    public @Nonnull ClassScanner withPackages(@Nonnull String ... packageNames) {
+        List<String> prefixes = Stream.of(packageNames).map(name -> name + ".").collect(Collectors.toList());
+        return withFilter(name -> prefixes.stream().anyMatch(name::startsWith));
+    }
+
+    public @Nonnull List<Path> getRoots() {
+        return roots;
+    }
+
+    /**
+     * @throws UncheckedIOException if a root can't be read, missing roots are skipped
+     */
+    public @Nonnull Index scan() {
+        ForkJoinPool pool = this.pool == null ? ForkJoinPool.commonPool() : this.pool;
+        List<RootTask> tasks = roots.stream().map(RootTask::new).collect(Collectors.toList());
+        List<List<ClassInfo>> scanned = pool.invoke(new ScanTask(tasks));
+        Map<String, ClassInfo> classes = new LinkedHashMap<>();
+        for (List<ClassInfo> rootClasses : scanned) {
+            for (ClassInfo classInfo : rootClasses) {
+                classes.putIfAbsent(classInfo.name, classInfo);
+            }
+        }
+        return new Index(classes);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + roots;
+    }
+
+    private static @Nullable String className(String path) {
+        if (!path.endsWith(CLASS_SUFFIX) || path.startsWith("META-INF/")) {
+            return null;
+        }
+        String name = path.substring(0, path.length() - CLASS_SUFFIX.length()).replace('/', '.');
+        return name.endsWith("module-info") || name.endsWith("package-info") ? null : name;
+    }
+
+    private static final class ScanTask extends RecursiveTask<List<List<ClassInfo>>> {
+
+        private static final long serialVersionUID = 4127509841230576815L;
+
+        private final List<RootTask> tasks;
+
+        private ScanTask(List<RootTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected List<List<ClassInfo>> compute() {
+            invokeAll(tasks);
+            return tasks.stream().map(RootTask::join).collect(Collectors.toList());
+        }
+    }
+
+    private final class RootTask extends RecursiveTask<List<ClassInfo>> {
+
+        private static final long serialVersionUID = -1822520117069834467L;
+
+        private final Path root;
+
+        private RootTask(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        protected List<ClassInfo> compute() {
+            try {
+                if (Files.isDirectory(root)) {
+                    List<String> paths;
+                    try (Stream<Path> files = Files.walk(root)) {
+                        paths = files.filter(Files::isRegularFile)
+                                     .map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+                                     .filter(this::accepts)
+                                     .collect(Collectors.toList());
+                    }
+                    return new ReadTask(paths, 0, paths.size(), false).compute();
+                }
+                if (Files.isRegularFile(root)) {
+                    List<String> paths;
+                    try (ZipFile zipFile = new ZipFile(root.toFile())) {
+                        paths = zipFile.stream().filter(entry -> !entry.isDirectory())
+                                       .map(ZipEntry::getName)
+                                       .filter(this::accepts)
+                                       .collect(Collectors.toList());
+                    }
+                    return new ReadTask(paths, 0, paths.size(), true).compute();
+                }
+                return Collections.emptyList();
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException("Can't scan " + root, ex);
+            }
+        }
+
+        private boolean accepts(String path) {
+            String name = className(path);
+            return name != null && classNameFilter.test(name);
+        }
+
+        private ByteBuffer read(ZipFile zipFile, String path) throws IOException {
+            ZipEntry entry = zipFile.getEntry(path);
+            try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                long size = entry.getSize();
+                ByteArrayOutputStream output = new ByteArrayOutputStream(size < 0 ? 4096 : (int) size);
+                byte[] chunk = new byte[8192];
+                for (int read; (read = inputStream.read(chunk)) >= 0; ) {
+                    output.write(chunk, 0, read);
+                }
+                return ByteBuffer.wrap(output.toByteArray());
+            }
+        }
+
+        /**
+         * Reads and parses a slice of the accepted paths. Each jar slice opens its own {@link ZipFile}, the
+         * entry streams of a shared one are read under its lock, which would serialize the whole scan.
+         */
+        private final class ReadTask extends RecursiveTask<List<ClassInfo>> {
+
+            private static final long serialVersionUID = 6081416262457153780L;
+
+            private final List<String> paths;
+            private final int from;
+            private final int to;
+            private final boolean jar;
+
+            private ReadTask(List<String> paths, int from, int to, boolean jar) {
+                this.paths = paths;
+                this.from = from;
+                this.to = to;
+                this.jar = jar;
+            }
+
+            @Override
+            protected List<ClassInfo> compute() {
+                if (to - from > SEQUENTIAL_THRESHOLD) {
+                    int middle = (from + to) >>> 1;
+                    ReadTask left = new ReadTask(paths, from, middle, jar);
+                    ReadTask right = new ReadTask(paths, middle, to, jar);
+                    left.fork();
+                    List<ClassInfo> classes = new ArrayList<>(right.compute());
+                    classes.addAll(0, left.join());
+                    return classes;
+                }
+                if (from == to) {
+                    return Collections.emptyList();
+                }
+                if (!jar) {
+                    return read(path -> ByteBuffer.wrap(Files.readAllBytes(root.resolve(path))));
+                }
+                try (ZipFile zipFile = new ZipFile(root.toFile())) {
+                    return read(path -> RootTask.this.read(zipFile, path));
+                }
+                catch (IOException ex) {
+                    throw new UncheckedIOException("Can't read " + root, ex);
+                }
+            }
+
+            private List<ClassInfo> read(Reader reader) {
+                List<ClassInfo> classes = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    String path = paths.get(i);
+                    try {
+                        ClassFileReader.Header header = ClassFileReader.read(reader.read(path));
+                        if (header.name.equals(className(path))) {
+                            classes.add(new ClassInfo(header, root));
+                        }
+                    }
+                    catch (IOException ex) {
+                        throw new UncheckedIOException("Can't read " + path + " of " + root, ex);
+                    }
+                    catch (IllegalArgumentException ex) {
+                        LOG.log(Level.WARNING, "Skipping malformed class file " + path + " of " + root, ex);
+                    }
+                }
+                return classes;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        ByteBuffer read(String path) throws IOException;
+    }
+
+    /**
+     * Scanned classes by name, annotation and supertype
+     */
+    public static final class Index {
+
+        private final Map<String, ClassInfo> classes;
+        private final Map<String, List<ClassInfo>> annotated = new HashMap<>();
+        private final Map<String, List<ClassInfo>> directSubtypes = new HashMap<>();
+
+        private Index(Map<String, ClassInfo> classes) {
+            this.classes = Collections.unmodifiableMap(classes);
+            for (ClassInfo classInfo : classes.values()) {
+                for (String annotation : classInfo.annotationNames) {
+                    annotated.computeIfAbsent(annotation, k -> new ArrayList<>()).add(classInfo);
+                }
+                if (classInfo.superName != null) {
+                    directSubtypes.computeIfAbsent(classInfo.superName, k -> new ArrayList<>()).add(classInfo);
+                }
+                for (String interfaceName : classInfo.interfaceNames) {
+                    directSubtypes.computeIfAbsent(interfaceName, k -> new ArrayList<>()).add(classInfo);
+                }
+            }
+        }
+
+        public @Nonnull Collection<ClassInfo> getClasses() {
+            return classes.values();
+        }
+
+        public @Nullable ClassInfo get(@Nonnull String className) {
+            return classes.get(className);
+        }
+
+        public int size() {
+            return classes.size();
+        }
+
+        /**
+         * @return classes directly annotated with the annotation, in the scan order
+         */
+        public @Nonnull List<ClassInfo> getAnnotatedWith(@Nonnull Class<? extends Annotation> annotationType) {
+            return getAnnotatedWith(annotationType.getName());
+        }
+
+        public @Nonnull List<ClassInfo> getAnnotatedWith(@Nonnull String annotationName) {
+            return Collections.unmodifiableList(annotated.getOrDefault(annotationName, Collections.emptyList()));
+        }
+
+        /**
+         * @return indexed classes extending or implementing the type directly or through other indexed classes
+         */
+        public @Nonnull Set<ClassInfo> getSubtypesOf(@Nonnull Class<?> type) {
+            return getSubtypesOf(type.getName());
+        }
+
+        public @Nonnull Set<ClassInfo> getSubtypesOf(@Nonnull String className) {
+            Set<ClassInfo> subtypes = new LinkedHashSet<>();
+            Deque<String> queue = new ArrayDeque<>();
+            queue.add(className);
+            while (!queue.isEmpty()) {
+                for (ClassInfo subtype : directSubtypes.getOrDefault(queue.poll(), Collections.emptyList())) {
+                    if (subtypes.add(subtype)) {
+                        queue.add(subtype.name);
+                    }
+                }
+            }
+            return Collections.unmodifiableSet(subtypes);
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + " of " + classes.size() + " classes";
+        }
+    }
+
+    /**
+     * Class file header, names are binary class names
+     */
+    public static final class ClassInfo {
+
+        private static final int ACC_SUPER = 0x0020;
+        private static final int ACC_INTERFACE = 0x0200;
+        private static final int ACC_ABSTRACT = 0x0400;
+        private static final int ACC_ANNOTATION = 0x2000;
+        private static final int ACC_ENUM = 0x4000;
+
+        private final String name;
+        private final @Nullable String superName;
+        private final List<String> interfaceNames;
+        private final List<String> annotationNames;
+        private final int accessFlags;
+        private final Path root;
+
+        private ClassInfo(ClassFileReader.Header header, Path root) {
+            this.name = header.name;
+            this.superName = header.superName;
+            this.interfaceNames = header.interfaces;
+            this.annotationNames = header.annotations;
+            this.accessFlags = header.accessFlags;
+            this.root = root;
+        }
+
+        public @Nonnull String getName() {
+            return name;
+        }
+
+        /**
+         * @return {@code null} for {@code java.lang.Object} only, interfaces have it as their superclass
+         */
+        public @Nullable String getSuperName() {
+            return superName;
+        }
+
+        public @Nonnull List<String> getInterfaceNames() {
+            return interfaceNames;
+        }
+
+        public @Nonnull List<String> getAnnotationNames() {
+            return annotationNames;
+        }
+
+        public boolean isAnnotatedWith(@Nonnull Class<? extends Annotation> annotationType) {
+            return annotationNames.contains(annotationType.getName());
+        }
+
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        /**
+         * @return modifiers of the class file, which lacks {@code static}, {@code private} and {@code protected}
+         *         of nested classes
+         */
+        public @Nonnull ModifierSet getModifiers() {
+            return ModifierSet.of(accessFlags & ~ACC_SUPER);
+        }
+
+        public boolean isInterface() {
+            return (accessFlags & ACC_INTERFACE) != 0;
+        }
+
+        public boolean isAbstract() {
+            return (accessFlags & ACC_ABSTRACT) != 0;
+        }
+
+        public boolean isAnnotation() {
+            return (accessFlags & ACC_ANNOTATION) != 0;
+        }
+
+        public boolean isEnum() {
+            return (accessFlags & ACC_ENUM) != 0;
+        }
+
+        /**
+         * @return directory or jar file the class was read from
+         */
+        public @Nonnull Path getRoot() {
+            return root;
+        }
+
+        /**
+         * Loads the class without initializing it
+         */
+        public @Nonnull Class<?> load(@Nonnull ClassLoader classLoader) {
+            try {
+                return Class.forName(name, false, classLoader);
+            }
+            catch (ClassNotFoundException ex) {
+                throw ReflectiveOperationRuntimeException.translate(ex);
+            }
+        }
+
+        public @Nonnull ClassReflection<?> reflect(@Nonnull ClassLoader classLoader) {
+            return ClassReflection.of(load(classLoader));
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.libsmith.anvil.reflection.Modifier.STATIC;
+
+/**
+ * Method handles of the single member, resolved once and shared by invokers in the
+ * {@link ReflectionCommons.Backend#COMPILED} mode
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 17.10.26 14:02
+ */
+final class CompiledMember {
+
+    private final MethodHandle direct;
+    private final MethodHandle generic;
+    private final MethodHandle spread;
+    private final Class<?> host;
+    private final boolean throwsChecked;
+    private final ConcurrentMap<LambdaKey, Optional<MethodHandle>> lambdaFactories = new ConcurrentHashMap<>(4);
+
+    private CompiledMember(@Nonnull MethodHandle direct, @Nonnull Executable member, boolean hasReceiverSlot) {
+        this.direct = direct;
+        this.host = member.getDeclaringClass();
+        this.throwsChecked = throwsChecked(member);
+        MethodHandle handle = direct.asFixedArity();
+        int arity = handle.type().parameterCount();
+        if (!hasReceiverSlot) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            arity++;
+        }
+        this.generic = handle.asType(MethodType.genericMethodType(arity));
+        this.spread = generic.asSpreader(Object[].class, arity - 1);
+    }
+
+    static @Nonnull CompiledMember of(@Nonnull Method method) {
+        try {
+            return new CompiledMember(LOOKUP.unreflect(method), method, STATIC.notPresentIn(method));
+        }
+        catch (IllegalAccessException ex) {
+            throw new ReflectiveOperationRuntimeException(ex);
+        }
+    }
+
+    static @Nonnull CompiledMember of(@Nonnull Constructor<?> constructor) {
+        try {
+            return new CompiledMember(LOOKUP.unreflectConstructor(constructor), constructor, false);
+        }
+        catch (IllegalAccessException ex) {
+            throw new ReflectiveOperationRuntimeException(ex);
+        }
+    }
+
+    /**
+     * @return handle of type {@code (Object receiver, Object arg0, ..., Object argN)Object}, receiver is ignored
+     *         for static members and constructors, void result is returned as {@code null}
+     */
+    @Nonnull MethodHandle getGenericHandle() {
+        return generic;
+    }
+
+    /**
+     * @return handle of type {@code (Object receiver, Object[] args)Object}, see {@link #getGenericHandle()}
+     */
+    @Nonnull MethodHandle getSpreadHandle() {
+        return spread;
+    }
+
+    /**
+     * Spins implementation of the functional interface which calls the member directly.
+     * Leading parameters of the member are bound to the captured values, the rest are taken
+     * from the functional method.
+     *
+     * @return functional object or {@code null} if {@code LambdaMetafactory} is not able to handle the member
+     *         or the member declares checked exceptions, which the lambda would throw unwrapped, in this case
+     *         caller should fall back to the {@link #getGenericHandle() generic handle}. Unchecked exceptions
+     *         propagate from the lambda as is.
+     */
+    @Nullable Object lambda(@Nonnull Class<?> functionalInterface, Object ... captured) {
+        Optional<MethodHandle> factory = lambdaFactories.computeIfAbsent(
+                new LambdaKey(functionalInterface, captured.length),
+                key -> Optional.ofNullable(makeLambdaFactory(key.functionalInterface, key.capturedCount)));
+        if (!factory.isPresent()) {
+            return null;
+        }
+        try {
+            return factory.get().invokeWithArguments(captured);
+        }
+        catch (Throwable th) {
+            throw rethrow(th);
+        }
+    }
+
+    private @Nullable MethodHandle makeLambdaFactory(Class<?> functionalInterface, int capturedCount) {
+        MethodType directType = direct.type();
+        Method samMethod = findSingleAbstractMethod(functionalInterface);
+        MethodHandles.Lookup caller = privateLookupIn(host);
+        if (throwsChecked || samMethod == null || caller == null || directType.returnType() == void.class
+                || directType.parameterCount() - capturedCount != samMethod.getParameterCount()) {
+            return null;
+        }
+        try {
+            MethodType instantiatedType = directType.dropParameterTypes(0, capturedCount).wrap();
+            MethodType factoryType = MethodType.methodType(
+                    functionalInterface, directType.dropParameterTypes(capturedCount, directType.parameterCount()));
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    caller, samMethod.getName(), factoryType,
+                    MethodType.methodType(samMethod.getReturnType(), samMethod.getParameterTypes()),
+                    direct, instantiatedType);
+            return callSite.getTarget().asType(factoryType.generic());
+        }
+        catch (Throwable ignored) {
+            return null;
+        }
+    }
+
+    private static @Nullable Method findSingleAbstractMethod(Class<?> functionalInterface) {
+        Method found = null;
+        for (Method method : functionalInterface.getMethods()) {
+            if (Modifier.ABSTRACT.presentIn(method) && !isObjectMethod(method)) {
+                if (found != null) {
+                    return null;
+                }
+                found = method;
+            }
+        }
+        return found;
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        }
+        catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    static @Nullable MethodHandles.Lookup privateLookupIn(@Nonnull Class<?> type) {
+        if (LOOKUP_CONSTRUCTOR != null) {
+            try {
+                return LOOKUP_CONSTRUCTOR.newInstance(type, ALL_LOOKUP_MODES);
+            }
+            catch (ReflectiveOperationException ignored)
+            { }
+        }
+        return null;
+    }
+
+    private static boolean throwsChecked(Executable member) {
+        for (Class<?> exceptionType : member.getExceptionTypes()) {
+            if (!RuntimeException.class.isAssignableFrom(exceptionType)
+                    && !Error.class.isAssignableFrom(exceptionType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wraps exception thrown by the invoked member the way the reflective backend does, into
+     * {@link ReflectiveOperationRuntimeException} caused by {@link InvocationTargetException}
+     */
+    static RuntimeException translate(@Nonnull Throwable throwable) {
+        throw new ReflectiveOperationRuntimeException(new InvocationTargetException(throwable));
+    }
+
+    static RuntimeException rethrow(@Nonnull Throwable throwable) {
+        throw CompiledMember.<RuntimeException>__rethrow(throwable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T __rethrow(@Nonnull Throwable throwable) throws T {
+        throw (T) throwable;
+    }
+
+    private static final class LambdaKey {
+
+        private final Class<?> functionalInterface;
+        private final int capturedCount;
+
+        private LambdaKey(Class<?> functionalInterface, int capturedCount) {
+            this.functionalInterface = functionalInterface;
+            this.capturedCount = capturedCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LambdaKey)) {
+                return false;
+            }
+            LambdaKey that = (LambdaKey) o;
+            return capturedCount == that.capturedCount && functionalInterface == that.functionalInterface;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * functionalInterface.hashCode() + capturedCount;
+        }
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final int ALL_LOOKUP_MODES = MethodHandles.Lookup.PUBLIC | MethodHandles.Lookup.PRIVATE
+                                              | MethodHandles.Lookup.PROTECTED | MethodHandles.Lookup.PACKAGE;
+
+    private static final Constructor<MethodHandles.Lookup> LOOKUP_CONSTRUCTOR;
+    static {
+        Constructor<MethodHandles.Lookup> lookupConstructor = null;
+        try {
+            lookupConstructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+            lookupConstructor.setAccessible(true);
+        }
+        catch (NoSuchMethodException | RuntimeException ignored) {
+            lookupConstructor = null;
+        }
+        LOOKUP_CONSTRUCTOR = lookupConstructor;
+    }
+}
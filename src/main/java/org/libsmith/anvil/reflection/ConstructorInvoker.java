@@ -1,9 +1,14 @@
 package org.libsmith.anvil.reflection;
 
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
+
 import javax.annotation.Nonnull;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.libsmith.anvil.reflection.ReflectionCommons.EMPTY_CLASS_ARRAY;
 import static org.libsmith.anvil.reflection.ReflectionCommons.EMPTY_OBJECT_ARRAY;
@@ -14,9 +19,11 @@ import static org.libsmith.anvil.reflection.ReflectionCommons.EMPTY_OBJECT_ARRAY
  */
 public class ConstructorInvoker<T, S extends ConstructorInvoker<T, S>>
         implements ReflectionCommons.MemberCommons<Constructor<T>, S>,
-                   ReflectionCommons.AccessibleCommons<Constructor<T>, S> {
+                   ReflectionCommons.AccessibleCommons<Constructor<T>, S>,
+                   ReflectionCommons.BackendCommons<S> {
 
-    private final Constructor<T> constructor;
+    private Constructor<T> constructor;
+    private volatile CompiledMember compiled;
 
     ConstructorInvoker(Constructor<T> constructor) {
         this.constructor = constructor;
@@ -31,7 +38,66 @@ public class ConstructorInvoker<T, S extends ConstructorInvoker<T, S>>
         return constructor;
     }
 
+    @Override
+    public @Nonnull Backend getBackend() {
+        return compiled == null ? Backend.REFLECTION : Backend.COMPILED;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public S backend(@Nonnull Backend backend) {
+        if (backend == Backend.REFLECTION) {
+            compiled = null;
+        }
+        else if (compiled == null) {
+            compiled = CompiledMember.of(constructor);
+        }
+        return (S) this;
+    }
+
+    /**
+     * Changes accessibility of a private copy of the constructor, the resolved one is shared with other callers
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public S accessible(boolean value) {
+        if (constructor.isAccessible() != value) {
+            Constructor<T> copy = MemberIndex.copy(constructor);
+            copy.setAccessible(value);
+            constructor = copy;
+        }
+        return (S) this;
+    }
+
     protected T construct(Object[] args) {
+        ReflectionMetrics.Counter counter = ReflectionMetrics.counter(constructor);
+        if (counter == null) {
+            return construct0(args);
+        }
+        long start = counter.enter();
+        try {
+            return construct0(args);
+        }
+        catch (Throwable th) {
+            counter.fail();
+            throw th;
+        }
+        finally {
+            counter.exit(start);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T construct0(Object[] args) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null) {
+            try {
+                return (T) compiled.getSpreadHandle().invokeExact((Object) null, args);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
         try {
             return constructor.newInstance(args);
         }
@@ -40,6 +106,69 @@ public class ConstructorInvoker<T, S extends ConstructorInvoker<T, S>>
         }
     }
 
+    /**
+     * Spreader path for callers already holding the arguments, the array is passed to the constructor as is
+     */
+    public T constructSpread(@Nonnull Object[] args) {
+        return construct(args);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final T constructExact() {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (T) compiled.getGenericHandle().invokeExact((Object) null);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return construct(EMPTY_OBJECT_ARRAY);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final T constructExact(Object arg0) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (T) compiled.getGenericHandle().invokeExact((Object) null, arg0);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return construct(new Object[] { arg0 });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final T constructExact(Object arg0, Object arg1) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (T) compiled.getGenericHandle().invokeExact((Object) null, arg0, arg1);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return construct(new Object[] { arg0, arg1 });
+    }
+
+    /**
+     * @return functional object generated for the constructor in the compiled mode, the fallback otherwise or
+     *         while {@link ReflectionMetrics} are enabled
+     */
+    @SuppressWarnings("unchecked")
+    <F> F compile(@Nonnull Class<? super F> functionalInterface, @Nonnull F fallback) {
+        CompiledMember compiled = this.compiled;
+        if (compiled == null || ReflectionMetrics.enabled) {
+            return fallback;
+        }
+        Object lambda = compiled.lambda(functionalInterface);
+        return lambda == null ? fallback : (F) lambda;
+    }
+
     public static class UncheckedArgument<T> extends ConstructorInvoker<T, UncheckedArgument<T>> {
 
         UncheckedArgument(@Nonnull Constructor<T> constructor) {
@@ -50,6 +179,10 @@ public class ConstructorInvoker<T, S extends ConstructorInvoker<T, S>>
         public T construct(Object... args) {
             return super.construct(args);
         }
+
+        public Function<Object[], T> asFunction() {
+            return this::construct;
+        }
     }
 
     public static class NoArgument<T> extends ConstructorInvoker<T, NoArgument<T>> {
@@ -59,7 +192,11 @@ public class ConstructorInvoker<T, S extends ConstructorInvoker<T, S>>
         }
 
         public T construct() {
-            return super.construct(EMPTY_OBJECT_ARRAY);
+            return constructExact();
+        }
+
+        public Supplier<T> asSupplier() {
+            return compile(Supplier.class, this::construct);
         }
     }
 
@@ -70,7 +207,11 @@ public class ConstructorInvoker<T, S extends ConstructorInvoker<T, S>>
         }
 
         public T construct(A0 arg0) {
-            return super.construct(new Object[] { arg0 });
+            return constructExact(arg0);
+        }
+
+        public Function<A0, T> asFunction() {
+            return compile(Function.class, this::construct);
         }
     }
 
@@ -81,7 +222,11 @@ public class ConstructorInvoker<T, S extends ConstructorInvoker<T, S>>
         }
 
         public T construct(A0 arg0, A1 arg1) {
-            return super.construct(new Object[] { arg0, arg1 });
+            return constructExact(arg0, arg1);
+        }
+
+        public BiFunction<A0, A1, T> asBiFunction() {
+            return compile(BiFunction.class, this::construct);
         }
     }
 
@@ -92,7 +237,7 @@ public class ConstructorInvoker<T, S extends ConstructorInvoker<T, S>>
         }
 
         public T construct(A0 arg0, A1 arg1, Object... restArguments) {
-            Object[] args = new Class[restArguments.length + 2];
+            Object[] args = new Object[restArguments.length + 2];
             args[0] = arg0;
             args[1] = arg1;
             System.arraycopy(restArguments, 0, args, 2, restArguments.length);
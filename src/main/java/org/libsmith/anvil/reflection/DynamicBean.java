@@ -1,5 +1,6 @@
 package org.libsmith.anvil.reflection;
 
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
 import org.libsmith.anvil.text.Strings;
 
 import java.lang.annotation.*;
@@ -23,21 +24,51 @@ import java.util.function.Supplier;
 public interface DynamicBean {
 
     static DynamicBean of(Supplier<? extends Map<? super String, Object>> propertiesSupplier) {
-        return new Impl(propertiesSupplier, null, new ConcurrentHashMap<>());
+        return new Impl(propertiesSupplier, null, null, Backend.REFLECTION, new ConcurrentHashMap<>());
     }
 
     static DynamicBean of(Map<? super String, Object> properties) {
-        return new Impl(() -> properties, null, new ConcurrentHashMap<>());
+        return new Impl(() -> properties, properties, null, Backend.REFLECTION, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @see DynamicBeanSchema
+     */
+    static <T> DynamicBeanSchema<T> schema(Class<T> iface) {
+        return DynamicBeanSchema.of(iface);
     }
 
     DynamicBean withDefaultNamespace(Namespace namespace);
 
+    /**
+     * Properties map that changes its version on every modification. Getters converting raw property values
+     * into numbers, enums, time periods and so on skip the map lookup while the version stays the same,
+     * other maps are looked up on every call and values are converted again only when they are replaced.
+     */
+    interface Versioned {
+
+        long getVersion();
+    }
+
+    /**
+     * {@link Backend#REFLECTION} wraps properties into {@code java.lang.reflect.Proxy}, {@link Backend#COMPILED}
+     * generates implementation class per interface with getters and setters calling the properties map directly.
+     * Interfaces that can't be implemented by the generated class fall back to proxy.
+     */
+    DynamicBean withBackend(Backend backend);
+
     DynamicBean detach();
 
+    /**
+     * Read only bean bound to a single generation of the properties. Free for {@link VersionedProperties},
+     * other maps are copied.
+     */
+    DynamicBean snapshot();
+
     <T> T as(Class<T> iface);
 
     @Inherited
-    @Target(ElementType.METHOD)
+    @Target({ ElementType.METHOD, ElementType.FIELD })
     @Retention(RetentionPolicy.RUNTIME)
     @interface Property {
         String name() default "";
@@ -94,19 +125,39 @@ public interface DynamicBean {
 
         private final ConcurrentMap<Class<?>, Object> wrapperCache;
         private final Supplier<? extends Map<? super String, Object>> propertiesSupplier;
+        private final Map<? super String, Object> properties;
         private final Namespace defaultNameSpace;
+        private final Backend backend;
+
+        protected Impl(Supplier<? extends Map<? super String, Object>> propertiesSupplier,
+                       Namespace defaultNamespace,
+                       ConcurrentMap<Class<?>, Object> wrapperCache) {
+            this(propertiesSupplier, null, defaultNamespace, Backend.REFLECTION, wrapperCache);
+        }
 
+        /**
+         * @param properties fixed properties map, if the supplier always returns the same one
+         */
         protected Impl(Supplier<? extends Map<? super String, Object>> propertiesSupplier,
+                       Map<? super String, Object> properties,
                        Namespace defaultNamespace,
+                       Backend backend,
                        ConcurrentMap<Class<?>, Object> wrapperCache) {
             this.propertiesSupplier = propertiesSupplier;
+            this.properties = properties;
             this.defaultNameSpace = defaultNamespace;
+            this.backend = backend;
             this.wrapperCache = wrapperCache;
         }
 
         @Override
         public DynamicBean withDefaultNamespace(Namespace namespace) {
-            return new Impl(propertiesSupplier, namespace, new ConcurrentHashMap<>());
+            return new Impl(propertiesSupplier, properties, namespace, backend, new ConcurrentHashMap<>());
+        }
+
+        @Override
+        public DynamicBean withBackend(Backend backend) {
+            return new Impl(propertiesSupplier, properties, defaultNameSpace, backend, new ConcurrentHashMap<>());
         }
 
         @Override
@@ -118,7 +169,13 @@ public interface DynamicBean {
         @Override
         public DynamicBean detach() {
             Map<? super String, Object> propertiesMap = new HashMap<>(propertiesSupplier.get());
-            return new Impl(() -> propertiesMap, defaultNameSpace, new ConcurrentHashMap<>());
+            return new Impl(() -> propertiesMap, propertiesMap, defaultNameSpace, backend, new ConcurrentHashMap<>());
+        }
+
+        @Override
+        public DynamicBean snapshot() {
+            VersionedProperties.Snapshot snapshot = VersionedProperties.Snapshot.copyOf(propertiesSupplier.get());
+            return new Impl(() -> snapshot, snapshot, defaultNameSpace, backend, new ConcurrentHashMap<>());
         }
 
         @SuppressWarnings("unchecked")
@@ -126,8 +183,37 @@ public interface DynamicBean {
             Map<Method, MethodInvoker> accessors = new ConcurrentHashMap<>();
             InvocationHandler invocationHandler = (proxy, method, args) -> {
                 MethodInvoker accessor = accessors.computeIfAbsent(method, this::makeAccessor);
-                return accessor.invoke(proxy, args);
+                ReflectionMetrics.Counter counter = ReflectionMetrics.counter(method);
+                if (counter == null) {
+                    return accessor.invoke(proxy, args);
+                }
+                long start = counter.enter();
+                try {
+                    return accessor.invoke(proxy, args);
+                }
+                catch (Throwable th) {
+                    counter.fail();
+                    throw th;
+                }
+                finally {
+                    counter.exit(start);
+                }
             };
+            if (backend == Backend.COMPILED) {
+                try {
+                    DynamicBeanClass beanClass = DynamicBeanClass.of(iface);
+                    Method[] methods = beanClass.getMapProperties();
+                    String[] keys = new String[methods.length];
+                    for (int i = 0; i < methods.length; i++) {
+                        keys[i] = propertyName(methods[i], defaultNameSpace);
+                    }
+                    return properties == null
+                           ? (T) beanClass.newInstance(invocationHandler, propertiesSupplier, false, keys)
+                           : (T) beanClass.newInstance(invocationHandler, properties, true, keys);
+                }
+                catch (UnsupportedOperationException ignored)
+                { }
+            }
             return (T) Proxy.newProxyInstance(
                     Thread.currentThread().getContextClassLoader(),
                     new Class[] { iface }, invocationHandler);
@@ -176,6 +262,38 @@ public interface DynamicBean {
                 }
             }
 
+            if (name.length() > 2 && name.startsWith("is") && method.getReturnType() == boolean.class) {
+                String propertyName = propertyName(method, defaultNameSpace);
+                PropertyConversion.Memo memo = new PropertyConversion.Memo(PropertyConversion.of(boolean.class));
+                return (self, args) -> Boolean.TRUE.equals(memo.get(propertiesSupplier.get(), propertyName));
+            }
+            if (name.length() > 3) {
+                String propertyName = propertyName(method, defaultNameSpace);
+                if (name.startsWith("get")) {
+                    boolean optional = method.getReturnType() == Optional.class;
+                    Function<Object, Object> conversion = PropertyConversion.of(PropertyConversion.valueType(method));
+                    if (conversion != null) {
+                        PropertyConversion.Memo memo = new PropertyConversion.Memo(conversion);
+                        return optional
+                               ? (self, args) -> Optional.ofNullable(memo.get(propertiesSupplier.get(), propertyName))
+                               : (self, args) -> memo.get(propertiesSupplier.get(), propertyName);
+                    }
+                    if (optional) {
+                        return (self, args) -> Optional.ofNullable(propertiesSupplier.get().get(propertyName));
+                    }
+                    return (self, args) -> propertiesSupplier.get().get(propertyName);
+                }
+                else if (name.startsWith("set") && method.getParameterCount() == 1) {
+                    return (self, args) -> propertiesSupplier.get().put(propertyName, args[0]);
+                }
+            }
+            throw new UnsupportedOperationException(method.toString());
+        }
+
+        static String propertyName(Method method, Namespace defaultNamespace) {
+
+            String name = method.getName();
+            Class<?> methodClass = method.getDeclaringClass();
             Optional<Property> methodDescriptor = Optional.ofNullable(method.getAnnotation(Property.class));
             Optional<String> nameFromDescriptor =
                     methodDescriptor.flatMap(p -> p.name().isEmpty() ? Optional.empty() : Optional.of(p.name()));
@@ -185,55 +303,45 @@ public interface DynamicBean {
                 namespaceDescriptor = methodClass.getAnnotation(Namespace.class);
             }
             if (namespaceDescriptor == null) {
-                namespaceDescriptor = defaultNameSpace;
+                namespaceDescriptor = defaultNamespace;
             }
-            Namespace ns = namespaceDescriptor;
-            Function<String, String> namespace = val -> {
-                if (ns == null) {
-                    return val;
-                }
-                StringBuilder sb = new StringBuilder();
-                if (ns.as() != Namespace.None.class) {
-                    if (ns.as() == Namespace.Self.class) {
-                        sb.append(methodClass.getCanonicalName());
-                    }
-                    else {
-                        sb.append(ns.as().getCanonicalName());
-                    }
+            int prefixLength = name.startsWith("is") ? 2 : 3;
+            return namespaced(namespaceDescriptor, methodClass,
+                              nameFromDescriptor.orElseGet(() -> substringPropertyNameAt(prefixLength, name)));
+        }
+
+        /**
+         * @param ns namespace or {@code null}
+         * @param selfClass class substituted for {@link Namespace.Self}
+         * @return name prefixed with the namespace
+         */
+        static String namespaced(Namespace ns, Class<?> selfClass, String name) {
+            if (ns == null) {
+                return name;
+            }
+            StringBuilder sb = new StringBuilder();
+            if (ns.as() != Namespace.None.class) {
+                if (ns.as() == Namespace.Self.class) {
+                    sb.append(selfClass.getCanonicalName());
                 }
-                if (Strings.isNotBlank(ns.value())) {
-                    if (sb.length() != 0) {
-                        sb.append(".");
-                    }
-                    sb.append(ns.value());
+                else {
+                    sb.append(ns.as().getCanonicalName());
                 }
+            }
+            if (Strings.isNotBlank(ns.value())) {
                 if (sb.length() != 0) {
                     sb.append(".");
-                    sb.append(val);
-                    return sb.toString();
-                }
-                else {
-                    return val;
                 }
-            };
-
-            if (name.length() > 2 && name.startsWith("is") && method.getReturnType() == boolean.class) {
-                String propertyName = namespace.apply(nameFromDescriptor.orElseGet(() -> substringPropertyNameAt(2, name)));
-                return (self, args) -> Boolean.TRUE == propertiesSupplier.get().get(propertyName);
+                sb.append(ns.value());
             }
-            if (name.length() > 3) {
-                String propertyName = namespace.apply(nameFromDescriptor.orElseGet(() -> substringPropertyNameAt(3, name)));
-                if (name.startsWith("get")) {
-                    if (method.getReturnType() == Optional.class) {
-                        return (self, args) -> Optional.ofNullable(propertiesSupplier.get().get(propertyName));
-                    }
-                    return (self, args) -> propertiesSupplier.get().get(propertyName);
-                }
-                else if (name.startsWith("set") && method.getParameterCount() == 1) {
-                    return (self, args) -> propertiesSupplier.get().put(propertyName, args[0]);
-                }
+            if (sb.length() != 0) {
+                sb.append(".");
+                sb.append(name);
+                return sb.toString();
+            }
+            else {
+                return name;
             }
-            throw new UnsupportedOperationException(method.toString());
         }
 
         private static String substringPropertyNameAt(int position, String methodName) {
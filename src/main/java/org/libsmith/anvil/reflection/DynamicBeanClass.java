@@ -0,0 +1,917 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.libsmith.anvil.reflection.Modifier.ABSTRACT;
+import static org.libsmith.anvil.reflection.Modifier.STATIC;
+
+/**
+ * Runtime generated implementation of a {@link DynamicBean} interface. Getters and setters are compiled into
+ * direct calls of the backing map with the property key kept in a final field, other abstract methods are
+ * delegated to an {@link InvocationHandler} the same way {@code java.lang.reflect.Proxy} does, and default
+ * methods are inherited as is.
+ * <p>
+ * Classes are defined in the package of the interface, so they can implement package private interfaces:
+ * as hidden or anonymous classes unloaded together with the interface where the runtime supports them, as regular
+ * classes of the interface class loader otherwise. If the runtime can't define them at all, callers fall back to
+ * {@code java.lang.reflect.Proxy}. Two classes are generated per interface at most: one reading the fixed backing
+ * map from a field, another one asking the properties supplier on every call.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 19.10.26 10:15
+ */
+final class DynamicBeanClass {
+
+    enum AccessorKind { GETTER, OPTIONAL_GETTER, BOOLEAN_GETTER, SETTER, DELEGATE }
+
+    private final Class<?> iface;
+    private final Method[] properties;
+    private final Method[] delegates;
+    private final AccessorKind[] propertyKinds;
+    private final Method[] mapProperties;
+    private final Method[] mapDelegates;
+    private final AccessorKind[] mapPropertyKinds;
+    private volatile Constructor<?> fixedMapConstructor;
+    private volatile Constructor<?> supplierConstructor;
+
+    private DynamicBeanClass(@Nonnull Class<?> iface) {
+        this.iface = iface;
+        Map<String, Method> signatures = new LinkedHashMap<>();
+        Set<String> implemented = new HashSet<>();
+        for (Method method : Object.class.getMethods()) {
+            implemented.add(method.getName() + Arrays.toString(method.getParameterTypes()));
+        }
+        for (Method method : iface.getMethods()) {
+            if (!STATIC.presentIn(method) && !ABSTRACT.presentIn(method)) {
+                implemented.add(method.getName() + Arrays.toString(method.getParameterTypes()));
+            }
+        }
+        for (Method method : iface.getMethods()) {
+            String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+            if (!ABSTRACT.presentIn(method) || implemented.contains(signature)) {
+                continue;
+            }
+            Method present = signatures.putIfAbsent(signature, method);
+            if (present != null) {
+                if (present.getReturnType() != method.getReturnType()) {
+                    throw new UnsupportedOperationException("Covariant return types are not supported: " + method);
+                }
+                if (present.getDeclaringClass().isAssignableFrom(method.getDeclaringClass())) {
+                    signatures.put(signature, method);
+                }
+            }
+        }
+        List<Method> properties = new ArrayList<>();
+        List<AccessorKind> propertyKinds = new ArrayList<>();
+        List<Method> delegates = new ArrayList<>();
+        List<Method> mapProperties = new ArrayList<>();
+        List<AccessorKind> mapPropertyKinds = new ArrayList<>();
+        List<Method> mapDelegates = new ArrayList<>();
+        for (Method method : signatures.values()) {
+            AccessorKind kind = kindOf(method);
+            if (kind == AccessorKind.DELEGATE) {
+                delegates.add(method);
+                mapDelegates.add(method);
+                continue;
+            }
+            properties.add(method);
+            propertyKinds.add(kind);
+            if (kind != AccessorKind.SETTER && PropertyConversion.of(PropertyConversion.valueType(method)) != null) {
+                mapDelegates.add(method);
+            }
+            else {
+                mapProperties.add(method);
+                mapPropertyKinds.add(kind);
+            }
+        }
+        this.properties = properties.toArray(new Method[properties.size()]);
+        this.propertyKinds = propertyKinds.toArray(new AccessorKind[propertyKinds.size()]);
+        this.delegates = delegates.toArray(new Method[delegates.size()]);
+        this.mapProperties = mapProperties.toArray(new Method[mapProperties.size()]);
+        this.mapPropertyKinds = mapPropertyKinds.toArray(new AccessorKind[mapPropertyKinds.size()]);
+        this.mapDelegates = mapDelegates.toArray(new Method[mapDelegates.size()]);
+    }
+
+    static @Nonnull DynamicBeanClass of(@Nonnull Class<?> iface) {
+        return CLASSES.get(iface);
+    }
+
+    /**
+     * Properties in the order of slots expected by {@link #defineSlotted}
+     */
+    @Nonnull Method[] getProperties() {
+        return properties.clone();
+    }
+
+    /**
+     * Properties in the order of keys expected by {@link #newInstance}. Getters of values that need
+     * {@link PropertyConversion} are left to the invocation handler.
+     */
+    @Nonnull Method[] getMapProperties() {
+        return mapProperties.clone();
+    }
+
+    /**
+     * @param source backing map, if {@code fixedMap} is set, properties supplier otherwise
+     * @param keys property keys, in the order of {@link #getMapProperties()}
+     */
+    @Nonnull Object newInstance(@Nonnull InvocationHandler delegate, @Nonnull Object source, boolean fixedMap,
+                                @Nonnull String[] keys) {
+        Constructor<?> constructor = fixedMap ? fixedMapConstructor : supplierConstructor;
+        if (constructor == null) {
+            synchronized (this) {
+                constructor = fixedMap ? fixedMapConstructor : supplierConstructor;
+                if (constructor == null) {
+                    constructor = define(fixedMap);
+                    if (fixedMap) {
+                        fixedMapConstructor = constructor;
+                    }
+                    else {
+                        supplierConstructor = constructor;
+                    }
+                }
+            }
+        }
+        try {
+            return constructor.newInstance(delegate, mapDelegates, source, keys);
+        }
+        catch (ReflectiveOperationException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+
+    /**
+     * Methods passed to the invocation handler, in the order expected by constructors of generated classes
+     */
+    @Nonnull Method[] getDelegates() {
+        return delegates.clone();
+    }
+
+    /**
+     * Defines class keeping properties in the arrays instead of the map. Constructor of the class takes the
+     * invocation handler, {@link #getDelegates() delegated methods}, reference and primitive slots arrays.
+     * Primitive slots keep raw bits of the value, see {@link #pack} and {@link #unpack}.
+     *
+     * @param propertySlots slot of each property, in the order of {@link #getProperties()}
+     * @param slotTypes type of each slot, a primitive type or {@code Object}, all primitive accessors of
+     *                  the slot must be of the same type
+     */
+    @Nonnull Constructor<?> defineSlotted(@Nonnull int[] propertySlots, @Nonnull Class<?>[] slotTypes) {
+        return define(generateSlotted(propertySlots, slotTypes), Object[].class, long[].class);
+    }
+
+    /**
+     * @return index of each slot within reference or primitive slots array
+     */
+    static @Nonnull int[] storageIndexes(@Nonnull Class<?>[] slotTypes) {
+        int[] indexes = new int[slotTypes.length];
+        int references = 0;
+        int primitives = 0;
+        for (int i = 0; i < slotTypes.length; i++) {
+            indexes[i] = slotTypes[i].isPrimitive() ? primitives++ : references++;
+        }
+        return indexes;
+    }
+
+    static long pack(@Nonnull Class<?> type, Object value) {
+        if (value == null) {
+            return 0;
+        }
+        switch (Primitive.of(type)) {
+            case BOOLEAN:
+                return (Boolean) value ? 1 : 0;
+            case BYTE:
+                return (Byte) value;
+            case CHAR:
+                return (Character) value;
+            case SHORT:
+                return (Short) value;
+            case INT:
+                return (Integer) value;
+            case LONG:
+                return (Long) value;
+            case FLOAT:
+                return Float.floatToRawIntBits((Float) value);
+            case DOUBLE:
+                return Double.doubleToRawLongBits((Double) value);
+            default:
+                throw new IllegalArgumentException(type.toString());
+        }
+    }
+
+    static @Nonnull Object unpack(@Nonnull Class<?> type, long bits) {
+        switch (Primitive.of(type)) {
+            case BOOLEAN:
+                return bits != 0;
+            case BYTE:
+                return (byte) bits;
+            case CHAR:
+                return (char) bits;
+            case SHORT:
+                return (short) bits;
+            case INT:
+                return (int) bits;
+            case LONG:
+                return bits;
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                throw new IllegalArgumentException(type.toString());
+        }
+    }
+
+    static @Nonnull AccessorKind kindOf(@Nonnull Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (declaringClass == Object.class || declaringClass == Map.class || declaringClass == DynamicBean.class) {
+            return AccessorKind.DELEGATE;
+        }
+        String name = method.getName();
+        Class<?> returnType = method.getReturnType();
+        if (name.length() > 2 && name.startsWith("is") && returnType == boolean.class
+                && method.getParameterCount() == 0) {
+            return AccessorKind.BOOLEAN_GETTER;
+        }
+        if (name.length() > 3 && name.startsWith("get") && method.getParameterCount() == 0) {
+            return returnType == Optional.class ? AccessorKind.OPTIONAL_GETTER : AccessorKind.GETTER;
+        }
+        if (name.length() > 3 && name.startsWith("set") && method.getParameterCount() == 1
+                && (returnType == void.class || !returnType.isPrimitive())) {
+            return AccessorKind.SETTER;
+        }
+        return AccessorKind.DELEGATE;
+    }
+
+    //<editor-fold desc="Class generation">
+    private static final String OBJECT = "java/lang/Object";
+    private static final String MAP = "java/util/Map";
+    private static final String SUPPLIER = Supplier.class.getName().replace('.', '/');
+    private static final String HANDLER = InvocationHandler.class.getName().replace('.', '/');
+    private static final String HANDLER_DESCRIPTOR = "L" + HANDLER + ";";
+    private static final String METHODS_DESCRIPTOR = "[Ljava/lang/reflect/Method;";
+    private static final String INVOKE_DESCRIPTOR =
+            "(Ljava/lang/Object;Ljava/lang/reflect/Method;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+    /**
+     * Names of generated classes are unique, classes defined by a lookup are regular named classes
+     */
+    private static final AtomicInteger CLASS_SEQUENCE = new AtomicInteger();
+
+    private static final ClassDefiner DEFINER = ClassDefiner.resolve();
+
+    /**
+     * Defines class in the package of the host with the best mechanism of the runtime: hidden class of the
+     * host lookup (JDK 15+), class defined by the host lookup (JDK 9+) or anonymous class of {@code Unsafe}
+     * (JDK 8). All of them are linked reflectively, so the code runs on any of these runtimes.
+     */
+    @FunctionalInterface
+    private interface ClassDefiner {
+
+        Class<?> define(Class<?> host, byte[] bytes) throws ReflectiveOperationException;
+
+        static @Nullable ClassDefiner resolve() {
+            try {
+                Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class,
+                                                                       MethodHandles.Lookup.class);
+                try {
+                    Class<?> optionType = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+                    Object noOptions = Array.newInstance(optionType, 0);
+                    Method defineHiddenClass = MethodHandles.Lookup.class.getMethod(
+                            "defineHiddenClass", byte[].class, boolean.class, noOptions.getClass());
+                    return (host, bytes) -> {
+                        Object lookup = privateLookupIn.invoke(null, host, MethodHandles.lookup());
+                        Object hidden = defineHiddenClass.invoke(lookup, bytes, true, noOptions);
+                        return ((MethodHandles.Lookup) hidden).lookupClass();
+                    };
+                }
+                catch (ClassNotFoundException | NoSuchMethodException ignored)
+                { }
+                Method defineClass = MethodHandles.Lookup.class.getMethod("defineClass", byte[].class);
+                return (host, bytes) -> (Class<?>) defineClass.invoke(
+                        privateLookupIn.invoke(null, host, MethodHandles.lookup()), bytes);
+            }
+            catch (NoSuchMethodException ignored)
+            { }
+            if (FieldHandle.UNSAFE != null) {
+                try {
+                    Method defineAnonymousClass = FieldHandle.UNSAFE.getClass().getMethod(
+                            "defineAnonymousClass", Class.class, byte[].class, Object[].class);
+                    return (host, bytes) -> (Class<?>) defineAnonymousClass.invoke(FieldHandle.UNSAFE, host, bytes,
+                                                                                   null);
+                }
+                catch (NoSuchMethodException ignored)
+                { }
+            }
+            return null;
+        }
+    }
+
+    private Constructor<?> define(boolean fixedMap) {
+        return define(generate(fixedMap), Object.class, String[].class);
+    }
+
+    private Constructor<?> define(byte[] bytes, Class<?> ... storageTypes) {
+        if (DEFINER == null) {
+            throw new UnsupportedOperationException("Class definition is not supported by this JVM");
+        }
+        Class<?> type;
+        try {
+            type = DEFINER.define(iface, bytes);
+        }
+        catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new UnsupportedOperationException("Class definition failed for " + iface, ex.getCause());
+        }
+        catch (ReflectiveOperationException | RuntimeException ex) {
+            throw new UnsupportedOperationException("Class definition failed for " + iface, ex);
+        }
+        Class<?>[] parameterTypes = new Class<?>[storageTypes.length + 2];
+        parameterTypes[0] = InvocationHandler.class;
+        parameterTypes[1] = Method[].class;
+        System.arraycopy(storageTypes, 0, parameterTypes, 2, storageTypes.length);
+        try {
+            return type.getConstructor(parameterTypes);
+        }
+        catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private byte[] generate(boolean fixedMap) {
+        String className = iface.getName().replace('.', '/') + (fixedMap ? "$$DynamicBean" : "$$DynamicBeanLive")
+                         + CLASS_SEQUENCE.incrementAndGet();
+        String sourceType = fixedMap ? MAP : SUPPLIER;
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(className);
+        int handlerField = pool.fieldRef(className, "handler", HANDLER_DESCRIPTOR);
+        int methodsField = pool.fieldRef(className, "methods", METHODS_DESCRIPTOR);
+        int sourceField = pool.fieldRef(className, "source", "L" + sourceType + ";");
+        int[] keyFields = new int[mapProperties.length];
+        for (int i = 0; i < mapProperties.length; i++) {
+            keyFields[i] = pool.fieldRef(className, "key" + i, "Ljava/lang/String;");
+        }
+
+        List<byte[]> methods = new ArrayList<>();
+        methods.add(constructor(pool, className, sourceType, handlerField, methodsField, sourceField, keyFields));
+        for (int i = 0; i < mapProperties.length; i++) {
+            methods.add(accessor(pool, mapProperties[i], mapPropertyKinds[i], fixedMap, sourceField, keyFields[i]));
+        }
+        for (int i = 0; i < mapDelegates.length; i++) {
+            methods.add(delegate(pool, mapDelegates[i], i, handlerField, methodsField));
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("handler", HANDLER_DESCRIPTOR);
+        fields.put("methods", METHODS_DESCRIPTOR);
+        fields.put("source", "L" + sourceType + ";");
+        for (int i = 0; i < keyFields.length; i++) {
+            fields.put("key" + i, "Ljava/lang/String;");
+        }
+        return writeClass(pool, thisClass, fields, methods);
+    }
+
+    private byte[] generateSlotted(int[] propertySlots, Class<?>[] slotTypes) {
+        String className = iface.getName().replace('.', '/') + "$$DynamicBeanSchema" + CLASS_SEQUENCE.incrementAndGet();
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(className);
+        int handlerField = pool.fieldRef(className, "handler", HANDLER_DESCRIPTOR);
+        int methodsField = pool.fieldRef(className, "methods", METHODS_DESCRIPTOR);
+        int valuesField = pool.fieldRef(className, "values", "[Ljava/lang/Object;");
+        int primitivesField = pool.fieldRef(className, "primitives", "[J");
+        int[] storageIndexes = storageIndexes(slotTypes);
+
+        List<byte[]> methods = new ArrayList<>();
+        Code constructor = new Code(pool);
+        constructor.aload(0).invoke(0xb7, pool.methodRef(OBJECT, "<init>", "()V"));
+        constructor.aload(0).aload(1).op(0xb5, handlerField);
+        constructor.aload(0).aload(2).op(0xb5, methodsField);
+        constructor.aload(0).aload(3).op(0xb5, valuesField);
+        constructor.aload(0).aload(4).op(0xb5, primitivesField);
+        constructor.op(0xb1);
+        methods.add(constructor.toMethod("<init>", "(" + HANDLER_DESCRIPTOR + METHODS_DESCRIPTOR +
+                                                    "[Ljava/lang/Object;[J)V", 2, 5));
+        for (int i = 0; i < properties.length; i++) {
+            int slot = propertySlots[i];
+            Class<?> slotType = slotTypes[slot];
+            methods.add(slotType.isPrimitive()
+                        ? primitiveSlotAccessor(pool, properties[i], propertyKinds[i], Primitive.of(slotType),
+                                                primitivesField, storageIndexes[slot])
+                        : slotAccessor(pool, properties[i], propertyKinds[i], valuesField, storageIndexes[slot]));
+        }
+        for (int i = 0; i < delegates.length; i++) {
+            methods.add(delegate(pool, delegates[i], i, handlerField, methodsField));
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("handler", HANDLER_DESCRIPTOR);
+        fields.put("methods", METHODS_DESCRIPTOR);
+        fields.put("values", "[Ljava/lang/Object;");
+        fields.put("primitives", "[J");
+        return writeClass(pool, thisClass, fields, methods);
+    }
+
+    private byte[] writeClass(ConstantPool pool, int thisClass, Map<String, String> fields, List<byte[]> methods) {
+        int superClass = pool.classRef(OBJECT);
+        int ifaceClass = pool.classRef(iface.getName().replace('.', '/'));
+        int[] fieldNames = new int[fields.size()];
+        int[] fieldTypes = new int[fields.size()];
+        int index = 0;
+        for (Map.Entry<String, String> entry : fields.entrySet()) {
+            fieldNames[index] = pool.utf8(entry.getKey());
+            fieldTypes[index++] = pool.utf8(entry.getValue());
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52);
+            pool.writeTo(out);
+            out.writeShort(0x0001 | 0x0010 | 0x0020);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(ifaceClass);
+            out.writeShort(fieldNames.length);
+            for (int i = 0; i < fieldNames.length; i++) {
+                out.writeShort(0x0002 | 0x0010);
+                out.writeShort(fieldNames[i]);
+                out.writeShort(fieldTypes[i]);
+                out.writeShort(0);
+            }
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] constructor(ConstantPool pool, String className, String sourceType, int handlerField,
+                                      int methodsField, int sourceField, int[] keyFields) {
+        Code code = new Code(pool);
+        code.aload(0).invoke(0xb7, pool.methodRef(OBJECT, "<init>", "()V"));
+        code.aload(0).aload(1).op(0xb5, handlerField);
+        code.aload(0).aload(2).op(0xb5, methodsField);
+        code.aload(0).aload(3).op(0xc0, pool.classRef(sourceType)).op(0xb5, sourceField);
+        for (int i = 0; i < keyFields.length; i++) {
+            code.aload(0).aload(4).push(i).op(0x32).op(0xb5, keyFields[i]);
+        }
+        code.op(0xb1);
+        return code.toMethod("<init>", "(" + HANDLER_DESCRIPTOR + METHODS_DESCRIPTOR + "Ljava/lang/Object;" +
+                                        "[Ljava/lang/String;)V", 4, 5);
+    }
+
+    private static byte[] accessor(ConstantPool pool, Method method, AccessorKind kind, boolean fixedMap,
+                                   int sourceField, int keyField) {
+        Code code = new Code(pool);
+        if (kind == AccessorKind.BOOLEAN_GETTER) {
+            code.op(0xb2, pool.fieldRef("java/lang/Boolean", "TRUE", "Ljava/lang/Boolean;"));
+        }
+        code.aload(0).op(0xb4, sourceField);
+        if (!fixedMap) {
+            code.invokeInterface(pool.interfaceMethodRef(SUPPLIER, "get", "()Ljava/lang/Object;"), 1);
+            code.op(0xc0, pool.classRef(MAP));
+        }
+        code.aload(0).op(0xb4, keyField);
+        int locals = 1;
+        switch (kind) {
+            case GETTER:
+                code.invokeInterface(pool.interfaceMethodRef(MAP, "get", "(Ljava/lang/Object;)Ljava/lang/Object;"), 2);
+                code.unboxAndReturn(method.getReturnType());
+                break;
+            case OPTIONAL_GETTER:
+                code.invokeInterface(pool.interfaceMethodRef(MAP, "get", "(Ljava/lang/Object;)Ljava/lang/Object;"), 2);
+                code.invoke(0xb8, pool.methodRef("java/util/Optional", "ofNullable",
+                                                 "(Ljava/lang/Object;)Ljava/util/Optional;"));
+                code.op(0xb0);
+                break;
+            case BOOLEAN_GETTER:
+                code.invokeInterface(pool.interfaceMethodRef(MAP, "get", "(Ljava/lang/Object;)Ljava/lang/Object;"), 2);
+                code.invoke(0xb6, pool.methodRef("java/lang/Boolean", "equals", "(Ljava/lang/Object;)Z"));
+                code.op(0xac);
+                break;
+            case SETTER:
+                locals += code.loadBoxed(method.getParameterTypes()[0], 1);
+                code.invokeInterface(pool.interfaceMethodRef(
+                        MAP, "put", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;"), 3);
+                code.unboxAndReturn(method.getReturnType());
+                break;
+            default:
+                throw new IllegalArgumentException(kind.toString());
+        }
+        return code.toMethod(method.getName(), descriptor(method), 6, locals);
+    }
+
+    private static byte[] slotAccessor(ConstantPool pool, Method method, AccessorKind kind, int valuesField,
+                                       int index) {
+        Code code = new Code(pool);
+        Class<?> returnType = method.getReturnType();
+        int locals = 1;
+        switch (kind) {
+            case GETTER:
+                code.aload(0).op(0xb4, valuesField).push(index).op(0x32);
+                code.unboxAndReturn(returnType);
+                break;
+            case OPTIONAL_GETTER:
+                code.aload(0).op(0xb4, valuesField).push(index).op(0x32);
+                code.invoke(0xb8, pool.methodRef("java/util/Optional", "ofNullable",
+                                                 "(Ljava/lang/Object;)Ljava/util/Optional;"));
+                code.op(0xb0);
+                break;
+            case BOOLEAN_GETTER:
+                code.op(0xb2, pool.fieldRef("java/lang/Boolean", "TRUE", "Ljava/lang/Boolean;"));
+                code.aload(0).op(0xb4, valuesField).push(index).op(0x32);
+                code.invoke(0xb6, pool.methodRef("java/lang/Boolean", "equals", "(Ljava/lang/Object;)Z"));
+                code.op(0xac);
+                break;
+            case SETTER:
+                if (returnType != void.class) {
+                    code.aload(0).op(0xb4, valuesField).push(index).op(0x32);
+                }
+                code.aload(0).op(0xb4, valuesField).push(index);
+                locals += code.loadBoxed(method.getParameterTypes()[0], 1);
+                code.op(0x53);
+                if (returnType == void.class) {
+                    code.op(0xb1);
+                }
+                else {
+                    code.unboxAndReturn(returnType);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(kind.toString());
+        }
+        return code.toMethod(method.getName(), descriptor(method), 6, locals);
+    }
+
+    private static byte[] primitiveSlotAccessor(ConstantPool pool, Method method, AccessorKind kind,
+                                                Primitive primitive, int primitivesField, int index) {
+        Code code = new Code(pool);
+        Class<?> returnType = method.getReturnType();
+        int locals = 1;
+        switch (kind) {
+            case GETTER:
+            case BOOLEAN_GETTER:
+                code.aload(0).op(0xb4, primitivesField).push(index).op(0x2f);
+                code.unpack(primitive);
+                code.op(primitive.returnOpcode);
+                break;
+            case SETTER:
+                if (returnType != void.class) {
+                    code.aload(0).op(0xb4, primitivesField).push(index).op(0x2f);
+                    code.unpack(primitive);
+                    code.box(primitive);
+                }
+                code.aload(0).op(0xb4, primitivesField).push(index);
+                code.load(primitive, 1);
+                code.pack(primitive);
+                code.op(0x50);
+                locals += primitive.slots();
+                if (returnType == void.class) {
+                    code.op(0xb1);
+                }
+                else {
+                    code.unboxAndReturn(returnType);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(kind.toString());
+        }
+        return code.toMethod(method.getName(), descriptor(method), 6, locals);
+    }
+
+    private static byte[] delegate(ConstantPool pool, Method method, int index, int handlerField, int methodsField) {
+        Code code = new Code(pool);
+        code.aload(0).op(0xb4, handlerField);
+        code.aload(0);
+        code.aload(0).op(0xb4, methodsField).push(index).op(0x32);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        int local = 1;
+        if (parameterTypes.length == 0) {
+            code.op(0x01);
+        }
+        else {
+            code.push(parameterTypes.length).op(0xbd, pool.classRef(OBJECT));
+            for (int i = 0; i < parameterTypes.length; i++) {
+                code.op(0x59).push(i);
+                local += code.loadBoxed(parameterTypes[i], local);
+                code.op(0x53);
+            }
+        }
+        code.invokeInterface(pool.interfaceMethodRef(HANDLER, "invoke", INVOKE_DESCRIPTOR), 4);
+        code.unboxAndReturn(method.getReturnType());
+        return code.toMethod(method.getName(), descriptor(method), 10, local);
+    }
+
+    private static String descriptor(Method method) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            sb.append(descriptor(parameterType));
+        }
+        return sb.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isPrimitive()) {
+            return String.valueOf(Primitive.of(type).descriptor);
+        }
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        }
+        return "L" + type.getName().replace('.', '/') + ";";
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.isArray() ? descriptor(type) : type.getName().replace('.', '/');
+    }
+
+    private enum Primitive {
+        BOOLEAN(boolean.class, Boolean.class, 'Z', 0x15, 0xac),
+        BYTE(byte.class, Byte.class, 'B', 0x15, 0xac),
+        CHAR(char.class, Character.class, 'C', 0x15, 0xac),
+        SHORT(short.class, Short.class, 'S', 0x15, 0xac),
+        INT(int.class, Integer.class, 'I', 0x15, 0xac),
+        LONG(long.class, Long.class, 'J', 0x16, 0xad),
+        FLOAT(float.class, Float.class, 'F', 0x17, 0xae),
+        DOUBLE(double.class, Double.class, 'D', 0x18, 0xaf),
+        VOID(void.class, Void.class, 'V', 0, 0xb1);
+
+        private final Class<?> type;
+        private final String wrapper;
+        private final char descriptor;
+        private final int loadOpcode;
+        private final int returnOpcode;
+
+        Primitive(Class<?> type, Class<?> wrapper, char descriptor, int loadOpcode, int returnOpcode) {
+            this.type = type;
+            this.wrapper = wrapper.getName().replace('.', '/');
+            this.descriptor = descriptor;
+            this.loadOpcode = loadOpcode;
+            this.returnOpcode = returnOpcode;
+        }
+
+        private int slots() {
+            return this == LONG || this == DOUBLE ? 2 : 1;
+        }
+
+        static Primitive of(Class<?> type) {
+            for (Primitive primitive : values()) {
+                if (primitive.type == type) {
+                    return primitive;
+                }
+            }
+            throw new IllegalArgumentException(type.toString());
+        }
+    }
+
+    private static final class Code {
+
+        private final ConstantPool pool;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private Code(ConstantPool pool) {
+            this.pool = pool;
+        }
+
+        private Code op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        private Code op(int opcode, int index) {
+            bytes.write(opcode);
+            bytes.write(index >>> 8);
+            bytes.write(index);
+            return this;
+        }
+
+        private Code aload(int local) {
+            if (local <= 3) {
+                return op(0x2a + local);
+            }
+            bytes.write(0x19);
+            bytes.write(local);
+            return this;
+        }
+
+        private Code push(int value) {
+            return op(0x11, value);
+        }
+
+        private Code invoke(int opcode, int index) {
+            return op(opcode, index);
+        }
+
+        private Code invokeInterface(int index, int argumentSlots) {
+            op(0xb9, index);
+            bytes.write(argumentSlots);
+            bytes.write(0);
+            return this;
+        }
+
+        /**
+         * @return number of local slots taken by the value
+         */
+        private int loadBoxed(Class<?> type, int local) {
+            if (!type.isPrimitive()) {
+                aload(local);
+                return 1;
+            }
+            Primitive primitive = Primitive.of(type);
+            load(primitive, local);
+            box(primitive);
+            return primitive.slots();
+        }
+
+        private Code load(Primitive primitive, int local) {
+            bytes.write(primitive.loadOpcode);
+            bytes.write(local);
+            return this;
+        }
+
+        private Code box(Primitive primitive) {
+            return invoke(0xb8, pool.methodRef(primitive.wrapper, "valueOf",
+                                               "(" + primitive.descriptor + ")L" + primitive.wrapper + ";"));
+        }
+
+        /**
+         * Converts primitive on the stack into the raw bits of long slot
+         */
+        private Code pack(Primitive primitive) {
+            switch (primitive) {
+                case LONG:
+                    return this;
+                case FLOAT:
+                    return invoke(0xb8, pool.methodRef("java/lang/Float", "floatToRawIntBits", "(F)I")).op(0x85);
+                case DOUBLE:
+                    return invoke(0xb8, pool.methodRef("java/lang/Double", "doubleToRawLongBits", "(D)J"));
+                default:
+                    return op(0x85);
+            }
+        }
+
+        private Code unpack(Primitive primitive) {
+            switch (primitive) {
+                case LONG:
+                    return this;
+                case FLOAT:
+                    return op(0x88).invoke(0xb8, pool.methodRef("java/lang/Float", "intBitsToFloat", "(I)F"));
+                case DOUBLE:
+                    return invoke(0xb8, pool.methodRef("java/lang/Double", "longBitsToDouble", "(J)D"));
+                default:
+                    return op(0x88);
+            }
+        }
+
+        private void unboxAndReturn(Class<?> type) {
+            if (type == void.class) {
+                op(0x57).op(0xb1);
+            }
+            else if (type.isPrimitive()) {
+                Primitive primitive = Primitive.of(type);
+                op(0xc0, pool.classRef(primitive.wrapper));
+                invoke(0xb6, pool.methodRef(primitive.wrapper, type.getName() + "Value",
+                                            "()" + primitive.descriptor));
+                op(primitive.returnOpcode);
+            }
+            else {
+                if (type != Object.class) {
+                    op(0xc0, pool.classRef(internalName(type)));
+                }
+                op(0xb0);
+            }
+        }
+
+        private byte[] toMethod(String name, String descriptor, int maxStack, int maxLocals) {
+            byte[] code = bytes.toByteArray();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                out.writeShort(0x0001);
+                out.writeShort(pool.utf8(name));
+                out.writeShort(pool.utf8(descriptor));
+                out.writeShort(1);
+                out.writeShort(pool.utf8("Code"));
+                out.writeInt(12 + code.length);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(code.length);
+                out.write(code);
+                out.writeShort(0);
+                out.writeShort(0);
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return buffer.toByteArray();
+        }
+    }
+
+    private static final class ConstantPool {
+
+        private final Map<String, Integer> entries = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int count = 1;
+
+        private int utf8(String value) {
+            return entry("U" + value, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        private int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, () -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            return entry("N" + name + " " + descriptor, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+        }
+
+        private int fieldRef(String owner, String name, String descriptor) {
+            return memberRef(9, owner, name, descriptor);
+        }
+
+        private int methodRef(String owner, String name, String descriptor) {
+            return memberRef(10, owner, name, descriptor);
+        }
+
+        private int interfaceMethodRef(String owner, String name, String descriptor) {
+            return memberRef(11, owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameAndTypeIndex = nameAndType(name, descriptor);
+            return entry(tag + owner + "." + name + " " + descriptor, () -> {
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndTypeIndex);
+            });
+        }
+
+        private int entry(String key, EntryWriter writer) {
+            Integer index = entries.get(key);
+            if (index == null) {
+                try {
+                    writer.write();
+                }
+                catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                entries.put(key, index = count++);
+            }
+            return index;
+        }
+
+        private void writeTo(DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(count);
+            bytes.writeTo(target);
+        }
+
+        @FunctionalInterface
+        private interface EntryWriter {
+            void write() throws IOException;
+        }
+    }
+    //</editor-fold>
+
+    private static final ClassValue<DynamicBeanClass> CLASSES = new ClassValue<DynamicBeanClass>() {
+        @Override
+        protected DynamicBeanClass computeValue(Class<?> type) {
+            return new DynamicBeanClass(type);
+        }
+    };
+}
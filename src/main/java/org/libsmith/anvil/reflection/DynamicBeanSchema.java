@@ -0,0 +1,376 @@
+package org.libsmith.anvil.reflection;
+
+import org.libsmith.anvil.reflection.DynamicBean.Namespace;
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compiled layout of a {@link DynamicBean} interface with a fixed property set. Each property is mapped to
+ * an array slot of the bean instance, properties accessed with the same primitive type only are kept in
+ * primitive slots, so getters and setters neither hash keys nor box values. Primitive slots can't hold
+ * {@code null} and read as zero until set.
+ * <p>
+ * {@code Map} and {@code DynamicBean} methods of the bean, as well as {@link #asMap} and {@link #toMap},
+ * work over the map view of the slots, which is the only place where property names are used. Values put
+ * through the view are converted into the property type once, like {@link DynamicBean} getters do.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 19.10.26 15:40
+ */
+public final class DynamicBeanSchema<T> {
+
+    private final Class<T> type;
+    private final @Nullable Namespace defaultNamespace;
+    private final Map<String, Integer> slots;
+    private final String[] slotNames;
+    private final Class<?>[] slotTypes;
+    private final int[] storageIndexes;
+    private final List<Function<Object, Object>> slotConversions;
+    private final int referenceSlots;
+    private final int primitiveSlots;
+    private final Constructor<?> constructor;
+    private final Method[] delegates;
+    private final Field valuesField;
+    private final Field primitivesField;
+
+    private DynamicBeanSchema(@Nonnull Class<T> type, @Nullable Namespace defaultNamespace) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException(type + " is not an interface");
+        }
+        this.type = type;
+        this.defaultNamespace = defaultNamespace;
+
+        DynamicBeanClass beanClass = DynamicBeanClass.of(type);
+        Method[] properties = beanClass.getProperties();
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        List<Class<?>> slotTypes = new ArrayList<>();
+        List<Type> slotValueTypes = new ArrayList<>();
+        List<Type> slotReadTypes = new ArrayList<>();
+        int[] propertySlots = new int[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            String name = DynamicBean.Impl.propertyName(properties[i], defaultNamespace);
+            Class<?> accessType = accessType(properties[i]);
+            Type valueType = valueType(properties[i]);
+            boolean getter = DynamicBeanClass.kindOf(properties[i]) != DynamicBeanClass.AccessorKind.SETTER;
+            Integer slot = slots.get(name);
+            if (slot == null) {
+                slots.put(name, slot = slotTypes.size());
+                slotTypes.add(accessType);
+                slotValueTypes.add(valueType);
+                slotReadTypes.add(getter ? valueType : null);
+            }
+            else {
+                if (slotTypes.get(slot) != accessType) {
+                    slotTypes.set(slot, Object.class);
+                }
+                Type readType = slotReadTypes.get(slot);
+                if (getter && readType == null) {
+                    slotReadTypes.set(slot, valueType);
+                }
+                else if (getter && !readType.equals(valueType)) {
+                    slotReadTypes.set(slot, Object.class);
+                }
+                if (!slotValueTypes.get(slot).equals(valueType)) {
+                    slotValueTypes.set(slot, Object.class);
+                }
+            }
+            propertySlots[i] = slot;
+        }
+        this.slots = Collections.unmodifiableMap(slots);
+        this.slotNames = slots.keySet().toArray(new String[slots.size()]);
+        this.slotTypes = slotTypes.toArray(new Class<?>[slotTypes.size()]);
+        this.storageIndexes = DynamicBeanClass.storageIndexes(this.slotTypes);
+        List<Function<Object, Object>> slotConversions = new ArrayList<>(slotTypes.size());
+        for (int i = 0; i < slotTypes.size(); i++) {
+            Type readType = slotReadTypes.get(i);
+            slotConversions.add(PropertyConversion.of(readType == null ? slotValueTypes.get(i) : readType));
+        }
+        this.slotConversions = slotConversions;
+        this.primitiveSlots = (int) slotTypes.stream().filter(Class::isPrimitive).count();
+        this.referenceSlots = this.slotTypes.length - primitiveSlots;
+
+        this.constructor = beanClass.defineSlotted(propertySlots, this.slotTypes);
+        this.delegates = beanClass.getDelegates();
+        try {
+            this.valuesField = constructor.getDeclaringClass().getDeclaredField("values");
+            this.primitivesField = constructor.getDeclaringClass().getDeclaredField("primitives");
+        }
+        catch (NoSuchFieldException ex) {
+            throw new IllegalStateException(ex);
+        }
+        this.valuesField.setAccessible(true);
+        this.primitivesField.setAccessible(true);
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the interface can't be implemented by the generated class
+     */
+    @SuppressWarnings("unchecked")
+    public static @Nonnull <T> DynamicBeanSchema<T> of(@Nonnull Class<T> type) {
+        return (DynamicBeanSchema<T>) SCHEMAS.get(type);
+    }
+
+    /**
+     * Unlike {@link #of(Class)}, the schema is not cached, define it once and keep it
+     *
+     * @throws UnsupportedOperationException if the interface can't be implemented by the generated class
+     */
+    public static @Nonnull <T> DynamicBeanSchema<T> of(@Nonnull Class<T> type, @Nullable Namespace defaultNamespace) {
+        return new DynamicBeanSchema<>(type, defaultNamespace);
+    }
+
+    public @Nonnull Class<T> getType() {
+        return type;
+    }
+
+    public @Nonnull Set<String> getPropertyNames() {
+        return slots.keySet();
+    }
+
+    public @Nonnull T newInstance() {
+        return newInstance(new Object[referenceSlots], new long[primitiveSlots]);
+    }
+
+    /**
+     * Properties not described by the schema are ignored
+     */
+    public @Nonnull T newInstance(@Nonnull Map<String, ?> properties) {
+        Object[] values = new Object[referenceSlots];
+        long[] primitives = new long[primitiveSlots];
+        SlotMap view = new SlotMap(values, primitives);
+        for (Map.Entry<String, ?> entry : properties.entrySet()) {
+            Integer slot = slots.get(entry.getKey());
+            if (slot != null) {
+                view.putSlot(slot, entry.getValue());
+            }
+        }
+        return newInstance(values, primitives);
+    }
+
+    /**
+     * @return write-through view of the bean properties, keys not described by the schema can't be put
+     */
+    public @Nonnull Map<String, Object> asMap(@Nonnull T bean) {
+        if (bean.getClass() != constructor.getDeclaringClass()) {
+            throw new IllegalArgumentException("Not an instance of " + this + ": " + bean);
+        }
+        try {
+            return new SlotMap((Object[]) valuesField.get(bean), (long[]) primitivesField.get(bean));
+        }
+        catch (IllegalAccessException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+
+    public @Nonnull Map<String, Object> toMap(@Nonnull T bean) {
+        return new LinkedHashMap<>(asMap(bean));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "<" + type.getName() + ">" + slots.keySet();
+    }
+
+    private T newInstance(Object[] values, long[] primitives) {
+        try {
+            Delegate delegate = new Delegate(values, primitives);
+            return type.cast(constructor.newInstance(delegate, delegates, values, primitives));
+        }
+        catch (ReflectiveOperationException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+
+    private static Type valueType(Method method) {
+        switch (DynamicBeanClass.kindOf(method)) {
+            case BOOLEAN_GETTER:
+                return boolean.class;
+            case SETTER:
+                return method.getGenericParameterTypes()[0];
+            default:
+                return PropertyConversion.valueType(method);
+        }
+    }
+
+    private static Class<?> accessType(Method method) {
+        switch (DynamicBeanClass.kindOf(method)) {
+            case BOOLEAN_GETTER:
+                return boolean.class;
+            case GETTER:
+                return method.getReturnType().isPrimitive() ? method.getReturnType() : Object.class;
+            case SETTER:
+                Class<?> parameterType = method.getParameterTypes()[0];
+                return parameterType.isPrimitive() ? parameterType : Object.class;
+            default:
+                return Object.class;
+        }
+    }
+
+    /**
+     * Invocation handler of a single bean, the map view and the {@link DynamicBean} wrapper over it are built
+     * on the first delegated call and reused by the following ones
+     */
+    private final class Delegate implements InvocationHandler {
+
+        private final Object[] values;
+        private final long[] primitives;
+        private volatile SlotMap viewCached;
+        private volatile Object wrapperCached;
+
+        private Delegate(Object[] values, long[] primitives) {
+            this.values = values;
+            this.primitives = primitives;
+        }
+
+        @Override
+        public Object invoke(Object bean, Method method, Object[] args) throws Throwable {
+            Object target = method.getDeclaringClass() == Map.class ? getView() : getWrapper();
+            try {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        private SlotMap getView() {
+            SlotMap view = this.viewCached;
+            if (view == null) {
+                this.viewCached = view = new SlotMap(values, primitives);
+            }
+            return view;
+        }
+
+        private Object getWrapper() {
+            Object wrapper = this.wrapperCached;
+            if (wrapper == null) {
+                SlotMap view = getView();
+                DynamicBean bean = new DynamicBean.Impl(() -> view, view, defaultNamespace, Backend.REFLECTION,
+                                                        new ConcurrentHashMap<>());
+                this.wrapperCached = wrapper = bean.as(type);
+            }
+            return wrapper;
+        }
+    }
+
+    private final class SlotMap extends AbstractMap<String, Object> {
+
+        private final Object[] values;
+        private final long[] primitives;
+
+        private SlotMap(Object[] values, long[] primitives) {
+            this.values = values;
+            this.primitives = primitives;
+        }
+
+        private Object getSlot(int slot) {
+            Class<?> slotType = slotTypes[slot];
+            return slotType.isPrimitive()
+                   ? DynamicBeanClass.unpack(slotType, primitives[storageIndexes[slot]])
+                   : values[storageIndexes[slot]];
+        }
+
+        private Object putSlot(int slot, Object value) {
+            Object previous = getSlot(slot);
+            Function<Object, Object> conversion = slotConversions.get(slot);
+            if (value != null && conversion != null) {
+                value = conversion.apply(value);
+            }
+            Class<?> slotType = slotTypes[slot];
+            if (slotType.isPrimitive()) {
+                primitives[storageIndexes[slot]] = DynamicBeanClass.pack(slotType, value);
+            }
+            else {
+                values[storageIndexes[slot]] = value;
+            }
+            return previous;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer slot = slots.get(key);
+            return slot == null ? null : getSlot(slot);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slots.containsKey(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                throw new IllegalArgumentException("Property '" + key + "' is not described by " +
+                                                   DynamicBeanSchema.this);
+            }
+            return putSlot(slot, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            Integer slot = slots.get(key);
+            return slot == null ? null : putSlot(slot, null);
+        }
+
+        @Override
+        public int size() {
+            return slotNames.length;
+        }
+
+        @Override
+        public @Nonnull Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+
+                        private int slot;
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < slotNames.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int entrySlot = slot++;
+                            return new SimpleEntry<String, Object>(slotNames[entrySlot], getSlot(entrySlot)) {
+
+                                private static final long serialVersionUID = 4102317591539546285L;
+
+                                @Override
+                                public Object setValue(Object value) {
+                                    super.setValue(value);
+                                    return putSlot(entrySlot, value);
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return slotNames.length;
+                }
+            };
+        }
+    }
+
+    private static final ClassValue<DynamicBeanSchema<?>> SCHEMAS = new ClassValue<DynamicBeanSchema<?>>() {
+        @Override
+        protected DynamicBeanSchema<?> computeValue(Class<?> type) {
+            return new DynamicBeanSchema<>(type, null);
+        }
+    };
+}
@@ -1,5 +1,6 @@
 package org.libsmith.anvil.reflection;
 
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
 import org.libsmith.anvil.reflection.ReflectiveOperationRuntimeException.NoSuchMemberRuntimeException;
 
 import javax.annotation.Nonnull;
@@ -12,9 +13,11 @@ import java.util.Optional;
  */
 public abstract class FieldAccessor<T, V, S extends FieldAccessor<T, V, S>>
         implements ReflectionCommons.AccessibleCommons<Field, S>,
-                   ReflectionCommons.MemberCommons<Field, S> {
+                   ReflectionCommons.MemberCommons<Field, S>,
+                   ReflectionCommons.BackendCommons<S> {
 
-    protected final Field field;
+    protected Field field;
+    private volatile FieldHandle<T, V> handle;
 
     FieldAccessor(@Nonnull Field field) {
         this.field = field;
@@ -25,6 +28,134 @@ public abstract class FieldAccessor<T, V, S extends FieldAccessor<T, V, S>>
         return field;
     }
 
+    @Override
+    public @Nonnull Backend getBackend() {
+        return handle == null ? Backend.REFLECTION : Backend.COMPILED;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public S backend(@Nonnull Backend backend) {
+        if (backend == Backend.REFLECTION) {
+            handle = null;
+        }
+        else if (handle == null) {
+            handle = new FieldHandle<>(field);
+        }
+        return (S) this;
+    }
+
+    /**
+     * @return handle with primitive specialized and memory ordered access, switches accessor to the compiled mode
+     */
+    public @Nonnull FieldHandle<T, V> asHandle() {
+        backend(Backend.COMPILED);
+        return handle;
+    }
+
+    /**
+     * Changes accessibility of a private copy of the field, the resolved one is shared with other callers
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public S accessible(boolean value) {
+        if (field.isAccessible() != value) {
+            Field copy = MemberIndex.copy(field);
+            copy.setAccessible(value);
+            field = copy;
+        }
+        return (S) this;
+    }
+
+    <A extends FieldAccessor<T, V, ?>> A inheritBackend(A accessor) {
+        ((FieldAccessor<T, V, ?>) accessor).handle = handle;
+        return accessor;
+    }
+
+    V getValueAt0(T object) {
+        ReflectionMetrics.Counter counter = ReflectionMetrics.counter(field);
+        if (counter == null) {
+            return readValue(object);
+        }
+        long start = counter.enter();
+        try {
+            return readValue(object);
+        }
+        catch (Throwable th) {
+            counter.fail();
+            throw th;
+        }
+        finally {
+            counter.exit(start);
+        }
+    }
+
+    void setValueAt0(T object, V value) {
+        ReflectionMetrics.Counter counter = ReflectionMetrics.counter(field);
+        if (counter == null) {
+            writeValue(object, value);
+            return;
+        }
+        long start = counter.enter();
+        try {
+            writeValue(object, value);
+        }
+        catch (Throwable th) {
+            counter.fail();
+            throw th;
+        }
+        finally {
+            counter.exit(start);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V readValue(T object) {
+        FieldHandle<T, V> handle = this.handle;
+        if (handle != null) {
+            return handle.get(object);
+        }
+        try {
+            return (V) field.get(object);
+        }
+        catch (IllegalAccessException ex) {
+            throw new ReflectiveOperationRuntimeException(ex);
+        }
+    }
+
+    private void writeValue(T object, V value) {
+        FieldHandle<T, V> handle = this.handle;
+        if (handle != null) {
+            handle.set(object, value);
+            return;
+        }
+        try {
+            field.set(object, value);
+        }
+        catch (IllegalAccessException ex) {
+            throw new ReflectiveOperationRuntimeException(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    BulkOperation<T, V> bulk0() {
+        if (ReflectionMetrics.enabled) {
+            return BulkOperation.of(this::getValueAt0);
+        }
+        FieldHandle<T, V> handle = this.handle;
+        if (handle != null) {
+            return BulkOperation.of(handle::get);
+        }
+        return BulkOperation.of(object -> {
+            try {
+                return (V) field.get(object);
+            }
+            catch (IllegalAccessException ex) {
+                throw new ReflectiveOperationRuntimeException(ex);
+            }
+        });
+    }
+
     @SuppressWarnings("unchecked")
     <N> FieldAccessor<T, N, ?> type(@Nonnull Class<N> type) {
         if (type.isAssignableFrom(field.getType())) {
@@ -47,35 +178,31 @@ public abstract class FieldAccessor<T, V, S extends FieldAccessor<T, V, S>>
             super(field);
         }
 
-        @SuppressWarnings("unchecked")
         public V getValueAt(T object) {
-            try {
-                return (V) field.get(object);
-            }
-            catch (IllegalAccessException ex) {
-                throw new ReflectiveOperationRuntimeException(ex);
-            }
+            return getValueAt0(object);
         }
 
         public void setValueAt(T object, V value) {
-            try {
-                field.set(object, value);
-            }
-            catch (IllegalAccessException ex) {
-                throw new ReflectiveOperationRuntimeException(ex);
-            }
+            setValueAt0(object, value);
+        }
+
+        /**
+         * @return operation reading the field of targets through the current backend
+         */
+        public BulkOperation<T, V> bulk() {
+            return bulk0();
         }
 
         public WithObject<T, V> asStatic() {
-            return new WithObject<>(field, null);
+            return inheritBackend(new WithObject<>(field, null));
         }
 
         public Optional<WithObject<T, V>> asStaticOp() {
-            return Modifier.STATIC.presentIn(field) ? Optional.of(new WithObject<>(field, null)) : Optional.empty();
+            return Modifier.STATIC.presentIn(field) ? Optional.of(asStatic()) : Optional.empty();
         }
 
         public WithObject<T, V> withObject(T object) {
-            return new WithObject<>(field, object);
+            return inheritBackend(new WithObject<>(field, object));
         }
 
         @Override
@@ -103,23 +230,12 @@ public abstract class FieldAccessor<T, V, S extends FieldAccessor<T, V, S>>
             this.object = object;
         }
 
-        @SuppressWarnings("unchecked")
         public V getValue() {
-            try {
-                return (V) field.get(object);
-            }
-            catch (IllegalAccessException ex) {
-                throw new ReflectiveOperationRuntimeException(ex);
-            }
+            return getValueAt0(object);
         }
 
         public void setValue(V value) {
-            try {
-                field.set(object, value);
-            }
-            catch (IllegalAccessException ex) {
-                throw new ReflectiveOperationRuntimeException(ex);
-            }
+            setValueAt0(object, value);
         }
 
         @Override
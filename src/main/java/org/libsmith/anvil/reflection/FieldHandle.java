@@ -0,0 +1,348 @@
+package org.libsmith.anvil.reflection;
+
+import sun.misc.Unsafe;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Objects;
+
+import static org.libsmith.anvil.reflection.Modifier.FINAL;
+import static org.libsmith.anvil.reflection.Modifier.STATIC;
+
+/**
+ * Field access without boxing and access checks on every call. Plain reads and writes go through exactly typed
+ * method handles, volatile, ordered and CAS operations are backed by {@code sun.misc.Unsafe} where available.
+ * Receiver of static field is ignored and may be {@code null}.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 17.10.26 17:21
+ */
+public final class FieldHandle<T, V> implements ReflectionSubjectAware<Field> {
+
+    private final Field field;
+    private final Class<?> type;
+    private final Class<?> declaringClass;
+    private final MethodHandle getter;
+    private final MethodHandle genericGetter;
+    private final MethodHandle setter;
+    private final MethodHandle genericSetter;
+    private final IllegalAccessException setterAccessException;
+    private final Object staticBase;
+    private final long offset;
+
+    FieldHandle(@Nonnull Field field) {
+        this.field = field;
+        this.type = field.getType();
+        this.declaringClass = field.getDeclaringClass();
+        boolean isStatic = STATIC.presentIn(field);
+        try {
+            MethodHandle getter = LOOKUP.unreflectGetter(field);
+            if (isStatic) {
+                getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            }
+            this.getter = getter.asType(MethodType.methodType(type, Object.class));
+            this.genericGetter = getter.asType(MethodType.methodType(Object.class, Object.class));
+        }
+        catch (IllegalAccessException ex) {
+            throw new ReflectiveOperationRuntimeException(ex);
+        }
+        MethodHandle setter = null;
+        MethodHandle genericSetter = null;
+        IllegalAccessException setterAccessException = null;
+        try {
+            if (isStatic && FINAL.presentIn(field)) {
+                throw new IllegalAccessException("Can not set static final field " + field);
+            }
+            setter = LOOKUP.unreflectSetter(field);
+            if (isStatic) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            genericSetter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            setter = setter.asType(MethodType.methodType(void.class, Object.class, type));
+        }
+        catch (IllegalAccessException ex) {
+            setterAccessException = ex;
+        }
+        this.setter = setter;
+        this.genericSetter = genericSetter;
+        this.setterAccessException = setterAccessException;
+
+        if (UNSAFE == null) {
+            this.staticBase = null;
+            this.offset = -1;
+        }
+        else if (isStatic) {
+            UNSAFE.ensureClassInitialized(declaringClass);
+            this.staticBase = UNSAFE.staticFieldBase(field);
+            this.offset = UNSAFE.staticFieldOffset(field);
+        }
+        else {
+            this.staticBase = null;
+            this.offset = UNSAFE.objectFieldOffset(field);
+        }
+    }
+
+    @Override
+    public @Nonnull Field getReflectionSubject() {
+        return field;
+    }
+
+    public @Nonnull Class<?> getType() {
+        return type;
+    }
+
+    //<editor-fold desc="Plain access">
+    @SuppressWarnings("unchecked")
+    public V get(T object) {
+        try {
+            return (V) genericGetter.invokeExact((Object) object);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public void set(T object, V value) {
+        writable();
+        try {
+            genericSetter.invokeExact((Object) object, (Object) value);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public int getInt(T object) {
+        requireType(int.class);
+        try {
+            return (int) getter.invokeExact((Object) object);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public void setInt(T object, int value) {
+        requireType(int.class);
+        writable();
+        try {
+            setter.invokeExact((Object) object, value);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public long getLong(T object) {
+        requireType(long.class);
+        try {
+            return (long) getter.invokeExact((Object) object);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public void setLong(T object, long value) {
+        requireType(long.class);
+        writable();
+        try {
+            setter.invokeExact((Object) object, value);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public double getDouble(T object) {
+        requireType(double.class);
+        try {
+            return (double) getter.invokeExact((Object) object);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public void setDouble(T object, double value) {
+        requireType(double.class);
+        writable();
+        try {
+            setter.invokeExact((Object) object, value);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public boolean getBoolean(T object) {
+        requireType(boolean.class);
+        try {
+            return (boolean) getter.invokeExact((Object) object);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+
+    public void setBoolean(T object, boolean value) {
+        requireType(boolean.class);
+        writable();
+        try {
+            setter.invokeExact((Object) object, value);
+        }
+        catch (Throwable th) {
+            throw CompiledMember.rethrow(th);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Memory ordered access">
+    @SuppressWarnings("unchecked")
+    public V getVolatile(T object) {
+        requireOrdered(Object.class);
+        return (V) UNSAFE.getObjectVolatile(base(object), offset);
+    }
+
+    /**
+     * Java 8 has no weaker acquire read, volatile read is used instead
+     */
+    public V getAcquire(T object) {
+        return getVolatile(object);
+    }
+
+    public void setVolatile(T object, V value) {
+        requireOrderedWrite(Object.class);
+        UNSAFE.putObjectVolatile(base(object), offset, type.cast(value));
+    }
+
+    public void setRelease(T object, V value) {
+        requireOrderedWrite(Object.class);
+        UNSAFE.putOrderedObject(base(object), offset, type.cast(value));
+    }
+
+    public boolean compareAndSet(T object, V expected, V value) {
+        requireOrderedWrite(Object.class);
+        return UNSAFE.compareAndSwapObject(base(object), offset, expected, type.cast(value));
+    }
+
+    public int getIntVolatile(T object) {
+        requireOrdered(int.class);
+        return UNSAFE.getIntVolatile(base(object), offset);
+    }
+
+    public int getIntAcquire(T object) {
+        return getIntVolatile(object);
+    }
+
+    public void setIntVolatile(T object, int value) {
+        requireOrderedWrite(int.class);
+        UNSAFE.putIntVolatile(base(object), offset, value);
+    }
+
+    public void setIntRelease(T object, int value) {
+        requireOrderedWrite(int.class);
+        UNSAFE.putOrderedInt(base(object), offset, value);
+    }
+
+    public boolean compareAndSetInt(T object, int expected, int value) {
+        requireOrderedWrite(int.class);
+        return UNSAFE.compareAndSwapInt(base(object), offset, expected, value);
+    }
+
+    public int getAndAddInt(T object, int delta) {
+        requireOrderedWrite(int.class);
+        return UNSAFE.getAndAddInt(base(object), offset, delta);
+    }
+
+    public long getLongVolatile(T object) {
+        requireOrdered(long.class);
+        return UNSAFE.getLongVolatile(base(object), offset);
+    }
+
+    public long getLongAcquire(T object) {
+        return getLongVolatile(object);
+    }
+
+    public void setLongVolatile(T object, long value) {
+        requireOrderedWrite(long.class);
+        UNSAFE.putLongVolatile(base(object), offset, value);
+    }
+
+    public void setLongRelease(T object, long value) {
+        requireOrderedWrite(long.class);
+        UNSAFE.putOrderedLong(base(object), offset, value);
+    }
+
+    public boolean compareAndSetLong(T object, long expected, long value) {
+        requireOrderedWrite(long.class);
+        return UNSAFE.compareAndSwapLong(base(object), offset, expected, value);
+    }
+
+    public long getAndAddLong(T object, long delta) {
+        requireOrderedWrite(long.class);
+        return UNSAFE.getAndAddLong(base(object), offset, delta);
+    }
+    //</editor-fold>
+
+    private Object base(T object) {
+        if (staticBase != null) {
+            return staticBase;
+        }
+        return declaringClass.cast(Objects.requireNonNull(object, "object"));
+    }
+
+    private void requireType(Class<?> expectedType) {
+        if (type != expectedType) {
+            throw new ClassCastException("Field type is " + type + ", not " + expectedType + ": " + field);
+        }
+    }
+
+    /**
+     * @param expectedType primitive type of the field or {@code Object.class} for any reference type
+     */
+    private void requireOrdered(Class<?> expectedType) {
+        if (expectedType == Object.class ? type.isPrimitive() : type != expectedType) {
+            throw new ClassCastException("Field type is " + type + ", not " + expectedType + ": " + field);
+        }
+        if (UNSAFE == null) {
+            throw new UnsupportedOperationException("Memory ordered field access is not supported by this JVM");
+        }
+    }
+
+    private void requireOrderedWrite(Class<?> expectedType) {
+        requireOrdered(expectedType);
+        writable();
+    }
+
+    private void writable() {
+        if (setterAccessException != null) {
+            throw new ReflectiveOperationRuntimeException(setterAccessException);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Field handle '" + field + "'";
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    static final @Nullable Unsafe UNSAFE;
+    static {
+        Unsafe unsafe;
+        try {
+            Field unsafeField = Unsafe.class.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            unsafe = (Unsafe) unsafeField.get(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException ignored) {
+            unsafe = null;
+        }
+        UNSAFE = unsafe;
+    }
+}
@@ -1,9 +1,12 @@
 package org.libsmith.anvil.reflection;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.reflect.*;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * http://habrahabr.ru/blogs/java/66593/ и немного модифицировано
@@ -13,6 +16,17 @@ import java.util.Deque;
  */
 public class GenericReflection<T> {
 
+    /**
+     * Resolved parameters of generic classes by actual class, held by the actual class itself
+     */
+    private static final ClassValue<ConcurrentMap<Class<?>, Resolved[]>> RESOLVED =
+            new ClassValue<ConcurrentMap<Class<?>, Resolved[]>>() {
+                @Override
+                protected ConcurrentMap<Class<?>, Resolved[]> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>(4);
+                }
+            };
+
     private final Class<T> genericClass;
 
     protected GenericReflection(Class<T> genericClass) {
@@ -64,6 +78,36 @@ public class GenericReflection<T> {
     }
 
     @Nonnull Type from(@Nonnull final Type actualType, int parameterIndex) throws IllegalArgumentException {
+        return resolve(actualType)[parameterIndex].get();
+    }
+
+    /**
+     * Resolves all type parameters of the generic class in a single hierarchy walk
+     *
+     * @throws IllegalArgumentException if any of the parameters can't be resolved
+     */
+    public @Nonnull Type[] resolveAll(@Nonnull T instance) throws IllegalArgumentException {
+        return resolveAll(instance.getClass());
+    }
+
+    /**
+     * Resolves all type parameters of the generic class in a single hierarchy walk
+     *
+     * @throws IllegalArgumentException if any of the parameters can't be resolved
+     */
+    public @Nonnull Type[] resolveAll(@Nonnull Type actualType) throws IllegalArgumentException {
+        Resolved[] resolved = resolve(actualType);
+        Type[] types = new Type[resolved.length];
+        for (int i = 0; i < resolved.length; i++) {
+            types[i] = resolved[i].get();
+        }
+        return types;
+    }
+
+    /**
+     * @return resolution of each type parameter, memoized for classes
+     */
+    private Resolved[] resolve(@Nonnull final Type actualType) throws IllegalArgumentException {
         final Class<?> actualClass = ReflectionUtils.extractClass(actualType);
 
         // Прекращаем работу если genericClass не является предком
@@ -74,7 +118,13 @@ public class GenericReflection<T> {
                     + genericClass.getName() + " is not a superclass of "
                     + actualClass.getName() + ".");
         }
+        if (actualType instanceof Class) {
+            return RESOLVED.get(actualClass).computeIfAbsent(genericClass, key -> resolveUncached(actualType));
+        }
+        return resolveUncached(actualType);
+    }
 
+    private Resolved[] resolveUncached(@Nonnull final Type actualType) {
         final boolean isInterface = genericClass.isInterface();
 
         // Нам нужно найти класс, для которого непосредственным родителем будет
@@ -134,9 +184,21 @@ public class GenericReflection<T> {
 
         // Нужный класс найден. Теперь мы можем узнать, какими типами он
         // параметризован.
-        Type result = genericClasses.pop().getActualTypeArguments()[parameterIndex];
+        final ParameterizedType[] hierarchy = genericClasses.toArray(new ParameterizedType[genericClasses.size()]);
+        final Resolved[] resolved = new Resolved[genericClass.getTypeParameters().length];
+        for (int i = 0; i < resolved.length; i++) {
+            resolved[i] = hierarchy.length == 0
+                          ? Resolved.failure("Unable to determine actual parameter type for " + actualType + ".")
+                          : resolveParameter(actualType, hierarchy, i);
+        }
+        return resolved;
+    }
 
-        while (result instanceof TypeVariable && !genericClasses.isEmpty()) {
+    private static Resolved resolveParameter(Type actualType, ParameterizedType[] hierarchy, int parameterIndex) {
+        Type result = hierarchy[0].getActualTypeArguments()[parameterIndex];
+        int depth = 1;
+
+        while (result instanceof TypeVariable && depth < hierarchy.length) {
             // Похоже наш параметр задан где-то ниже по иерархии, спускаемся
             // вниз.
 
@@ -144,7 +206,7 @@ public class GenericReflection<T> {
             final int actualArgumentIndex = getParameterTypeDeclarationIndex((TypeVariable<?>) result);
             // Берем соответствующий класс, содержащий метаинформацию о нашем
             // параметре.
-            final ParameterizedType type = genericClasses.pop();
+            final ParameterizedType type = hierarchy[depth++];
             // Получаем информацию о значении параметра.
             result = type.getActualTypeArguments()[actualArgumentIndex];
         }
@@ -154,12 +216,12 @@ public class GenericReflection<T> {
             // имеет явного задания.
             // Следовательно из-за "Type erasure" узнать класс для параметра
             // невозможно.
-            throw new IllegalArgumentException("Unable to resolve type variable " + result + "."
+            return Resolved.failure("Unable to resolve type variable " + result + "."
                     + " Try to replace instances of parametrized class with its non-parameterized subtype.");
         }
 
         if (result == null) {
-            throw new IllegalArgumentException("Unable to determine actual parameter type for " + actualType + ".");
+            return Resolved.failure("Unable to determine actual parameter type for " + actualType + ".");
         }
         result = ReflectionUtils.extractWildcardType(result);
         if (result instanceof WildcardType) {
@@ -172,11 +234,11 @@ public class GenericReflection<T> {
             }
         }
         if (result instanceof Class || result instanceof ParameterizedType) {
-            return result;
+            return Resolved.of(result);
         }
-        throw new IllegalArgumentException("Actual parameter type for " + actualType + " is not a object Class: " + result);
         // Похоже, что параметр - массив, примитивный тип, интерфейс или
         // еще-что-то, что не является классом.
+        return Resolved.failure("Actual parameter type for " + actualType + " is not a object Class: " + result);
     }
 
     private static int getParameterTypeDeclarationIndex(final TypeVariable<?> typeVariable) {
@@ -217,4 +279,33 @@ public class GenericReflection<T> {
         }
         return null;
     }
+
+    /**
+     * Resolved type parameter, or the reason it can't be resolved
+     */
+    private static final class Resolved {
+
+        private final @Nullable Type type;
+        private final @Nullable String error;
+
+        private Resolved(@Nullable Type type, @Nullable String error) {
+            this.type = type;
+            this.error = error;
+        }
+
+        static Resolved of(@Nonnull Type type) {
+            return new Resolved(type, null);
+        }
+
+        static Resolved failure(@Nonnull String error) {
+            return new Resolved(null, error);
+        }
+
+        @Nonnull Type get() throws IllegalArgumentException {
+            if (type == null) {
+                throw new IllegalArgumentException(error);
+            }
+            return type;
+        }
+    }
 }
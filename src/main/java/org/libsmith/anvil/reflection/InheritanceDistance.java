@@ -82,6 +82,9 @@ public class InheritanceDistance {
         if (subclass.equals(parent)) {
             return 0;
         }
+        if (parent != Object.class && !parent.isAssignableFrom(subclass)) {
+            return null;
+        }
         if (parent.isInterface()) {
             distance += 1;
             List<Class<?>> row = new ArrayList<>();
@@ -0,0 +1,313 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.libsmith.anvil.reflection.ReflectionCommons.EMPTY_CLASS_ARRAY;
+
+/**
+ * Lookup tables of class members: name, then arity, then parameter signature. Tables are built lazily once per
+ * class from the public {@code Class} API, hits and misses are answered from the tables without touching reflection
+ * and without exceptions. Found members are shared, invokers and accessors {@link #copy(Method) copy} them
+ * before changing their accessibility.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 18.10.26 11:30
+ */
+final class MemberIndex<T> {
+
+    private final Class<T> type;
+
+    private volatile Map<String, Entry<Method>[][]> publicMethodsCached;
+    private volatile Map<String, Entry<Method>[][]> localMethodsCached;
+    private volatile Map<String, Field> publicFieldsCached;
+    private volatile Map<String, Field> localFieldsCached;
+    private volatile Entry<Constructor<T>>[][] localConstructorsCached;
+
+    MemberIndex(@Nonnull Class<T> type) {
+        this.type = type;
+    }
+
+    @Nonnull Optional<Method> getMethodOp(@Nonnull String name, @Nullable Class<?>[] parameters) {
+        return Optional.ofNullable(find(publicMethods().get(name), parameters));
+    }
+
+    @Nonnull Optional<Method> getLocalMethodOp(@Nonnull String name, @Nullable Class<?>[] parameters) {
+        return Optional.ofNullable(find(localMethods().get(name), parameters));
+    }
+
+    @Nonnull Optional<Field> getFieldOp(@Nonnull String name) {
+        return Optional.ofNullable(publicFields().get(name));
+    }
+
+    @Nonnull Optional<Field> getLocalFieldOp(@Nonnull String name) {
+        return Optional.ofNullable(localFields().get(name));
+    }
+
+    @Nonnull Optional<Constructor<T>> getConstructorOp(@Nullable Class<?>[] parameters) {
+        return Optional.ofNullable(find(localConstructors(), parameters));
+    }
+
+    @Nonnull ReflectiveBiFunction<String, Class<?>[], Method> methodResolver() {
+        return new ReflectiveBiFunction<String, Class<?>[], Method>() {
+
+            @Override
+            public Method applyReflection(String name, Class<?>[] parameters) throws NoSuchMethodException {
+                return getMethodOp(name, parameters).orElseThrow(() -> noSuchMethod(name, parameters));
+            }
+
+            @Override
+            public Optional<Method> applyOp(String name, Class<?>[] parameters) {
+                return getMethodOp(name, parameters);
+            }
+        };
+    }
+
+    @Nonnull ReflectiveBiFunction<String, Class<?>[], Method> localMethodResolver() {
+        return new ReflectiveBiFunction<String, Class<?>[], Method>() {
+
+            @Override
+            public Method applyReflection(String name, Class<?>[] parameters) throws NoSuchMethodException {
+                return getLocalMethodOp(name, parameters).orElseThrow(() -> noSuchMethod(name, parameters));
+            }
+
+            @Override
+            public Optional<Method> applyOp(String name, Class<?>[] parameters) {
+                return getLocalMethodOp(name, parameters);
+            }
+        };
+    }
+
+    @Nonnull ReflectiveFunction<Class<?>[], Constructor<T>> constructorResolver() {
+        return new ReflectiveFunction<Class<?>[], Constructor<T>>() {
+
+            @Override
+            public Constructor<T> applyReflection(Class<?>[] parameters) throws NoSuchMethodException {
+                return getConstructorOp(parameters).orElseThrow(() -> noSuchMethod("<init>", parameters));
+            }
+
+            @Override
+            public Optional<Constructor<T>> applyOp(Class<?>[] parameters) {
+                return getConstructorOp(parameters);
+            }
+        };
+    }
+
+    @Nonnull ReflectiveFunction<String, Field> fieldResolver() {
+        return new ReflectiveFunction<String, Field>() {
+
+            @Override
+            public Field applyReflection(String name) throws NoSuchFieldException {
+                return getFieldOp(name).orElseThrow(() -> new NoSuchFieldException(name));
+            }
+
+            @Override
+            public Optional<Field> applyOp(String name) {
+                return getFieldOp(name);
+            }
+        };
+    }
+
+    @Nonnull ReflectiveFunction<String, Field> localFieldResolver() {
+        return new ReflectiveFunction<String, Field>() {
+
+            @Override
+            public Field applyReflection(String name) throws NoSuchFieldException {
+                return getLocalFieldOp(name).orElseThrow(() -> new NoSuchFieldException(name));
+            }
+
+            @Override
+            public Optional<Field> applyOp(String name) {
+                return getLocalFieldOp(name);
+            }
+        };
+    }
+
+    //<editor-fold desc="Tables">
+    private Map<String, Entry<Method>[][]> publicMethods() {
+        Map<String, Entry<Method>[][]> methods = this.publicMethodsCached;
+        if (methods == null) {
+            this.publicMethodsCached = methods = indexExecutables(type.getMethods(), Method::getName);
+        }
+        return methods;
+    }
+
+    private Map<String, Entry<Method>[][]> localMethods() {
+        Map<String, Entry<Method>[][]> methods = this.localMethodsCached;
+        if (methods == null) {
+            this.localMethodsCached = methods = indexExecutables(type.getDeclaredMethods(), Method::getName);
+        }
+        return methods;
+    }
+
+    private Map<String, Field> publicFields() {
+        Map<String, Field> fields = this.publicFieldsCached;
+        if (fields == null) {
+            this.publicFieldsCached = fields = indexFields(type.getFields());
+        }
+        return fields;
+    }
+
+    private Map<String, Field> localFields() {
+        Map<String, Field> fields = this.localFieldsCached;
+        if (fields == null) {
+            this.localFieldsCached = fields = indexFields(type.getDeclaredFields());
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<Constructor<T>>[][] localConstructors() {
+        Entry<Constructor<T>>[][] constructors = this.localConstructorsCached;
+        if (constructors == null) {
+            Constructor<T>[] declared = (Constructor<T>[]) type.getDeclaredConstructors();
+            constructors = indexExecutables(declared, c -> "<init>").get("<init>");
+            if (constructors == null) {
+                constructors = (Entry<Constructor<T>>[][]) new Entry<?>[0][];
+            }
+            this.localConstructorsCached = constructors;
+        }
+        return constructors;
+    }
+
+    /**
+     * Groups executables by name and arity. Of the executables with the same signature only the one with the
+     * most specific return type is kept, the same way {@code Class.getMethod} chooses among covariant overrides.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Executable> Map<String, Entry<E>[][]> indexExecutables(
+            E[] executables, Function<E, String> nameExtractor) {
+
+        Map<String, List<Entry<E>>> byName = new HashMap<>();
+        for (E executable : executables) {
+            List<Entry<E>> entries = byName.computeIfAbsent(nameExtractor.apply(executable), n -> new ArrayList<>());
+            addMostSpecific(entries, new Entry<>(executable));
+        }
+        Map<String, Entry<E>[][]> index = new HashMap<>(byName.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Entry<E>>> byNameEntry : byName.entrySet()) {
+            int maxArity = 0;
+            for (Entry<E> entry : byNameEntry.getValue()) {
+                maxArity = Math.max(maxArity, entry.parameters.length);
+            }
+            Entry<E>[][] byArity = (Entry<E>[][]) new Entry<?>[maxArity + 1][];
+            for (Entry<E> entry : byNameEntry.getValue()) {
+                Entry<E>[] bucket = byArity[entry.parameters.length];
+                bucket = bucket == null ? (Entry<E>[]) new Entry<?>[1] : Arrays.copyOf(bucket, bucket.length + 1);
+                bucket[bucket.length - 1] = entry;
+                byArity[entry.parameters.length] = bucket;
+            }
+            index.put(byNameEntry.getKey(), byArity);
+        }
+        return index;
+    }
+
+    private static <E extends Executable> void addMostSpecific(List<Entry<E>> entries, Entry<E> entry) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry<E> present = entries.get(i);
+            if (Arrays.equals(present.parameters, entry.parameters)) {
+                if (present.returnType != entry.returnType && present.returnType.isAssignableFrom(entry.returnType)) {
+                    entries.set(i, entry);
+                }
+                return;
+            }
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * Fields are expected in the {@code Class.getField} search order, the first one wins
+     */
+    private static Map<String, Field> indexFields(Field[] fields) {
+        Map<String, Field> index = new HashMap<>(fields.length * 4 / 3 + 1);
+        for (Field field : fields) {
+            index.putIfAbsent(field.getName(), field);
+        }
+        return index;
+    }
+
+    private static @Nullable <E extends Executable> E find(@Nullable Entry<E>[][] table,
+                                                           @Nullable Class<?>[] parameters) {
+        if (parameters == null) {
+            parameters = EMPTY_CLASS_ARRAY;
+        }
+        if (table == null || parameters.length >= table.length || table[parameters.length] == null) {
+            return null;
+        }
+        for (Entry<E> entry : table[parameters.length]) {
+            if (Arrays.equals(entry.parameters, parameters)) {
+                return entry.member;
+            }
+        }
+        return null;
+    }
+
+    private NoSuchMethodException noSuchMethod(String name, @Nullable Class<?>[] parameters) {
+        StringJoiner joiner = new StringJoiner(", ", "(", ")");
+        for (Class<?> parameter : parameters == null ? EMPTY_CLASS_ARRAY : parameters) {
+            joiner.add(parameter == null ? "null" : parameter.getName());
+        }
+        return new NoSuchMethodException(type.getName() + "." + name + joiner);
+    }
+
+    private static final class Entry<E extends Executable> {
+
+        private final E member;
+        private final Class<?>[] parameters;
+        private final Class<?> returnType;
+
+        private Entry(E member) {
+            this.member = member;
+            this.parameters = member.getParameterTypes();
+            this.returnType = member instanceof Method ? ((Method) member).getReturnType() : void.class;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Copying">
+    /**
+     * @return own copy of the shared member re-fetched by exact signature from the declaring class, so
+     *         {@code setAccessible} on it does not leak to other callers
+     */
+    static @Nullable Method copy(@Nullable Method method) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            return method.getDeclaringClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
+        }
+        catch (NoSuchMethodException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+
+    static @Nullable Field copy(@Nullable Field field) {
+        if (field == null) {
+            return null;
+        }
+        try {
+            return field.getDeclaringClass().getDeclaredField(field.getName());
+        }
+        catch (NoSuchFieldException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+
+    static @Nullable <T> Constructor<T> copy(@Nullable Constructor<T> constructor) {
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return constructor.getDeclaringClass().getDeclaredConstructor(constructor.getParameterTypes());
+        }
+        catch (NoSuchMethodException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+    //</editor-fold>
+}
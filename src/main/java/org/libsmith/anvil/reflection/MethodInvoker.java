@@ -1,8 +1,10 @@
 package org.libsmith.anvil.reflection;
 
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
 import org.libsmith.anvil.reflection.ReflectiveOperationRuntimeException.NoSuchMemberRuntimeException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Optional;
@@ -20,9 +22,11 @@ import static org.libsmith.anvil.reflection.ReflectionCommons.EMPTY_OBJECT_ARRAY
  */
 public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         implements ReflectionCommons.MemberCommons<Method, S>,
-                   ReflectionCommons.AccessibleCommons<Method, S> {
+                   ReflectionCommons.AccessibleCommons<Method, S>,
+                   ReflectionCommons.BackendCommons<S> {
 
-    private final Method method;
+    private Method method;
+    private volatile CompiledMember compiled;
 
     MethodInvoker(@Nonnull Method method) {
         this.method = method;
@@ -33,8 +37,71 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         return method;
     }
 
+    @Override
+    public @Nonnull Backend getBackend() {
+        return compiled == null ? Backend.REFLECTION : Backend.COMPILED;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public S backend(@Nonnull Backend backend) {
+        if (backend == Backend.REFLECTION) {
+            compiled = null;
+        }
+        else if (compiled == null) {
+            compiled = CompiledMember.of(method);
+        }
+        return (S) this;
+    }
+
+    /**
+     * Changes accessibility of a private copy of the method, the resolved one is shared with other callers
+     */
+    @Override
     @SuppressWarnings("unchecked")
+    public S accessible(boolean value) {
+        if (method.isAccessible() != value) {
+            Method copy = MemberIndex.copy(method);
+            copy.setAccessible(value);
+            method = copy;
+        }
+        return (S) this;
+    }
+
+    <I extends MethodInvoker<?, ?, ?>> I inheritBackend(I invoker) {
+        ((MethodInvoker<?, ?, ?>) invoker).compiled = compiled;
+        return invoker;
+    }
+
     protected R invokeAt(T object, Object[] args) {
+        ReflectionMetrics.Counter counter = ReflectionMetrics.counter(method);
+        if (counter == null) {
+            return invokeAt0(object, args);
+        }
+        long start = counter.enter();
+        try {
+            return invokeAt0(object, args);
+        }
+        catch (Throwable th) {
+            counter.fail();
+            throw th;
+        }
+        finally {
+            counter.exit(start);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private R invokeAt0(T object, Object[] args) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null) {
+            try {
+                return (R) compiled.getSpreadHandle().invokeExact((Object) object, args);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
         try {
             return (R) method.invoke(object, args);
         }
@@ -43,6 +110,160 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         }
     }
 
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle().invokeExact((Object) object);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, EMPTY_OBJECT_ARRAY);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object, Object arg0) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle().invokeExact((Object) object, arg0);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, new Object[] { arg0 });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object, Object arg0, Object arg1) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle().invokeExact((Object) object, arg0, arg1);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, new Object[] { arg0, arg1 });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object, Object arg0, Object arg1, Object arg2) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle().invokeExact((Object) object, arg0, arg1, arg2);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, new Object[] { arg0, arg1, arg2 });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object, Object arg0, Object arg1, Object arg2, Object arg3) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle().invokeExact((Object) object, arg0, arg1, arg2, arg3);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, new Object[] { arg0, arg1, arg2, arg3 });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle().invokeExact((Object) object, arg0, arg1, arg2, arg3, arg4);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, new Object[] { arg0, arg1, arg2, arg3, arg4 });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4,
+                                    Object arg5) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle().invokeExact((Object) object, arg0, arg1, arg2, arg3, arg4, arg5);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, new Object[] { arg0, arg1, arg2, arg3, arg4, arg5 });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4,
+                                    Object arg5, Object arg6) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle()
+                                   .invokeExact((Object) object, arg0, arg1, arg2, arg3, arg4, arg5, arg6);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, new Object[] { arg0, arg1, arg2, arg3, arg4, arg5, arg6 });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final R invokeExactAt(T object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4,
+                                    Object arg5, Object arg6, Object arg7) {
+        CompiledMember compiled = this.compiled;
+        if (compiled != null && !ReflectionMetrics.enabled) {
+            try {
+                return (R) compiled.getGenericHandle()
+                                   .invokeExact((Object) object, arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+            }
+            catch (Throwable th) {
+                throw CompiledMember.translate(th);
+            }
+        }
+        return invokeAt(object, new Object[] { arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7 });
+    }
+
+    /**
+     * Spreader path for callers already holding the arguments, the array is passed to the method as is
+     */
+    public R invokeSpreadAt(@Nonnull T object, @Nonnull Object[] args) {
+        return invokeAt(object, args);
+    }
+
+    /**
+     * @return functional object generated for the method in the compiled mode, the fallback otherwise or
+     *         while {@link ReflectionMetrics} are enabled
+     */
+    @SuppressWarnings("unchecked")
+    <F> F compile(@Nonnull Class<? super F> functionalInterface, @Nullable T boundObject, @Nonnull F fallback) {
+        CompiledMember compiled = this.compiled;
+        if (compiled == null || ReflectionMetrics.enabled) {
+            return fallback;
+        }
+        Object lambda = boundObject == null || STATIC.presentIn(method)
+                        ? compiled.lambda(functionalInterface)
+                        : compiled.lambda(functionalInterface, boundObject);
+        return lambda == null ? fallback : (F) lambda;
+    }
+
     @SuppressWarnings("unchecked")
     @Nonnull <N> MethodInvoker<T, N, ?> returns(@Nonnull Class<N> returnType) {
         if (returnType.isAssignableFrom(method.getReturnType())) {
@@ -77,6 +298,13 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
             }
         }
 
+        /**
+         * @see #invokeSpreadAt(Object, Object[])
+         */
+        public R invokeSpread(@Nonnull Object[] args) {
+            return invokeAt(object, args);
+        }
+
         @Override
         public String toString() {
             return super.toString() + (object == null ? " of static method" : " of object '" + object + "'");
@@ -95,17 +323,23 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         }
 
         public UncheckedArgumentWithObject<T, R> asStatic() {
-            return new UncheckedArgumentWithObject<>(getReflectionSubject(), null);
+            return inheritBackend(new UncheckedArgumentWithObject<>(getReflectionSubject(), null));
+        }
+
+        /**
+         * @return operation invoking the method at targets with the same arguments
+         */
+        public BulkOperation<T, R> bulk(Object ... args) {
+            Object[] arguments = args.clone();
+            return BulkOperation.of(object -> invokeAt(object, arguments));
         }
 
         public Optional<UncheckedArgumentWithObject<T, R>> asStaticOp() {
-            Method method = getReflectionSubject();
-            return STATIC.presentIn(method) ? Optional.of(new UncheckedArgumentWithObject<>(method, null))
-                                            : Optional.empty();
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
         }
 
         public UncheckedArgumentWithObject<T, R> withObject(@Nonnull T object) {
-            return new UncheckedArgumentWithObject<>(getReflectionSubject(), object);
+            return inheritBackend(new UncheckedArgumentWithObject<>(getReflectionSubject(), object));
         }
 
         @Override
@@ -144,21 +378,27 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         }
 
         public R invokeAt(@Nonnull T object) {
-            return invokeAt(object, EMPTY_OBJECT_ARRAY);
+            return invokeExactAt(object);
+        }
+
+        public Function<T, R> asFunction() {
+            return compile(Function.class, null, this::invokeAt);
+        }
+
+        public BulkOperation<T, R> bulk() {
+            return BulkOperation.of(asFunction());
         }
 
         public NoArgumentWithObject<T, R> asStatic() {
-            return new NoArgumentWithObject<>(getReflectionSubject(), null);
+            return inheritBackend(new NoArgumentWithObject<>(getReflectionSubject(), null));
         }
 
         public Optional<NoArgumentWithObject<T, R>> asStaticOp() {
-            Method method = getReflectionSubject();
-            return STATIC.presentIn(method) ? Optional.of(new NoArgumentWithObject<>(method, null))
-                                            : Optional.empty();
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
         }
 
         public NoArgumentWithObject<T, R> withObject(@Nonnull T object) {
-            return new NoArgumentWithObject<>(getReflectionSubject(), object);
+            return inheritBackend(new NoArgumentWithObject<>(getReflectionSubject(), object));
         }
 
         @Override
@@ -182,11 +422,11 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         }
 
         public R invoke() {
-            return invokeAt(object, EMPTY_OBJECT_ARRAY);
+            return invokeExactAt(object);
         }
 
         public Supplier<R> asSupplier() {
-            return this::invoke;
+            return compile(Supplier.class, object, this::invoke);
         }
     }
 
@@ -197,21 +437,30 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         }
 
         public R invokeAt(@Nonnull T object, A0 arg0) {
-            return super.invokeAt(object, new Object[] { arg0 });
+            return invokeExactAt(object, arg0);
+        }
+
+        public BiFunction<T, A0, R> asBiFunction() {
+            return compile(BiFunction.class, null, this::invokeAt);
+        }
+
+        /**
+         * @return operation invoking the method at targets with the same argument
+         */
+        public BulkOperation<T, R> bulk(A0 arg0) {
+            return BulkOperation.of(object -> invokeExactAt(object, arg0));
         }
 
         public SingleArgumentWithObject<T, A0, R> asStatic() {
-            return new SingleArgumentWithObject<>(getReflectionSubject(), null);
+            return inheritBackend(new SingleArgumentWithObject<>(getReflectionSubject(), null));
         }
 
         public Optional<SingleArgumentWithObject<T, A0, R>> asStaticOp() {
-            Method method = getReflectionSubject();
-            return STATIC.presentIn(method) ? Optional.of(new SingleArgumentWithObject<>(method, null))
-                                            : Optional.empty();
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
         }
 
         public SingleArgumentWithObject<T, A0, R> withObject(@Nonnull T object) {
-            return new SingleArgumentWithObject<>(getReflectionSubject(), object);
+            return inheritBackend(new SingleArgumentWithObject<>(getReflectionSubject(), object));
         }
 
         @Override
@@ -235,11 +484,11 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         }
 
         public R invoke(A0 arg0) {
-            return invokeAt(object, new Object[] { arg0 });
+            return invokeExactAt(object, arg0);
         }
 
         public Function<A0, R> asFunction() {
-            return this::invoke;
+            return compile(Function.class, object, this::invoke);
         }
     }
 
@@ -250,21 +499,26 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         }
 
         public R invokeAt(T object, A0 arg0, A1 arg1) {
-            return super.invokeAt(object, new Object[] { arg0, arg1 });
+            return invokeExactAt(object, arg0, arg1);
+        }
+
+        /**
+         * @return operation invoking the method at targets with the same arguments
+         */
+        public BulkOperation<T, R> bulk(A0 arg0, A1 arg1) {
+            return BulkOperation.of(object -> invokeExactAt(object, arg0, arg1));
         }
 
         public BiArgumentWithObject<T, A0, A1, R> asStatic() {
-            return new BiArgumentWithObject<>(getReflectionSubject(), null);
+            return inheritBackend(new BiArgumentWithObject<>(getReflectionSubject(), null));
         }
 
         public Optional<BiArgumentWithObject<T, A0, A1, R>> asStaticOp() {
-            Method method = getReflectionSubject();
-            return STATIC.presentIn(method) ? Optional.of(new BiArgumentWithObject<>(method, null))
-                                            : Optional.empty();
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
         }
 
         public BiArgumentWithObject<T, A0, A1, R> withObject(@Nonnull T object) {
-            return new BiArgumentWithObject<>(getReflectionSubject(), object);
+            return inheritBackend(new BiArgumentWithObject<>(getReflectionSubject(), object));
         }
 
         @Override
@@ -288,14 +542,308 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
         }
 
         public R invoke(A0 arg0, A1 arg1) {
-            return invokeAt(object, new Object[] { arg0, arg1 });
+            return invokeExactAt(object, arg0, arg1);
         }
 
         public BiFunction<A0, A1, R> asBiFunction() {
-            return this::invoke;
+            return compile(BiFunction.class, object, this::invoke);
         }
     }
 
+    public static class TriArgument<T, A0, A1, A2, R> extends MethodInvoker<T, R, TriArgument<T, A0, A1, A2, R>> {
+
+        TriArgument(@Nonnull Method method) {
+            super(method);
+        }
+
+        public R invokeAt(@Nonnull T object, A0 arg0, A1 arg1, A2 arg2) {
+            return invokeExactAt(object, arg0, arg1, arg2);
+        }
+
+        public TriArgumentWithObject<T, A0, A1, A2, R> asStatic() {
+            return inheritBackend(new TriArgumentWithObject<>(getReflectionSubject(), null));
+        }
+
+        public Optional<TriArgumentWithObject<T, A0, A1, A2, R>> asStaticOp() {
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
+        }
+
+        public TriArgumentWithObject<T, A0, A1, A2, R> withObject(@Nonnull T object) {
+            return inheritBackend(new TriArgumentWithObject<>(getReflectionSubject(), object));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> TriArgument<T, A0, A1, A2, N> returns(@Nonnull Class<N> returnType) {
+            return (TriArgument<T, A0, A1, A2, N>) super.returns(returnType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> Optional<TriArgument<T, A0, A1, A2, N>> returnsOp(@Nonnull Class<N> returnType) {
+            return (Optional<TriArgument<T, A0, A1, A2, N>>) super.returnsOp(returnType);
+        }
+    }
+
+    public static class TriArgumentWithObject<T, A0, A1, A2, R>
+            extends MethodInvokerWithObject<T, R, TriArgumentWithObject<T, A0, A1, A2, R>> {
+
+        TriArgumentWithObject(@Nonnull Method method, T object) {
+            super(method, object);
+        }
+
+        public R invoke(A0 arg0, A1 arg1, A2 arg2) {
+            return invokeExactAt(object, arg0, arg1, arg2);
+        }
+    }
+
+    public static class QuadArgument<T, A0, A1, A2, A3, R>
+            extends MethodInvoker<T, R, QuadArgument<T, A0, A1, A2, A3, R>> {
+
+        QuadArgument(@Nonnull Method method) {
+            super(method);
+        }
+
+        public R invokeAt(@Nonnull T object, A0 arg0, A1 arg1, A2 arg2, A3 arg3) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3);
+        }
+
+        public QuadArgumentWithObject<T, A0, A1, A2, A3, R> asStatic() {
+            return inheritBackend(new QuadArgumentWithObject<>(getReflectionSubject(), null));
+        }
+
+        public Optional<QuadArgumentWithObject<T, A0, A1, A2, A3, R>> asStaticOp() {
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
+        }
+
+        public QuadArgumentWithObject<T, A0, A1, A2, A3, R> withObject(@Nonnull T object) {
+            return inheritBackend(new QuadArgumentWithObject<>(getReflectionSubject(), object));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> QuadArgument<T, A0, A1, A2, A3, N> returns(@Nonnull Class<N> returnType) {
+            return (QuadArgument<T, A0, A1, A2, A3, N>) super.returns(returnType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> Optional<QuadArgument<T, A0, A1, A2, A3, N>> returnsOp(@Nonnull Class<N> returnType) {
+            return (Optional<QuadArgument<T, A0, A1, A2, A3, N>>) super.returnsOp(returnType);
+        }
+    }
+
+    public static class QuadArgumentWithObject<T, A0, A1, A2, A3, R>
+            extends MethodInvokerWithObject<T, R, QuadArgumentWithObject<T, A0, A1, A2, A3, R>> {
+
+        QuadArgumentWithObject(@Nonnull Method method, T object) {
+            super(method, object);
+        }
+
+        public R invoke(A0 arg0, A1 arg1, A2 arg2, A3 arg3) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3);
+        }
+    }
+
+    public static class PentaArgument<T, A0, A1, A2, A3, A4, R>
+            extends MethodInvoker<T, R, PentaArgument<T, A0, A1, A2, A3, A4, R>> {
+
+        PentaArgument(@Nonnull Method method) {
+            super(method);
+        }
+
+        public R invokeAt(@Nonnull T object, A0 arg0, A1 arg1, A2 arg2, A3 arg3, A4 arg4) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3, arg4);
+        }
+
+        public PentaArgumentWithObject<T, A0, A1, A2, A3, A4, R> asStatic() {
+            return inheritBackend(new PentaArgumentWithObject<>(getReflectionSubject(), null));
+        }
+
+        public Optional<PentaArgumentWithObject<T, A0, A1, A2, A3, A4, R>> asStaticOp() {
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
+        }
+
+        public PentaArgumentWithObject<T, A0, A1, A2, A3, A4, R> withObject(@Nonnull T object) {
+            return inheritBackend(new PentaArgumentWithObject<>(getReflectionSubject(), object));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> PentaArgument<T, A0, A1, A2, A3, A4, N> returns(@Nonnull Class<N> returnType) {
+            return (PentaArgument<T, A0, A1, A2, A3, A4, N>) super.returns(returnType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> Optional<PentaArgument<T, A0, A1, A2, A3, A4, N>> returnsOp(@Nonnull Class<N> returnType) {
+            return (Optional<PentaArgument<T, A0, A1, A2, A3, A4, N>>) super.returnsOp(returnType);
+        }
+    }
+
+    public static class PentaArgumentWithObject<T, A0, A1, A2, A3, A4, R>
+            extends MethodInvokerWithObject<T, R, PentaArgumentWithObject<T, A0, A1, A2, A3, A4, R>> {
+
+        PentaArgumentWithObject(@Nonnull Method method, T object) {
+            super(method, object);
+        }
+
+        public R invoke(A0 arg0, A1 arg1, A2 arg2, A3 arg3, A4 arg4) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3, arg4);
+        }
+    }
+
+    public static class HexaArgument<T, A0, A1, A2, A3, A4, A5, R>
+            extends MethodInvoker<T, R, HexaArgument<T, A0, A1, A2, A3, A4, A5, R>> {
+
+        HexaArgument(@Nonnull Method method) {
+            super(method);
+        }
+
+        public R invokeAt(@Nonnull T object, A0 arg0, A1 arg1, A2 arg2, A3 arg3, A4 arg4, A5 arg5) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3, arg4, arg5);
+        }
+
+        public HexaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, R> asStatic() {
+            return inheritBackend(new HexaArgumentWithObject<>(getReflectionSubject(), null));
+        }
+
+        public Optional<HexaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, R>> asStaticOp() {
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
+        }
+
+        public HexaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, R> withObject(@Nonnull T object) {
+            return inheritBackend(new HexaArgumentWithObject<>(getReflectionSubject(), object));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> HexaArgument<T, A0, A1, A2, A3, A4, A5, N> returns(@Nonnull Class<N> returnType) {
+            return (HexaArgument<T, A0, A1, A2, A3, A4, A5, N>) super.returns(returnType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> Optional<HexaArgument<T, A0, A1, A2, A3, A4, A5, N>> returnsOp(
+                @Nonnull Class<N> returnType) {
+            return (Optional<HexaArgument<T, A0, A1, A2, A3, A4, A5, N>>) super.returnsOp(returnType);
+        }
+    }
+
+    public static class HexaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, R>
+            extends MethodInvokerWithObject<T, R, HexaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, R>> {
+
+        HexaArgumentWithObject(@Nonnull Method method, T object) {
+            super(method, object);
+        }
+
+        public R invoke(A0 arg0, A1 arg1, A2 arg2, A3 arg3, A4 arg4, A5 arg5) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3, arg4, arg5);
+        }
+    }
+
+    public static class HeptaArgument<T, A0, A1, A2, A3, A4, A5, A6, R>
+            extends MethodInvoker<T, R, HeptaArgument<T, A0, A1, A2, A3, A4, A5, A6, R>> {
+
+        HeptaArgument(@Nonnull Method method) {
+            super(method);
+        }
+
+        public R invokeAt(@Nonnull T object, A0 arg0, A1 arg1, A2 arg2, A3 arg3, A4 arg4, A5 arg5, A6 arg6) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
+
+        public HeptaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, R> asStatic() {
+            return inheritBackend(new HeptaArgumentWithObject<>(getReflectionSubject(), null));
+        }
+
+        public Optional<HeptaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, R>> asStaticOp() {
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
+        }
+
+        public HeptaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, R> withObject(@Nonnull T object) {
+            return inheritBackend(new HeptaArgumentWithObject<>(getReflectionSubject(), object));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> HeptaArgument<T, A0, A1, A2, A3, A4, A5, A6, N> returns(@Nonnull Class<N> returnType) {
+            return (HeptaArgument<T, A0, A1, A2, A3, A4, A5, A6, N>) super.returns(returnType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> Optional<HeptaArgument<T, A0, A1, A2, A3, A4, A5, A6, N>> returnsOp(
+                @Nonnull Class<N> returnType) {
+            return (Optional<HeptaArgument<T, A0, A1, A2, A3, A4, A5, A6, N>>) super.returnsOp(returnType);
+        }
+    }
+
+    public static class HeptaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, R>
+            extends MethodInvokerWithObject<T, R, HeptaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, R>> {
+
+        HeptaArgumentWithObject(@Nonnull Method method, T object) {
+            super(method, object);
+        }
+
+        public R invoke(A0 arg0, A1 arg1, A2 arg2, A3 arg3, A4 arg4, A5 arg5, A6 arg6) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
+    }
+
+    public static class OctaArgument<T, A0, A1, A2, A3, A4, A5, A6, A7, R>
+            extends MethodInvoker<T, R, OctaArgument<T, A0, A1, A2, A3, A4, A5, A6, A7, R>> {
+
+        OctaArgument(@Nonnull Method method) {
+            super(method);
+        }
+
+        public R invokeAt(@Nonnull T object, A0 arg0, A1 arg1, A2 arg2, A3 arg3, A4 arg4, A5 arg5, A6 arg6, A7 arg7) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        }
+
+        public OctaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, A7, R> asStatic() {
+            return inheritBackend(new OctaArgumentWithObject<>(getReflectionSubject(), null));
+        }
+
+        public Optional<OctaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, A7, R>> asStaticOp() {
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
+        }
+
+        public OctaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, A7, R> withObject(@Nonnull T object) {
+            return inheritBackend(new OctaArgumentWithObject<>(getReflectionSubject(), object));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> OctaArgument<T, A0, A1, A2, A3, A4, A5, A6, A7, N> returns(@Nonnull Class<N> returnType) {
+            return (OctaArgument<T, A0, A1, A2, A3, A4, A5, A6, A7, N>) super.returns(returnType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nonnull <N> Optional<OctaArgument<T, A0, A1, A2, A3, A4, A5, A6, A7, N>> returnsOp(
+                @Nonnull Class<N> returnType) {
+            return (Optional<OctaArgument<T, A0, A1, A2, A3, A4, A5, A6, A7, N>>) super.returnsOp(returnType);
+        }
+    }
+
+    public static class OctaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, A7, R>
+            extends MethodInvokerWithObject<T, R, OctaArgumentWithObject<T, A0, A1, A2, A3, A4, A5, A6, A7, R>> {
+
+        OctaArgumentWithObject(@Nonnull Method method, T object) {
+            super(method, object);
+        }
+
+        public R invoke(A0 arg0, A1 arg1, A2 arg2, A3 arg3, A4 arg4, A5 arg5, A6 arg6, A7 arg7) {
+            return invokeExactAt(object, arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        }
+    }
+
+    /**
+     * Packs arguments into a new array on every call, prefer arity specific invokers or
+     * {@link #invokeSpreadAt(Object, Object[])} on hot paths
+     */
     public static class BiAndRestArgument<T, A0, A1, R> extends MethodInvoker<T, R, BiAndRestArgument<T, A0, A1, R>> {
 
         BiAndRestArgument(@Nonnull Method method) {
@@ -310,18 +858,27 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
             return super.invokeAt(object, args);
         }
 
+        /**
+         * @return operation invoking the method at targets with the same arguments, packed once
+         */
+        public BulkOperation<T, R> bulk(A0 arg0, A1 arg1, Object ... restArguments) {
+            Object[] args = new Object[restArguments.length + 2];
+            args[0] = arg0;
+            args[1] = arg1;
+            System.arraycopy(restArguments, 0, args, 2, restArguments.length);
+            return BulkOperation.of(object -> super.invokeAt(object, args));
+        }
+
         public BiAndRestArgumentWithObject<T, A0, A1, R> asStatic() {
-            return new BiAndRestArgumentWithObject<>(getReflectionSubject(), null);
+            return inheritBackend(new BiAndRestArgumentWithObject<>(getReflectionSubject(), null));
         }
 
         public Optional<BiAndRestArgumentWithObject<T, A0, A1, R>> asStaticOp() {
-            Method method = getReflectionSubject();
-            return STATIC.presentIn(method) ? Optional.of(new BiAndRestArgumentWithObject<>(method, null))
-                                            : Optional.empty();
+            return STATIC.presentIn(getReflectionSubject()) ? Optional.of(asStatic()) : Optional.empty();
         }
 
         public BiAndRestArgumentWithObject<T, A0, A1, R> withObject(@Nonnull T object) {
-            return new BiAndRestArgumentWithObject<>(getReflectionSubject(), object);
+            return inheritBackend(new BiAndRestArgumentWithObject<>(getReflectionSubject(), object));
         }
 
         @Override
@@ -379,6 +936,51 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
             return new BiArgument<>(methodResolver.apply(name, new Class[] { param0, param1 }));
         }
 
+        /**
+         * Typed invokers of three to eight parameters have arity suffixed names, {@code params} of more than two types
+         * keeps resolving {@link BiAndRestArgument}
+         */
+        public <P0, P1, P2> TriArgument<T, P0, P1, P2, ?> params3(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2) {
+            return new TriArgument<>(methodResolver.apply(name, new Class<?>[] { param0, param1, param2 }));
+        }
+
+        public <P0, P1, P2, P3> QuadArgument<T, P0, P1, P2, P3, ?> params4(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3) {
+            return new QuadArgument<>(methodResolver.apply(name, new Class<?>[] { param0, param1, param2, param3 }));
+        }
+
+        public <P0, P1, P2, P3, P4> PentaArgument<T, P0, P1, P2, P3, P4, ?> params5(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3, @Nonnull Class<P4> param4) {
+            return new PentaArgument<>(methodResolver.apply(name, new Class<?>[] {
+                    param0, param1, param2, param3, param4 }));
+        }
+
+        public <P0, P1, P2, P3, P4, P5> HexaArgument<T, P0, P1, P2, P3, P4, P5, ?> params6(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3, @Nonnull Class<P4> param4, @Nonnull Class<P5> param5) {
+            return new HexaArgument<>(methodResolver.apply(name, new Class<?>[] {
+                    param0, param1, param2, param3, param4, param5 }));
+        }
+
+        public <P0, P1, P2, P3, P4, P5, P6> HeptaArgument<T, P0, P1, P2, P3, P4, P5, P6, ?> params7(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3, @Nonnull Class<P4> param4, @Nonnull Class<P5> param5,
+                @Nonnull Class<P6> param6) {
+            return new HeptaArgument<>(methodResolver.apply(name, new Class<?>[] {
+                    param0, param1, param2, param3, param4, param5, param6 }));
+        }
+
+        public <P0, P1, P2, P3, P4, P5, P6, P7> OctaArgument<T, P0, P1, P2, P3, P4, P5, P6, P7, ?> params8(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3, @Nonnull Class<P4> param4, @Nonnull Class<P5> param5,
+                @Nonnull Class<P6> param6, @Nonnull Class<P7> param7) {
+            return new OctaArgument<>(methodResolver.apply(name, new Class<?>[] {
+                    param0, param1, param2, param3, param4, param5, param6, param7 }));
+        }
+
         public <P0, P1> BiAndRestArgument<T, P0, P1, ?> params(
                 @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<?> ... restParams) {
 
@@ -406,6 +1008,50 @@ public class MethodInvoker<T, R, S extends MethodInvoker<T, R, S>>
             return methodResolver.applyOp(name, new Class[] { param0, param1 }).map(BiArgument::new);
         }
 
+        public <P0, P1, P2> Optional<? extends TriArgument<T, P0, P1, P2, ?>> params3Op(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2) {
+            return methodResolver.applyOp(name, new Class<?>[] { param0, param1, param2 }).map(TriArgument::new);
+        }
+
+        public <P0, P1, P2, P3> Optional<? extends QuadArgument<T, P0, P1, P2, P3, ?>> params4Op(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3) {
+            return methodResolver.applyOp(name, new Class<?>[] { param0, param1, param2, param3 })
+                                 .map(QuadArgument::new);
+        }
+
+        public <P0, P1, P2, P3, P4> Optional<? extends PentaArgument<T, P0, P1, P2, P3, P4, ?>> params5Op(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3, @Nonnull Class<P4> param4) {
+            return methodResolver.applyOp(name, new Class<?>[] { param0, param1, param2, param3, param4 })
+                                 .map(PentaArgument::new);
+        }
+
+        public <P0, P1, P2, P3, P4, P5> Optional<? extends HexaArgument<T, P0, P1, P2, P3, P4, P5, ?>> params6Op(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3, @Nonnull Class<P4> param4, @Nonnull Class<P5> param5) {
+            return methodResolver.applyOp(name, new Class<?>[] { param0, param1, param2, param3, param4, param5 })
+                                 .map(HexaArgument::new);
+        }
+
+        public <P0, P1, P2, P3, P4, P5, P6>
+        Optional<? extends HeptaArgument<T, P0, P1, P2, P3, P4, P5, P6, ?>> params7Op(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3, @Nonnull Class<P4> param4, @Nonnull Class<P5> param5,
+                @Nonnull Class<P6> param6) {
+            return methodResolver.applyOp(name, new Class<?>[] {
+                    param0, param1, param2, param3, param4, param5, param6 }).map(HeptaArgument::new);
+        }
+
+        public <P0, P1, P2, P3, P4, P5, P6, P7>
+        Optional<? extends OctaArgument<T, P0, P1, P2, P3, P4, P5, P6, P7, ?>> params8Op(
+                @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<P2> param2,
+                @Nonnull Class<P3> param3, @Nonnull Class<P4> param4, @Nonnull Class<P5> param5,
+                @Nonnull Class<P6> param6, @Nonnull Class<P7> param7) {
+            return methodResolver.applyOp(name, new Class<?>[] {
+                    param0, param1, param2, param3, param4, param5, param6, param7 }).map(OctaArgument::new);
+        }
+
         public <P0, P1> Optional<? extends BiAndRestArgument<T, P0, P1, ?>> paramsOp(
                 @Nonnull Class<P0> param0, @Nonnull Class<P1> param1, @Nonnull Class<?> ... restParams) {
             Class<?>[] params = new Class[restParams.length + 2];
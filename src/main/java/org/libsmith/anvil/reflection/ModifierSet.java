@@ -0,0 +1,310 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Member;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Immutable set of {@link Modifier modifiers} backed by the packed {@code int}, as returned by
+ * {@link Member#getModifiers()}. All the sets are interned, so {@link #of(int)} doesn't allocate, as well as
+ * the set algebra and the {@link Matcher} checks. Iteration order is the order of {@link Modifier} constants.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 21.10.26 16:10
+ */
+public final class ModifierSet extends AbstractSet<Modifier> {
+
+    private static final Modifier[] MODIFIERS = Modifier.values();
+    private static final int ALL_MASK = Modifier.pack(MODIFIERS);
+    private static final ModifierSet[] INTERNED = new ModifierSet[Integer.highestOneBit(ALL_MASK) << 1];
+    private static final ConcurrentMap<String, ModifierSet> PARSED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Matcher> MATCHERS = new ConcurrentHashMap<>();
+    private static final int PARSED_CACHE_LIMIT = 256;
+
+    public static final ModifierSet EMPTY = of(0);
+    public static final ModifierSet ALL = of(ALL_MASK);
+
+    public static final ModifierSet INTERFACE_MODIFIERS = of(java.lang.reflect.Modifier.interfaceModifiers());
+    public static final ModifierSet CLASS_MODIFIERS = of(java.lang.reflect.Modifier.classModifiers());
+    public static final ModifierSet FIELD_MODIFIERS = of(java.lang.reflect.Modifier.fieldModifiers());
+    public static final ModifierSet CONSTRUCTOR_MODIFIERS = of(java.lang.reflect.Modifier.constructorModifiers());
+    public static final ModifierSet METHOD_MODIFIERS = of(java.lang.reflect.Modifier.methodModifiers());
+    public static final ModifierSet PARAMETER_MODIFIERS = of(java.lang.reflect.Modifier.parameterModifiers());
+
+    private final int mask;
+    private int hashCode;
+
+    private ModifierSet(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * @param packed modifiers, bits not described by {@link Modifier} are ignored
+     */
+    public static @Nonnull ModifierSet of(int packed) {
+        int mask = packed & ALL_MASK;
+        ModifierSet set = INTERNED[mask];
+        if (set == null) {
+            INTERNED[mask] = set = new ModifierSet(mask);
+        }
+        return set;
+    }
+
+    public static @Nonnull ModifierSet of(@Nonnull Member member) {
+        return of(member.getModifiers());
+    }
+
+    public static @Nonnull ModifierSet of(@Nonnull Modifier ... modifiers) {
+        return of(Modifier.pack(modifiers));
+    }
+
+    public static @Nonnull ModifierSet of(@Nonnull Collection<Modifier> modifiers) {
+        if (modifiers instanceof ModifierSet) {
+            return (ModifierSet) modifiers;
+        }
+        int mask = 0;
+        for (Modifier modifier : modifiers) {
+            mask |= modifier.getMask();
+        }
+        return of(mask);
+    }
+
+    /**
+     * Parses space separated modifiers like {@link Modifier#parse(String)}, results are cached
+     */
+    public static @Nonnull ModifierSet parse(@Nonnull String modifiers) {
+        ModifierSet set = PARSED.get(modifiers);
+        if (set == null) {
+            set = of(Modifier.parse(modifiers));
+            if (PARSED.size() < PARSED_CACHE_LIMIT) {
+                PARSED.putIfAbsent(modifiers, set);
+            }
+        }
+        return set;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    public boolean presentIn(int packed) {
+        return (packed & mask) == mask;
+    }
+
+    public boolean presentIn(@Nonnull Member member) {
+        return presentIn(member.getModifiers());
+    }
+
+    public boolean contains(@Nonnull Modifier modifier) {
+        return (mask & modifier.getMask()) != 0;
+    }
+
+    public boolean containsAll(@Nonnull ModifierSet set) {
+        return (mask & set.mask) == set.mask;
+    }
+
+    public boolean containsAny(@Nonnull ModifierSet set) {
+        return (mask & set.mask) != 0;
+    }
+
+    //<editor-fold desc="Set algebra">
+    public @Nonnull ModifierSet with(@Nonnull Modifier modifier) {
+        return of(mask | modifier.getMask());
+    }
+
+    public @Nonnull ModifierSet without(@Nonnull Modifier modifier) {
+        return of(mask & ~modifier.getMask());
+    }
+
+    public @Nonnull ModifierSet union(@Nonnull ModifierSet set) {
+        return of(mask | set.mask);
+    }
+
+    public @Nonnull ModifierSet intersection(@Nonnull ModifierSet set) {
+        return of(mask & set.mask);
+    }
+
+    public @Nonnull ModifierSet difference(@Nonnull ModifierSet set) {
+        return of(mask & ~set.mask);
+    }
+
+    public @Nonnull ModifierSet complement() {
+        return of(~mask);
+    }
+    //</editor-fold>
+
+    public @Nonnull EnumSet<Modifier> toEnumSet() {
+        return Modifier.unpack(mask);
+    }
+
+    //<editor-fold desc="Set">
+    @Override
+    public boolean contains(Object object) {
+        return object instanceof Modifier && contains((Modifier) object);
+    }
+
+    @Override
+    public boolean containsAll(@Nonnull Collection<?> collection) {
+        if (collection instanceof ModifierSet) {
+            return containsAll((ModifierSet) collection);
+        }
+        return super.containsAll(collection);
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(mask);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    @Override
+    public @Nonnull Iterator<Modifier> iterator() {
+        return new Iterator<Modifier>() {
+
+            private int index = advance(0);
+
+            private int advance(int from) {
+                while (from < MODIFIERS.length && !contains(MODIFIERS[from])) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return index < MODIFIERS.length;
+            }
+
+            @Override
+            public Modifier next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Modifier modifier = MODIFIERS[index];
+                index = advance(index + 1);
+                return modifier;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object instanceof ModifierSet) {
+            return mask == ((ModifierSet) object).mask;
+        }
+        return super.equals(object);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+        if (hashCode == 0 && mask != 0) {
+            this.hashCode = hashCode = super.hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Modifier modifier : this) {
+            if (sb.length() != 0) {
+                sb.append(' ');
+            }
+            sb.append(modifier.name().toLowerCase());
+        }
+        return sb.toString();
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Matcher">
+    /**
+     * @param expression space separated modifiers the member must have, modifiers prefixed with {@code !}
+     *                   must be absent, e.g. {@code "public static !final"}, results are cached
+     */
+    public static @Nonnull Matcher matcher(@Nonnull String expression) {
+        Matcher matcher = MATCHERS.get(expression);
+        if (matcher == null) {
+            matcher = parseMatcher(expression);
+            if (MATCHERS.size() < PARSED_CACHE_LIMIT) {
+                MATCHERS.putIfAbsent(expression, matcher);
+            }
+        }
+        return matcher;
+    }
+
+    private static Matcher parseMatcher(String expression) {
+        int required = 0;
+        int forbidden = 0;
+        for (String token : expression.trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (token.startsWith("!")) {
+                forbidden |= parse(token.substring(1)).mask;
+            }
+            else {
+                required |= parse(token).mask;
+            }
+        }
+        return matcher(of(required), of(forbidden));
+    }
+
+    public static @Nonnull Matcher matcher(@Nonnull ModifierSet required, @Nonnull ModifierSet forbidden) {
+        if (required.containsAny(forbidden)) {
+            throw new IllegalArgumentException("Modifiers are both required and forbidden: " +
+                                               required.intersection(forbidden));
+        }
+        return new Matcher(required.mask, forbidden.mask);
+    }
+
+    /**
+     * Precompiled check of member modifiers, a pair of bitwise operations per member
+     */
+    public static final class Matcher implements Predicate<Member> {
+
+        private final int required;
+        private final int forbidden;
+
+        private Matcher(int required, int forbidden) {
+            this.required = required;
+            this.forbidden = forbidden;
+        }
+
+        public boolean matches(int packed) {
+            return (packed & (required | forbidden)) == required;
+        }
+
+        public boolean matches(@Nonnull Member member) {
+            return matches(member.getModifiers());
+        }
+
+        @Override
+        public boolean test(Member member) {
+            return matches(member.getModifiers());
+        }
+
+        public @Nonnull ModifierSet getRequired() {
+            return of(required);
+        }
+
+        public @Nonnull ModifierSet getForbidden() {
+            return of(forbidden);
+        }
+
+        @Override
+        public String toString() {
+            String forbiddenString = of(forbidden).toString();
+            return (of(required) + (forbiddenString.isEmpty() ? "" : " !" + forbiddenString.replace(" ", " !")))
+                    .trim();
+        }
+    }
+    //</editor-fold>
+}
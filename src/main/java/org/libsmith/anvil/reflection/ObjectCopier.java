@@ -0,0 +1,354 @@
+package org.libsmith.anvil.reflection;
+
+import org.libsmith.anvil.time.ImmutableDate;
+import org.libsmith.anvil.time.TimePeriod;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.libsmith.anvil.reflection.FieldHandle.UNSAFE;
+
+/**
+ * Field by field copier of objects with the copy plan compiled once per class. Primitive fields are copied
+ * without boxing, through {@code sun.misc.Unsafe} where available and through {@link FieldHandle} otherwise.
+ * <p>
+ * {@link #copy} creates a new instance, without calling constructors where {@code Unsafe} is available, and
+ * copies all instance fields of the class and its superclasses. {@link #copyTo} copies
+ * {@link ClassReflection#COPYABLE_FIELDS copyable fields} only into an existing instance.
+ * <p>
+ * Shallow copier shares referenced objects. Deep copier copies referenced objects and arrays recursively,
+ * each object of the graph is copied once, so shared references and cycles are preserved. Immutable values,
+ * such as strings, boxed primitives, enums, {@link ImmutableDate}, {@link TimePeriod} and {@code java.time}
+ * values, as well as lambdas, are shared by both copiers. Hash based collections keep the hashes of the
+ * original keys, so their keys must not rely on identity hash codes.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 23.10.26 10:40
+ */
+public final class ObjectCopier<T> {
+
+    private final Class<T> type;
+    private final boolean deep;
+    private final Step[] instanceSteps;
+    private final Step[] copyableSteps;
+    private final boolean hasFinalFields;
+    private final @Nullable Constructor<T> constructor;
+
+    private ObjectCopier(Class<T> type, boolean deep) {
+        this.type = type;
+        this.deep = deep;
+        List<Step> instanceSteps = new ArrayList<>();
+        List<Step> copyableSteps = new ArrayList<>();
+        boolean hasFinalFields = false;
+        for (Class<?> declaringClass = type; declaringClass != null && declaringClass != Object.class;
+                declaringClass = declaringClass.getSuperclass()) {
+            for (Field field : declaringClass.getDeclaredFields()) {
+                if (Modifier.STATIC.presentIn(field)) {
+                    continue;
+                }
+                Step step = step(field, deep && !isImmutable(field.getType()));
+                instanceSteps.add(step);
+                if (ClassReflection.COPYABLE_FIELDS.test(field)) {
+                    copyableSteps.add(step);
+                }
+                hasFinalFields |= Modifier.FINAL.presentIn(field);
+            }
+        }
+        this.instanceSteps = instanceSteps.toArray(new Step[instanceSteps.size()]);
+        this.copyableSteps = copyableSteps.toArray(new Step[copyableSteps.size()]);
+        this.hasFinalFields = hasFinalFields;
+        this.constructor = UNSAFE == null ? defaultConstructor(type) : null;
+    }
+
+    /**
+     * @return process wide shallow copier of the type
+     */
+    @SuppressWarnings("unchecked")
+    public static @Nonnull <T> ObjectCopier<T> shallow(@Nonnull Class<T> type) {
+        return (ObjectCopier<T>) SHALLOW.get(checkType(type));
+    }
+
+    /**
+     * @return process wide deep copier of the type
+     */
+    @SuppressWarnings("unchecked")
+    public static @Nonnull <T> ObjectCopier<T> deep(@Nonnull Class<T> type) {
+        return (ObjectCopier<T>) DEEP.get(checkType(type));
+    }
+
+    /**
+     * @return shallow copy of the object or array
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T shallowCopy(@Nullable T source) {
+        if (source == null || isImmutable(source.getClass())) {
+            return source;
+        }
+        if (source.getClass().isArray()) {
+            int length = Array.getLength(source);
+            Object copy = Array.newInstance(source.getClass().getComponentType(), length);
+            System.arraycopy(source, 0, copy, 0, length);
+            return (T) copy;
+        }
+        return ((ObjectCopier<T>) SHALLOW.get(source.getClass())).copy(source);
+    }
+
+    /**
+     * @return deep copy of the object or array
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T deepCopy(@Nullable T source) {
+        return (T) new Context().copy(source);
+    }
+
+    public @Nonnull Class<T> getType() {
+        return type;
+    }
+
+    public boolean isDeep() {
+        return deep;
+    }
+
+    /**
+     * @param source instance of the type or its subclass, which is copied by the copier of its class
+     * @return new instance of the source class with all instance fields copied
+     */
+    @SuppressWarnings("unchecked")
+    public T copy(@Nonnull T source) {
+        Class<?> sourceClass = source.getClass();
+        if (sourceClass != type) {
+            if (!type.isInstance(source)) {
+                throw new ClassCastException("Can't copy " + sourceClass.getName() + " as " + type.getName());
+            }
+            return deep ? deepCopy(source) : shallowCopy(source);
+        }
+        if (isImmutable(type)) {
+            return source;
+        }
+        if (deep) {
+            return (T) new Context().copy(source);
+        }
+        T target = newInstance();
+        copy(instanceSteps, source, target, null);
+        return target;
+    }
+
+    /**
+     * Copies fields of the type which are neither static nor final
+     */
+    public void copyTo(@Nonnull T source, @Nonnull T target) {
+        if (!type.isInstance(source) || !type.isInstance(target)) {
+            throw new ClassCastException("Can't copy " + source.getClass().getName() + " to " +
+                                         target.getClass().getName() + " as " + type.getName());
+        }
+        copy(copyableSteps, source, target, deep ? new Context() : null);
+    }
+
+    @Override
+    public String toString() {
+        return (deep ? "Deep" : "Shallow") + " copier of " + type.getName();
+    }
+
+    private void copy(Step[] steps, Object source, Object target, @Nullable Context context) {
+        for (Step step : steps) {
+            step.copy(source, target, context);
+        }
+        if (hasFinalFields && steps == instanceSteps && UNSAFE != null) {
+            UNSAFE.storeFence();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        try {
+            if (constructor != null) {
+                return constructor.newInstance();
+            }
+            if (UNSAFE != null) {
+                return (T) UNSAFE.allocateInstance(type);
+            }
+            throw new InstantiationException(type.getName() + " has no default constructor");
+        }
+        catch (ReflectiveOperationException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+
+    private static Class<?> checkType(Class<?> type) {
+        if (type.isArray() || type.isPrimitive()) {
+            throw new IllegalArgumentException("Only objects are copied by the copier, not " + type);
+        }
+        return type;
+    }
+
+    private static @Nullable <T> Constructor<T> defaultConstructor(Class<T> type) {
+        try {
+            Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        }
+        catch (NoSuchMethodException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Copy of a single field
+     */
+    @FunctionalInterface
+    private interface Step {
+        void copy(Object source, Object target, @Nullable Context context);
+    }
+
+    private static Step step(Field field, boolean deep) {
+        Class<?> fieldType = field.getType();
+        if (UNSAFE == null) {
+            Field accessibleField = copyOf(field);
+            accessibleField.setAccessible(true);
+            FieldHandle<Object, Object> handle = new FieldHandle<>(accessibleField);
+            if (fieldType == int.class) {
+                return (source, target, context) -> handle.setInt(target, handle.getInt(source));
+            }
+            if (fieldType == long.class) {
+                return (source, target, context) -> handle.setLong(target, handle.getLong(source));
+            }
+            if (fieldType == double.class) {
+                return (source, target, context) -> handle.setDouble(target, handle.getDouble(source));
+            }
+            if (fieldType == boolean.class) {
+                return (source, target, context) -> handle.setBoolean(target, handle.getBoolean(source));
+            }
+            if (deep) {
+                return (source, target, context) -> handle.set(target, context.copy(handle.get(source)));
+            }
+            return (source, target, context) -> handle.set(target, handle.get(source));
+        }
+        long offset = UNSAFE.objectFieldOffset(field);
+        if (fieldType == int.class) {
+            return (source, target, context) -> UNSAFE.putInt(target, offset, UNSAFE.getInt(source, offset));
+        }
+        if (fieldType == long.class) {
+            return (source, target, context) -> UNSAFE.putLong(target, offset, UNSAFE.getLong(source, offset));
+        }
+        if (fieldType == double.class) {
+            return (source, target, context) -> UNSAFE.putDouble(target, offset, UNSAFE.getDouble(source, offset));
+        }
+        if (fieldType == float.class) {
+            return (source, target, context) -> UNSAFE.putFloat(target, offset, UNSAFE.getFloat(source, offset));
+        }
+        if (fieldType == boolean.class) {
+            return (source, target, context) -> UNSAFE.putBoolean(target, offset, UNSAFE.getBoolean(source, offset));
+        }
+        if (fieldType == byte.class) {
+            return (source, target, context) -> UNSAFE.putByte(target, offset, UNSAFE.getByte(source, offset));
+        }
+        if (fieldType == short.class) {
+            return (source, target, context) -> UNSAFE.putShort(target, offset, UNSAFE.getShort(source, offset));
+        }
+        if (fieldType == char.class) {
+            return (source, target, context) -> UNSAFE.putChar(target, offset, UNSAFE.getChar(source, offset));
+        }
+        if (deep) {
+            return (source, target, context) -> UNSAFE.putObject(target, offset,
+                                                                 context.copy(UNSAFE.getObject(source, offset)));
+        }
+        return (source, target, context) -> UNSAFE.putObject(target, offset, UNSAFE.getObject(source, offset));
+    }
+
+    private static Field copyOf(Field field) {
+        try {
+            return field.getDeclaringClass().getDeclaredField(field.getName());
+        }
+        catch (NoSuchFieldException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return IMMUTABLE.get(type);
+    }
+
+    /**
+     * Copies of the objects of a single deep copy, by identity of the originals
+     */
+    private static final class Context {
+
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        Object copy(@Nullable Object source) {
+            if (source == null) {
+                return null;
+            }
+            Class<?> sourceClass = source.getClass();
+            if (isImmutable(sourceClass)) {
+                return source;
+            }
+            Object copy = copies.get(source);
+            if (copy != null) {
+                return copy;
+            }
+            if (sourceClass.isArray()) {
+                int length = Array.getLength(source);
+                copy = Array.newInstance(sourceClass.getComponentType(), length);
+                copies.put(source, copy);
+                if (sourceClass.getComponentType().isPrimitive()) {
+                    System.arraycopy(source, 0, copy, 0, length);
+                }
+                else {
+                    Object[] sourceArray = (Object[]) source;
+                    Object[] copyArray = (Object[]) copy;
+                    for (int i = 0; i < length; i++) {
+                        copyArray[i] = copy(sourceArray[i]);
+                    }
+                }
+                return copy;
+            }
+            ObjectCopier<Object> copier = (ObjectCopier<Object>) DEEP.get(sourceClass);
+            copy = copier.newInstance();
+            copies.put(source, copy);
+            copier.copy(copier.instanceSteps, source, copy, this);
+            return copy;
+        }
+    }
+
+    private static final ClassValue<ObjectCopier<?>> SHALLOW = new ClassValue<ObjectCopier<?>>() {
+        @Override
+        protected ObjectCopier<?> computeValue(Class<?> type) {
+            return new ObjectCopier<>(type, false);
+        }
+    };
+
+    private static final ClassValue<ObjectCopier<?>> DEEP = new ClassValue<ObjectCopier<?>>() {
+        @Override
+        protected ObjectCopier<?> computeValue(Class<?> type) {
+            return new ObjectCopier<>(type, true);
+        }
+    };
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, BigInteger.class, BigDecimal.class, Class.class, UUID.class, Locale.class,
+            Currency.class, URI.class, Pattern.class, OptionalInt.class, OptionalLong.class, OptionalDouble.class,
+            TimePeriod.class, ModifierSet.class));
+
+    private static final ClassValue<Boolean> IMMUTABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isPrimitive()
+                   || type.isSynthetic()
+                   || IMMUTABLE_TYPES.contains(type)
+                   || Enum.class.isAssignableFrom(type)
+                   || ImmutableDate.class.isAssignableFrom(type)
+                   || type.getName().startsWith("java.time.") && Modifier.FINAL.presentIn(type.getModifiers());
+        }
+    };
+}
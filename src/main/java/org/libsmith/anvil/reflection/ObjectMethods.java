@@ -0,0 +1,632 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import static org.libsmith.anvil.reflection.FieldHandle.UNSAFE;
+
+/**
+ * Field based {@code equals}, {@code hashCode} and {@code toString} of a class, compiled once from its field set.
+ * By default the fields are instance fields of the class and its superclasses which are neither transient nor
+ * synthetic, in declaration order starting from the topmost superclass. Primitive fields are compared and
+ * hashed without boxing, arrays by their content.
+ * <p>
+ * Instances are equal if they are of the same class and their fields are equal, hash code is computed like
+ * {@link Objects#hash} of the field values. {@link #wrap} adapts the instance to hash based collections,
+ * {@link #comparator()} orders instances by their fields, which must be primitive or {@link Comparable}.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 23.10.26 15:20
+ */
+public final class ObjectMethods<T> implements BiPredicate<T, T>, ToIntFunction<T> {
+
+    private static final Predicate<Field> DEFAULT_FIELDS = field -> !Modifier.STATIC.presentIn(field)
+                                                                 && !Modifier.TRANSIENT.presentIn(field)
+                                                                 && !field.isSynthetic();
+
+    private final Class<T> type;
+    private final Part[] parts;
+
+    private ObjectMethods(Class<T> type, Predicate<Field> fieldFilter) {
+        this.type = type;
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> declaringClass = type; declaringClass != null && declaringClass != Object.class;
+                declaringClass = declaringClass.getSuperclass()) {
+            hierarchy.add(0, declaringClass);
+        }
+        List<Part> parts = new ArrayList<>();
+        for (Class<?> declaringClass : hierarchy) {
+            for (Field field : declaringClass.getDeclaredFields()) {
+                if (!Modifier.STATIC.presentIn(field) && fieldFilter.test(field)) {
+                    parts.add(part(field));
+                }
+            }
+        }
+        this.parts = parts.toArray(new Part[parts.size()]);
+    }
+
+    /**
+     * @return process wide methods of the type with the default field set
+     */
+    @SuppressWarnings("unchecked")
+    public static @Nonnull <T> ObjectMethods<T> of(@Nonnull Class<T> type) {
+        return (ObjectMethods<T>) SHARED_INSTANCES.get(type);
+    }
+
+    /**
+     * Unlike {@link #of(Class)}, methods are not cached, create them once and keep
+     *
+     * @param fieldFilter instance fields taken into account, static fields are never used
+     */
+    public static @Nonnull <T> ObjectMethods<T> of(@Nonnull Class<T> type, @Nonnull Predicate<Field> fieldFilter) {
+        return new ObjectMethods<>(type, fieldFilter);
+    }
+
+    public @Nonnull Class<T> getType() {
+        return type;
+    }
+
+    public boolean equals(@Nullable T object, @Nullable Object other) {
+        if (object == other) {
+            return true;
+        }
+        if (object == null || other == null || object.getClass() != other.getClass()) {
+            return false;
+        }
+        checkInstance(object);
+        for (Part part : parts) {
+            if (!part.equal(object, other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int hashCode(@Nullable T object) {
+        if (object == null) {
+            return 0;
+        }
+        checkInstance(object);
+        int hashCode = 1;
+        for (Part part : parts) {
+            hashCode = 31 * hashCode + part.hash(object);
+        }
+        return hashCode;
+    }
+
+    /**
+     * @return {@code SimpleName{field=value, ...}}
+     */
+    public @Nonnull String toString(@Nullable T object) {
+        if (object == null) {
+            return "null";
+        }
+        checkInstance(object);
+        StringBuilder sb = new StringBuilder(object.getClass().getSimpleName()).append('{');
+        for (int i = 0; i < parts.length; i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append(parts[i].name).append('=');
+            parts[i].append(sb, object);
+        }
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public boolean test(T object, T other) {
+        return equals(object, other);
+    }
+
+    @Override
+    public int applyAsInt(T object) {
+        return hashCode(object);
+    }
+
+    /**
+     * @return comparator ordering instances by fields in the order of declaration, {@code null} first
+     */
+    public @Nonnull Comparator<T> comparator() {
+        return (object, other) -> {
+            if (object == other) {
+                return 0;
+            }
+            if (object == null || other == null) {
+                return object == null ? -1 : 1;
+            }
+            checkInstance(object);
+            checkInstance(other);
+            for (Part part : parts) {
+                int result = part.compare(object, other);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * @return wrapper of the instance, which {@code equals} and {@code hashCode} are of these methods
+     */
+    public @Nonnull Wrapper<T> wrap(@Nullable T object) {
+        return new Wrapper<>(this, object);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner fields = new StringJoiner(", ", "[", "]");
+        for (Part part : parts) {
+            fields.add(part.name);
+        }
+        return getClass().getSimpleName() + " of " + type.getName() + fields;
+    }
+
+    private void checkInstance(Object object) {
+        if (!type.isInstance(object)) {
+            throw new ClassCastException(object.getClass().getName() + " is not " + type.getName());
+        }
+    }
+
+    /**
+     * Instance with equality of {@link ObjectMethods}, for hash based collections
+     */
+    public static final class Wrapper<T> {
+
+        private final ObjectMethods<T> methods;
+        private final @Nullable T object;
+        private final int hashCode;
+
+        private Wrapper(ObjectMethods<T> methods, @Nullable T object) {
+            this.methods = methods;
+            this.object = object;
+            this.hashCode = methods.hashCode(object);
+        }
+
+        public @Nullable T get() {
+            return object;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Wrapper)) {
+                return false;
+            }
+            Wrapper<?> that = (Wrapper<?>) other;
+            return methods == that.methods && hashCode == that.hashCode && methods.equals(object, that.object);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return methods.toString(object);
+        }
+    }
+
+    //<editor-fold desc="Parts">
+    private static Part part(Field field) {
+        Class<?> fieldType = field.getType();
+        if (UNSAFE == null) {
+            Field accessibleField;
+            try {
+                accessibleField = field.getDeclaringClass().getDeclaredField(field.getName());
+            }
+            catch (NoSuchFieldException ex) {
+                throw ReflectiveOperationRuntimeException.translate(ex);
+            }
+            accessibleField.setAccessible(true);
+            return new HandlePart(field.getName(), new FieldHandle<>(accessibleField));
+        }
+        long offset = UNSAFE.objectFieldOffset(field);
+        String name = field.getName();
+        if (fieldType == int.class) {
+            return new IntPart(name, offset);
+        }
+        if (fieldType == long.class) {
+            return new LongPart(name, offset);
+        }
+        if (fieldType == double.class) {
+            return new DoublePart(name, offset);
+        }
+        if (fieldType == float.class) {
+            return new FloatPart(name, offset);
+        }
+        if (fieldType == boolean.class) {
+            return new BooleanPart(name, offset);
+        }
+        if (fieldType == byte.class || fieldType == short.class || fieldType == char.class) {
+            return new SmallPart(name, offset, fieldType);
+        }
+        return new ObjectPart(name, offset);
+    }
+
+    /**
+     * Field of the methods, objects are already checked to be instances of the type
+     */
+    private abstract static class Part {
+
+        final String name;
+
+        Part(String name) {
+            this.name = name;
+        }
+
+        abstract boolean equal(Object object, Object other);
+
+        abstract int hash(Object object);
+
+        abstract void append(StringBuilder sb, Object object);
+
+        abstract int compare(Object object, Object other);
+    }
+
+    private static final class IntPart extends Part {
+
+        private final long offset;
+
+        IntPart(String name, long offset) {
+            super(name);
+            this.offset = offset;
+        }
+
+        @Override
+        boolean equal(Object object, Object other) {
+            return UNSAFE.getInt(object, offset) == UNSAFE.getInt(other, offset);
+        }
+
+        @Override
+        int hash(Object object) {
+            return UNSAFE.getInt(object, offset);
+        }
+
+        @Override
+        void append(StringBuilder sb, Object object) {
+            sb.append(UNSAFE.getInt(object, offset));
+        }
+
+        @Override
+        int compare(Object object, Object other) {
+            return Integer.compare(UNSAFE.getInt(object, offset), UNSAFE.getInt(other, offset));
+        }
+    }
+
+    private static final class LongPart extends Part {
+
+        private final long offset;
+
+        LongPart(String name, long offset) {
+            super(name);
+            this.offset = offset;
+        }
+
+        @Override
+        boolean equal(Object object, Object other) {
+            return UNSAFE.getLong(object, offset) == UNSAFE.getLong(other, offset);
+        }
+
+        @Override
+        int hash(Object object) {
+            return Long.hashCode(UNSAFE.getLong(object, offset));
+        }
+
+        @Override
+        void append(StringBuilder sb, Object object) {
+            sb.append(UNSAFE.getLong(object, offset));
+        }
+
+        @Override
+        int compare(Object object, Object other) {
+            return Long.compare(UNSAFE.getLong(object, offset), UNSAFE.getLong(other, offset));
+        }
+    }
+
+    /**
+     * Compared like {@link Double#equals}, so {@code NaN} equals itself
+     */
+    private static final class DoublePart extends Part {
+
+        private final long offset;
+
+        DoublePart(String name, long offset) {
+            super(name);
+            this.offset = offset;
+        }
+
+        @Override
+        boolean equal(Object object, Object other) {
+            return Double.doubleToLongBits(UNSAFE.getDouble(object, offset))
+                    == Double.doubleToLongBits(UNSAFE.getDouble(other, offset));
+        }
+
+        @Override
+        int hash(Object object) {
+            return Double.hashCode(UNSAFE.getDouble(object, offset));
+        }
+
+        @Override
+        void append(StringBuilder sb, Object object) {
+            sb.append(UNSAFE.getDouble(object, offset));
+        }
+
+        @Override
+        int compare(Object object, Object other) {
+            return Double.compare(UNSAFE.getDouble(object, offset), UNSAFE.getDouble(other, offset));
+        }
+    }
+
+    private static final class FloatPart extends Part {
+
+        private final long offset;
+
+        FloatPart(String name, long offset) {
+            super(name);
+            this.offset = offset;
+        }
+
+        @Override
+        boolean equal(Object object, Object other) {
+            return Float.floatToIntBits(UNSAFE.getFloat(object, offset))
+                    == Float.floatToIntBits(UNSAFE.getFloat(other, offset));
+        }
+
+        @Override
+        int hash(Object object) {
+            return Float.hashCode(UNSAFE.getFloat(object, offset));
+        }
+
+        @Override
+        void append(StringBuilder sb, Object object) {
+            sb.append(UNSAFE.getFloat(object, offset));
+        }
+
+        @Override
+        int compare(Object object, Object other) {
+            return Float.compare(UNSAFE.getFloat(object, offset), UNSAFE.getFloat(other, offset));
+        }
+    }
+
+    private static final class BooleanPart extends Part {
+
+        private final long offset;
+
+        BooleanPart(String name, long offset) {
+            super(name);
+            this.offset = offset;
+        }
+
+        @Override
+        boolean equal(Object object, Object other) {
+            return UNSAFE.getBoolean(object, offset) == UNSAFE.getBoolean(other, offset);
+        }
+
+        @Override
+        int hash(Object object) {
+            return Boolean.hashCode(UNSAFE.getBoolean(object, offset));
+        }
+
+        @Override
+        void append(StringBuilder sb, Object object) {
+            sb.append(UNSAFE.getBoolean(object, offset));
+        }
+
+        @Override
+        int compare(Object object, Object other) {
+            return Boolean.compare(UNSAFE.getBoolean(object, offset), UNSAFE.getBoolean(other, offset));
+        }
+    }
+
+    /**
+     * {@code byte}, {@code short} and {@code char} fields, hashed like their boxes
+     */
+    private static final class SmallPart extends Part {
+
+        private final long offset;
+        private final Class<?> fieldType;
+
+        SmallPart(String name, long offset, Class<?> fieldType) {
+            super(name);
+            this.offset = offset;
+            this.fieldType = fieldType;
+        }
+
+        private int get(Object object) {
+            if (fieldType == byte.class) {
+                return UNSAFE.getByte(object, offset);
+            }
+            if (fieldType == short.class) {
+                return UNSAFE.getShort(object, offset);
+            }
+            return UNSAFE.getChar(object, offset);
+        }
+
+        @Override
+        boolean equal(Object object, Object other) {
+            return get(object) == get(other);
+        }
+
+        @Override
+        int hash(Object object) {
+            return get(object);
+        }
+
+        @Override
+        void append(StringBuilder sb, Object object) {
+            if (fieldType == char.class) {
+                sb.append((char) get(object));
+            }
+            else {
+                sb.append(get(object));
+            }
+        }
+
+        @Override
+        int compare(Object object, Object other) {
+            return Integer.compare(get(object), get(other));
+        }
+    }
+
+    private static final class ObjectPart extends Part {
+
+        private final long offset;
+
+        ObjectPart(String name, long offset) {
+            super(name);
+            this.offset = offset;
+        }
+
+        @Override
+        boolean equal(Object object, Object other) {
+            return Objects.deepEquals(UNSAFE.getObject(object, offset), UNSAFE.getObject(other, offset));
+        }
+
+        @Override
+        int hash(Object object) {
+            return valueHash(UNSAFE.getObject(object, offset));
+        }
+
+        @Override
+        void append(StringBuilder sb, Object object) {
+            appendValue(sb, UNSAFE.getObject(object, offset));
+        }
+
+        @Override
+        int compare(Object object, Object other) {
+            return compareValues(UNSAFE.getObject(object, offset), UNSAFE.getObject(other, offset));
+        }
+    }
+
+    /**
+     * Field read through {@link FieldHandle} where {@code Unsafe} is not available, primitives are boxed
+     */
+    private static final class HandlePart extends Part {
+
+        private final FieldHandle<Object, Object> handle;
+
+        HandlePart(String name, FieldHandle<Object, Object> handle) {
+            super(name);
+            this.handle = handle;
+        }
+
+        @Override
+        boolean equal(Object object, Object other) {
+            return Objects.deepEquals(handle.get(object), handle.get(other));
+        }
+
+        @Override
+        int hash(Object object) {
+            return valueHash(handle.get(object));
+        }
+
+        @Override
+        void append(StringBuilder sb, Object object) {
+            appendValue(sb, handle.get(object));
+        }
+
+        @Override
+        int compare(Object object, Object other) {
+            return compareValues(handle.get(object), handle.get(other));
+        }
+    }
+
+    private static int valueHash(@Nullable Object value) {
+        if (value == null) {
+            return 0;
+        }
+        Class<?> valueClass = value.getClass();
+        if (!valueClass.isArray()) {
+            return value.hashCode();
+        }
+        if (value instanceof Object[]) {
+            return Arrays.deepHashCode((Object[]) value);
+        }
+        if (valueClass == int[].class) {
+            return Arrays.hashCode((int[]) value);
+        }
+        if (valueClass == long[].class) {
+            return Arrays.hashCode((long[]) value);
+        }
+        if (valueClass == double[].class) {
+            return Arrays.hashCode((double[]) value);
+        }
+        if (valueClass == float[].class) {
+            return Arrays.hashCode((float[]) value);
+        }
+        if (valueClass == boolean[].class) {
+            return Arrays.hashCode((boolean[]) value);
+        }
+        if (valueClass == byte[].class) {
+            return Arrays.hashCode((byte[]) value);
+        }
+        if (valueClass == short[].class) {
+            return Arrays.hashCode((short[]) value);
+        }
+        return Arrays.hashCode((char[]) value);
+    }
+
+    private static void appendValue(StringBuilder sb, @Nullable Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            sb.append(value);
+        }
+        else if (value instanceof Object[]) {
+            sb.append(Arrays.deepToString((Object[]) value));
+        }
+        else if (value instanceof int[]) {
+            sb.append(Arrays.toString((int[]) value));
+        }
+        else if (value instanceof long[]) {
+            sb.append(Arrays.toString((long[]) value));
+        }
+        else if (value instanceof double[]) {
+            sb.append(Arrays.toString((double[]) value));
+        }
+        else if (value instanceof float[]) {
+            sb.append(Arrays.toString((float[]) value));
+        }
+        else if (value instanceof boolean[]) {
+            sb.append(Arrays.toString((boolean[]) value));
+        }
+        else if (value instanceof byte[]) {
+            sb.append(Arrays.toString((byte[]) value));
+        }
+        else if (value instanceof short[]) {
+            sb.append(Arrays.toString((short[]) value));
+        }
+        else {
+            sb.append(Arrays.toString((char[]) value));
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compareValues(@Nullable Object value, @Nullable Object other) {
+        if (value == other) {
+            return 0;
+        }
+        if (value == null || other == null) {
+            return value == null ? -1 : 1;
+        }
+        if (!(value instanceof Comparable)) {
+            throw new ClassCastException(value.getClass().getName() + " is not comparable");
+        }
+        return ((Comparable) value).compareTo(other);
+    }
+    //</editor-fold>
+
+    private static final ClassValue<ObjectMethods<?>> SHARED_INSTANCES = new ClassValue<ObjectMethods<?>>() {
+        @Override
+        protected ObjectMethods<?> computeValue(Class<?> type) {
+            return new ObjectMethods<>(type, DEFAULT_FIELDS);
+        }
+    };
+}
@@ -0,0 +1,313 @@
+package org.libsmith.anvil.reflection;
+
+import org.libsmith.anvil.time.ImmutableDate;
+import org.libsmith.anvil.time.TimePeriod;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.TemporalAmount;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Conversion of raw {@link DynamicBean} property values, usually strings from the configuration source, into
+ * the type of the getter. Numbers are converted exactly, time periods and dates given as numbers are taken
+ * as milliseconds, lists are accepted as collections, arrays or comma separated strings. Collections that need no
+ * element conversion are returned as is, so the getter sees the backing collection and its later changes.
+ * <p>
+ * {@link Memo} keeps the last converted value, so repeated reads of unchanged property don't parse it again.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 20.10.26 11:05
+ */
+final class PropertyConversion {
+
+    private PropertyConversion()
+    { }
+
+    /**
+     * @return conversion into the type, or {@code null} if values of the type are returned as is
+     */
+    static @Nullable Function<Object, Object> of(@Nonnull Type type) {
+        Class<?> rawType = rawType(type);
+        if (rawType == List.class || rawType == Collection.class || rawType == Iterable.class) {
+            Type elementType = type instanceof ParameterizedType
+                               ? ((ParameterizedType) type).getActualTypeArguments()[0]
+                               : Object.class;
+            Function<Object, Object> elementConversion = of(elementType);
+            Class<?> collectionType = rawType;
+            return value -> elementConversion == null && collectionType.isInstance(value)
+                            ? value
+                            : toList(value, elementConversion);
+        }
+        if (rawType.isPrimitive()) {
+            rawType = wrap(rawType);
+        }
+        Class<?> targetType = rawType;
+        if (targetType == Boolean.class) {
+            return PropertyConversion::toBoolean;
+        }
+        if (targetType == Character.class) {
+            return PropertyConversion::toCharacter;
+        }
+        if (targetType == Integer.class || targetType == Long.class || targetType == Short.class ||
+                targetType == Byte.class || targetType == Double.class || targetType == Float.class ||
+                targetType == BigDecimal.class || targetType == BigInteger.class) {
+            return value -> toNumber(value, targetType);
+        }
+        if (targetType.isEnum()) {
+            return value -> toEnum(value, targetType);
+        }
+        if (targetType == TimePeriod.class) {
+            return PropertyConversion::toTimePeriod;
+        }
+        if (targetType == ImmutableDate.class) {
+            return PropertyConversion::toImmutableDate;
+        }
+        return null;
+    }
+
+    /**
+     * @return type of the property value read by the getter
+     */
+    static @Nonnull Type valueType(@Nonnull Method getter) {
+        Type type = getter.getGenericReturnType();
+        if (getter.getReturnType() == Optional.class) {
+            return type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[0]
+                                                     : Object.class;
+        }
+        return type;
+    }
+
+    /**
+     * Last converted value of the property. Valid while the map returns the same raw value, or while the
+     * version of {@link DynamicBean.Versioned} map stays the same, in which case the map is not even queried.
+     */
+    static final class Memo {
+
+        static final String METRICS_NAME = "DynamicBean property conversions";
+
+        private final Function<Object, Object> conversion;
+        private volatile Entry last;
+
+        Memo(@Nonnull Function<Object, Object> conversion) {
+            this.conversion = conversion;
+        }
+
+        Object get(@Nonnull Map<?, ?> properties, @Nonnull Object key) {
+            Entry entry = last;
+            boolean versioned = properties instanceof DynamicBean.Versioned;
+            long version = versioned ? ((DynamicBean.Versioned) properties).getVersion() : 0;
+            ReflectionMetrics.CacheCounter counter = ReflectionMetrics.cacheCounter(METRICS_NAME);
+            if (versioned && entry != null && entry.properties == properties && entry.version == version) {
+                if (counter != null) {
+                    counter.hit();
+                }
+                return entry.converted;
+            }
+            Object raw = properties.get(key);
+            if (entry != null && entry.raw == raw) {
+                if (versioned) {
+                    last = new Entry(properties, version, raw, entry.converted);
+                }
+                if (counter != null) {
+                    counter.hit();
+                }
+                return entry.converted;
+            }
+            if (counter != null) {
+                counter.miss();
+            }
+            Object converted = raw == null ? null : conversion.apply(raw);
+            last = new Entry(properties, version, raw, converted);
+            return converted;
+        }
+
+        private static final class Entry {
+
+            private final Map<?, ?> properties;
+            private final long version;
+            private final Object raw;
+            private final Object converted;
+
+            private Entry(Map<?, ?> properties, long version, Object raw, Object converted) {
+                this.properties = properties;
+                this.version = version;
+                this.raw = raw;
+                this.converted = converted;
+            }
+        }
+    }
+
+    /**
+     * {@link Boolean#parseBoolean} semantics: anything but {@code "true"} in any case is {@code false}
+     */
+    private static Boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return Boolean.parseBoolean(value.toString());
+    }
+
+    private static Character toCharacter(Object value) {
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        String string = value.toString();
+        if (string.length() != 1) {
+            throw cantConvert(value, Character.class, null);
+        }
+        return string.charAt(0);
+    }
+
+    private static Object toNumber(Object value, Class<?> targetType) {
+        if (targetType.isInstance(value)) {
+            return value;
+        }
+        if (!(value instanceof Number) && !(value instanceof CharSequence)) {
+            throw cantConvert(value, targetType, null);
+        }
+        try {
+            if (targetType == Double.class) {
+                return value instanceof Number ? ((Number) value).doubleValue()
+                                               : Double.parseDouble(value.toString().trim());
+            }
+            if (targetType == Float.class) {
+                return value instanceof Number ? ((Number) value).floatValue()
+                                               : Float.parseFloat(value.toString().trim());
+            }
+            BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value
+                                                             : new BigDecimal(value.toString().trim());
+            if (targetType == Integer.class) {
+                return decimal.intValueExact();
+            }
+            if (targetType == Long.class) {
+                return decimal.longValueExact();
+            }
+            if (targetType == Short.class) {
+                return decimal.shortValueExact();
+            }
+            if (targetType == Byte.class) {
+                return decimal.byteValueExact();
+            }
+            if (targetType == BigInteger.class) {
+                return decimal.toBigIntegerExact();
+            }
+            return decimal;
+        }
+        catch (ArithmeticException | NumberFormatException ex) {
+            throw cantConvert(value, targetType, ex);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object toEnum(Object value, Class<?> targetType) {
+        if (targetType.isInstance(value)) {
+            return value;
+        }
+        String name = value.toString().trim();
+        try {
+            return Enum.valueOf((Class<? extends Enum>) targetType, name);
+        }
+        catch (IllegalArgumentException ex) {
+            for (Object constant : targetType.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equalsIgnoreCase(name)) {
+                    return constant;
+                }
+            }
+            throw cantConvert(value, targetType, ex);
+        }
+    }
+
+    private static TimePeriod toTimePeriod(Object value) {
+        if (value instanceof TemporalAmount) {
+            return TimePeriod.of((TemporalAmount) value);
+        }
+        if (value instanceof Number) {
+            return TimePeriod.ofMillis(((Number) value).longValue());
+        }
+        try {
+            return TimePeriod.parse(value.toString());
+        }
+        catch (IllegalArgumentException ex) {
+            throw cantConvert(value, TimePeriod.class, ex);
+        }
+    }
+
+    private static ImmutableDate toImmutableDate(Object value) {
+        if (value instanceof Date) {
+            return ImmutableDate.of((Date) value);
+        }
+        if (value instanceof Instant) {
+            return new ImmutableDate(((Instant) value).toEpochMilli());
+        }
+        if (value instanceof Number) {
+            return new ImmutableDate(((Number) value).longValue());
+        }
+        String string = value.toString().trim();
+        try {
+            return new ImmutableDate(string.chars().allMatch(Character::isDigit) && !string.isEmpty()
+                                     ? Long.parseLong(string)
+                                     : Instant.parse(string).toEpochMilli());
+        }
+        catch (RuntimeException ex) {
+            throw cantConvert(value, ImmutableDate.class, ex);
+        }
+    }
+
+    private static List<Object> toList(Object value, @Nullable Function<Object, Object> elementConversion) {
+        Collection<?> elements;
+        if (value instanceof Collection) {
+            elements = (Collection<?>) value;
+        }
+        else if (value.getClass().isArray()) {
+            Object[] array = new Object[Array.getLength(value)];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = Array.get(value, i);
+            }
+            elements = Arrays.asList(array);
+        }
+        else if (value instanceof CharSequence) {
+            String string = value.toString().trim();
+            elements = string.isEmpty() ? Collections.emptyList() : Arrays.asList(string.split("\\s*,\\s*"));
+        }
+        else {
+            elements = Collections.singletonList(value);
+        }
+        List<Object> list = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+            list.add(element == null || elementConversion == null ? element : elementConversion.apply(element));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return rawType(((ParameterizedType) type).getRawType());
+        }
+        if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Class<?> wrap(Class<?> primitiveType) {
+        return MethodType.methodType(primitiveType).wrap().returnType();
+    }
+
+    private static IllegalArgumentException cantConvert(Object value, Class<?> targetType, @Nullable Throwable cause) {
+        return new IllegalArgumentException("Can't convert '" + value + "' to " + targetType.getSimpleName(), cause);
+    }
+}
@@ -0,0 +1,246 @@
+package org.libsmith.anvil.reflection;
+
+import org.libsmith.anvil.reflection.DynamicBean.Namespace;
+import org.libsmith.anvil.reflection.DynamicBean.Property;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Conversion between objects and property maps of {@link DynamicBean}, with the plan compiled once per class.
+ * Properties are instance fields of the class and its superclasses which are neither transient nor synthetic,
+ * fields are accessed through {@link FieldHandle}.
+ * <p>
+ * Property is named after the field, or by {@link Property} of the field or of its getter. Names are prefixed
+ * by {@link Namespace} of the getter or of the class, like {@link DynamicBean} does for interface methods.
+ * Map values are converted into field types like {@link DynamicBean} getters do, keys not described by the
+ * class are ignored, {@code null} resets primitive fields to zero. Final fields are read, but never written.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 24.10.26 11:10
+ */
+public final class PropertyMapper<T> {
+
+    private final Class<T> type;
+    private final Slot[] slots;
+    private final Map<String, Slot> slotsByName;
+    private final @Nullable Constructor<T> constructor;
+
+    private PropertyMapper(Class<T> type, @Nullable Namespace defaultNamespace) {
+        this.type = type;
+        AnnotationIndex annotations = ClassReflection.of(type).getAnnotationIndex();
+        Namespace classNamespace = annotations.getAnnotation(Namespace.class);
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> declaringClass = type; declaringClass != null && declaringClass != Object.class;
+                declaringClass = declaringClass.getSuperclass()) {
+            hierarchy.add(0, declaringClass);
+        }
+        Map<String, Slot> slotsByName = new LinkedHashMap<>();
+        for (Class<?> declaringClass : hierarchy) {
+            for (Field field : declaringClass.getDeclaredFields()) {
+                if (Modifier.STATIC.presentIn(field) || Modifier.TRANSIENT.presentIn(field) || field.isSynthetic()) {
+                    continue;
+                }
+                Method getter = getter(type, field);
+                Property property = annotations.getAnnotation(field, Property.class);
+                if (property == null && getter != null) {
+                    property = annotations.getAnnotation(getter, Property.class);
+                }
+                Namespace namespace = getter == null ? null : annotations.getAnnotation(getter, Namespace.class);
+                if (namespace == null) {
+                    namespace = classNamespace != null ? classNamespace : defaultNamespace;
+                }
+                String name = DynamicBean.Impl.namespaced(
+                        namespace, declaringClass,
+                        property == null || property.name().isEmpty() ? field.getName() : property.name());
+                Slot previous = slotsByName.put(name, new Slot(name, field));
+                if (previous != null) {
+                    throw new IllegalArgumentException("Property '" + name + "' is mapped to both " +
+                                                       previous.field + " and " + field);
+                }
+            }
+        }
+        this.slotsByName = Collections.unmodifiableMap(slotsByName);
+        this.slots = slotsByName.values().toArray(new Slot[slotsByName.size()]);
+        this.constructor = defaultConstructor(type);
+    }
+
+    /**
+     * @return process wide mapper of the class
+     */
+    @SuppressWarnings("unchecked")
+    public static @Nonnull <T> PropertyMapper<T> of(@Nonnull Class<T> type) {
+        return (PropertyMapper<T>) SHARED_INSTANCES.get(type);
+    }
+
+    /**
+     * Unlike {@link #of(Class)}, the mapper is not cached, create it once and keep
+     *
+     * @param defaultNamespace namespace of properties of the class without {@link Namespace}
+     */
+    public static @Nonnull <T> PropertyMapper<T> of(@Nonnull Class<T> type, @Nullable Namespace defaultNamespace) {
+        return new PropertyMapper<>(type, defaultNamespace);
+    }
+
+    public @Nonnull Class<T> getType() {
+        return type;
+    }
+
+    public @Nonnull Set<String> getPropertyNames() {
+        return slotsByName.keySet();
+    }
+
+    //<editor-fold desc="Object to map">
+    public @Nonnull Map<String, Object> toMap(@Nonnull T object) {
+        Map<String, Object> map = new LinkedHashMap<>(slots.length * 4 / 3 + 1);
+        toMap(object, map);
+        return map;
+    }
+
+    /**
+     * Puts all the properties of the object into the map, {@code null} values included
+     */
+    public void toMap(@Nonnull T object, @Nonnull Map<? super String, Object> map) {
+        checkInstance(object);
+        for (Slot slot : slots) {
+            map.put(slot.name, slot.handle.get(object));
+        }
+    }
+
+    /**
+     * @return bean over a new map of the object properties
+     */
+    public @Nonnull DynamicBean toBean(@Nonnull T object) {
+        return DynamicBean.of(toMap(object));
+    }
+
+    public @Nonnull Stream<Map<String, Object>> toMaps(@Nonnull Stream<? extends T> objects) {
+        return objects.map(this::toMap);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Map to object">
+    /**
+     * @return new instance created by the default constructor with properties of the map
+     */
+    public @Nonnull T fromMap(@Nonnull Map<? super String, ?> map) {
+        T object = newInstance();
+        fromMap(map, object);
+        return object;
+    }
+
+    /**
+     * Sets fields of the properties present in the map, other fields are left as is
+     *
+     * @throws IllegalArgumentException if a value can't be converted into the field type
+     */
+    public void fromMap(@Nonnull Map<? super String, ?> map, @Nonnull T object) {
+        checkInstance(object);
+        for (Slot slot : slots) {
+            if (slot.writable) {
+                Object value = map.get(slot.name);
+                if (value != null || map.containsKey(slot.name)) {
+                    slot.handle.set(object, slot.convert(value));
+                }
+            }
+        }
+    }
+
+    public @Nonnull Stream<T> fromMaps(@Nonnull Stream<? extends Map<? super String, ?>> maps) {
+        return maps.map(this::fromMap);
+    }
+    //</editor-fold>
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "<" + type.getName() + ">" + slotsByName.keySet();
+    }
+
+    private void checkInstance(Object object) {
+        if (!type.isInstance(object)) {
+            throw new ClassCastException(object.getClass().getName() + " is not " + type.getName());
+        }
+    }
+
+    private T newInstance() {
+        if (constructor == null) {
+            throw new UnsupportedOperationException(type.getName() + " has no default constructor");
+        }
+        try {
+            return constructor.newInstance();
+        }
+        catch (ReflectiveOperationException ex) {
+            throw ReflectiveOperationRuntimeException.translate(ex);
+        }
+    }
+
+    private static @Nullable Method getter(Class<?> type, Field field) {
+        String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        for (String prefix : field.getType() == boolean.class ? new String[] { "is", "get" } : new String[] { "get" }) {
+            Optional<Method> getter = ClassReflection.of(type).getMethodOp(prefix + suffix);
+            if (getter.isPresent()) {
+                return getter.get();
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable <T> Constructor<T> defaultConstructor(Class<T> type) {
+        try {
+            Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        }
+        catch (NoSuchMethodException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    private static final class Slot {
+
+        private final String name;
+        private final Field field;
+        private final FieldHandle<Object, Object> handle;
+        private final boolean writable;
+        private final @Nullable Function<Object, Object> conversion;
+        private final @Nullable Object zero;
+
+        private Slot(String name, Field field) {
+            this.name = name;
+            this.field = field;
+            Field accessibleField;
+            try {
+                accessibleField = field.getDeclaringClass().getDeclaredField(field.getName());
+            }
+            catch (NoSuchFieldException ex) {
+                throw ReflectiveOperationRuntimeException.translate(ex);
+            }
+            accessibleField.setAccessible(true);
+            this.handle = new FieldHandle<>(accessibleField);
+            this.writable = !Modifier.FINAL.presentIn(field);
+            Class<?> fieldType = field.getType();
+            this.conversion = PropertyConversion.of(field.getGenericType());
+            this.zero = fieldType.isPrimitive() ? DynamicBeanClass.unpack(fieldType, 0) : null;
+        }
+
+        private Object convert(@Nullable Object value) {
+            if (value == null) {
+                return zero;
+            }
+            return conversion == null ? value : conversion.apply(value);
+        }
+    }
+
+    private static final ClassValue<PropertyMapper<?>> SHARED_INSTANCES = new ClassValue<PropertyMapper<?>>() {
+        @Override
+        protected PropertyMapper<?> computeValue(Class<?> type) {
+            return new PropertyMapper<>(type, null);
+        }
+    };
+}
@@ -0,0 +1,499 @@
+package org.libsmith.anvil.reflection;
+
+import org.libsmith.anvil.reflection.CachedProxy.Eviction;
+import org.libsmith.anvil.reflection.CachedProxy.Policy;
+import org.libsmith.anvil.reflection.CachedProxy.Stats;
+import org.libsmith.anvil.reflection.CachedProxy.ValueStrength;
+import org.libsmith.anvil.time.TimePeriod;
+import org.libsmith.anvil.time.TimeSource;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent cache with single-flight loading behind {@link CachedProxy}.
+ * <p>
+ * Entries live in a concurrent map, hits do not lock. Size and expiration policies keep an access ordered index
+ * of loaded entries under a lock, which is taken on every load but only tried on hits, so under contention
+ * the recency order is approximate. Expired and collected entries are removed lazily on access and from the
+ * eldest end of the index on loads.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 18.10.26 16:40
+ */
+final class ProxyCache<K> {
+
+    private static final Object NULL = new Object();
+
+    private final boolean async;
+    private final long refreshAfterWriteNanos;
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final ValueStrength values;
+    private final TimeSource timeSource;
+
+    private final @Nullable ConcurrentMap<K, Node<K>> map;
+    private final @Nullable AtomicReference<Node<K>> slot;
+    private final @Nullable LinkedHashMap<K, Node<K>> order;
+    private final ReentrantLock orderLock = new ReentrantLock();
+    private final @Nullable FrequencySketch sketch;
+    private final @Nullable ReferenceQueue<Object> collected;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    /**
+     * @param singleSlot when set, the cache holds at most one entry whatever the key is, the size limit
+     *                   does not apply. Used to memoize methods without arguments.
+     * @param async when set, loaded values are expected to be {@code CompletableFuture}. An entry is dropped
+     *              when its future completes exceptionally, expiration counts from the completion, and
+     *              the entry is reloaded in background once it is older than refresh period of the policy.
+     */
+    ProxyCache(@Nonnull Policy policy, boolean singleSlot, boolean async) {
+        this.async = async;
+        this.refreshAfterWriteNanos = async ? toNanos(policy.getRefreshAfterWrite()) : 0;
+        this.map = singleSlot ? null : new ConcurrentHashMap<>();
+        this.slot = singleSlot ? new AtomicReference<>() : null;
+        this.maximumSize = singleSlot ? Long.MAX_VALUE : policy.getMaximumSize();
+        this.expireAfterWriteNanos = toNanos(policy.getExpireAfterWrite());
+        this.expireAfterAccessNanos = toNanos(policy.getExpireAfterAccess());
+        this.values = policy.getValues();
+        this.timeSource = policy.getTimeSource();
+        boolean bounded = maximumSize != Long.MAX_VALUE;
+        this.order = !singleSlot && (bounded || expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0)
+                     ? new LinkedHashMap<>(16, 0.75f, true)
+                     : null;
+        this.sketch = bounded && policy.getEviction() == Eviction.TINY_LFU ? new FrequencySketch(maximumSize) : null;
+        this.collected = values == ValueStrength.STRONG ? null : new ReferenceQueue<>();
+    }
+
+    Object get(@Nonnull K key, Object[] args, @Nonnull Loader loader) throws Throwable {
+        if (sketch != null) {
+            sketch.increment(key.hashCode());
+        }
+        while (true) {
+            Node<K> node = lookup(key);
+            if (node != null) {
+                FutureTask<Object> loading = node.loading;
+                if (loading != null) {
+                    hitCount.increment();
+                    return await(node, loading);
+                }
+                long now = expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0 || refreshAfterWriteNanos > 0
+                           ? now() : 0;
+                Object value = node.getValue();
+                if (value != null && !isExpired(node, now)) {
+                    hitCount.increment();
+                    recordAccess(node, now);
+                    if (refreshAfterWriteNanos > 0 && now - node.writeTime >= refreshAfterWriteNanos) {
+                        refresh(node, value, args, loader);
+                    }
+                    return value == NULL ? null : value;
+                }
+                evict(node);
+                continue;
+            }
+            Node<K> created = new Node<>(key, new FutureTask<>(() -> loader.load(args)));
+            if (insert(key, created)) {
+                missCount.increment();
+                return load(created);
+            }
+        }
+    }
+
+    void invalidate(@Nonnull K key) {
+        if (slot != null) {
+            slot.set(null);
+            return;
+        }
+        Node<K> node = map.remove(key);
+        if (node != null && order != null) {
+            orderLock.lock();
+            try {
+                order.remove(key, node);
+            }
+            finally {
+                orderLock.unlock();
+            }
+        }
+    }
+
+    void invalidateAll() {
+        if (slot != null) {
+            slot.set(null);
+            return;
+        }
+        map.clear();
+        if (order != null) {
+            orderLock.lock();
+            try {
+                order.clear();
+            }
+            finally {
+                orderLock.unlock();
+            }
+        }
+    }
+
+    long size() {
+        return slot != null ? (slot.get() == null ? 0 : 1) : map.size();
+    }
+
+    @Nonnull Stats getStats() {
+        return new Stats(hitCount.sum(), missCount.sum(), loadFailureCount.sum(), evictionCount.sum(),
+                         totalLoadNanos.sum());
+    }
+
+    private Object load(Node<K> node) throws Throwable {
+        FutureTask<Object> loading = node.loading;
+        long start = now();
+        loading.run();
+        Object result;
+        try {
+            result = CachedProxyHandler.awaitUninterruptibly(loading);
+        }
+        catch (ExecutionException ex) {
+            loadFailureCount.increment();
+            totalLoadNanos.add(now() - start);
+            remove(node);
+            throw ex.getCause();
+        }
+        long now = now();
+        node.writeTime = now;
+        node.accessTime = now;
+        node.value = wrap(node.key, result == null ? NULL : result);
+        node.loading = null;
+        afterLoad(node, now);
+        if (async && result instanceof CompletableFuture) {
+            CompletableFuture<?> future = (CompletableFuture<?>) result;
+            future.whenComplete((value, ex) -> {
+                totalLoadNanos.add(now() - start);
+                if (ex != null) {
+                    loadFailureCount.increment();
+                    discard(node, future);
+                }
+                else {
+                    node.writeTime = now();
+                }
+            });
+        }
+        else {
+            totalLoadNanos.add(now - start);
+        }
+        return result;
+    }
+
+    /**
+     * Reloads the entry while the current value is still served. The new value replaces the current one
+     * when it completes normally, failed refresh is counted and ignored.
+     */
+    private void refresh(Node<K> node, Object current, Object[] args, Loader loader) {
+        if (!(current instanceof CompletableFuture) || !((CompletableFuture<?>) current).isDone()
+                || !REFRESHING.compareAndSet(node, 0, 1)) {
+            return;
+        }
+        long start = now();
+        Object result;
+        try {
+            result = loader.load(args);
+        }
+        catch (Exception | LinkageError ex) {
+            result = null;
+        }
+        if (!(result instanceof CompletableFuture)) {
+            loadFailureCount.increment();
+            node.refreshing = 0;
+            return;
+        }
+        CompletableFuture<?> future = (CompletableFuture<?>) result;
+        future.whenComplete((value, ex) -> {
+            long now = now();
+            totalLoadNanos.add(now - start);
+            if (ex != null) {
+                loadFailureCount.increment();
+            }
+            else if (lookup(node.key) == node) {
+                node.value = wrap(node.key, future);
+                node.writeTime = now;
+            }
+            node.refreshing = 0;
+        });
+    }
+
+    private void discard(Node<K> node, Object value) {
+        if (node.getValue() == value && remove(node) && order != null) {
+            orderLock.lock();
+            try {
+                order.remove(node.key, node);
+            }
+            finally {
+                orderLock.unlock();
+            }
+        }
+    }
+
+    private Object await(Node<K> node, FutureTask<Object> loading) throws Throwable {
+        try {
+            return CachedProxyHandler.awaitUninterruptibly(loading);
+        }
+        catch (ExecutionException ex) {
+            remove(node);
+            throw ex.getCause();
+        }
+    }
+
+    private @Nullable Node<K> lookup(K key) {
+        return slot != null ? slot.get() : map.get(key);
+    }
+
+    private boolean insert(K key, Node<K> node) {
+        return slot != null ? slot.compareAndSet(null, node) : map.putIfAbsent(key, node) == null;
+    }
+
+    private boolean remove(Node<K> node) {
+        return slot != null ? slot.compareAndSet(node, null) : map.remove(node.key, node);
+    }
+
+    private Object wrap(K key, Object value) {
+        switch (values) {
+            case WEAK:
+                return new WeakValue<>(key, value, collected);
+            case SOFT:
+                return new SoftValue<>(key, value, collected);
+            default:
+                return value;
+        }
+    }
+
+    private boolean isExpired(Node<K> node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos
+            || expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos;
+    }
+
+    private void recordAccess(Node<K> node, long now) {
+        if (expireAfterAccessNanos > 0) {
+            node.accessTime = now;
+        }
+        if (order != null && orderLock.tryLock()) {
+            try {
+                order.get(node.key);
+            }
+            finally {
+                orderLock.unlock();
+            }
+        }
+    }
+
+    private void afterLoad(Node<K> node, long now) {
+        drainCollected();
+        if (order == null) {
+            return;
+        }
+        orderLock.lock();
+        try {
+            if (map.get(node.key) == node) {
+                order.put(node.key, node);
+            }
+            Iterator<Node<K>> eldest = order.values().iterator();
+            while (eldest.hasNext()) {
+                Node<K> victim = eldest.next();
+                if (order.size() > maximumSize) {
+                    if (sketch != null && victim != node && order.containsKey(node.key)
+                            && sketch.frequency(node.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+                        victim = node;
+                    }
+                }
+                else if (!isExpired(victim, now) && victim.getValue() != null) {
+                    break;
+                }
+                order.remove(victim.key, victim);
+                if (remove(victim)) {
+                    evictionCount.increment();
+                }
+                if (victim == node) {
+                    break;
+                }
+                eldest = order.values().iterator();
+            }
+        }
+        finally {
+            orderLock.unlock();
+        }
+    }
+
+    private void evict(Node<K> node) {
+        if (remove(node)) {
+            evictionCount.increment();
+            if (order != null) {
+                orderLock.lock();
+                try {
+                    order.remove(node.key, node);
+                }
+                finally {
+                    orderLock.unlock();
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainCollected() {
+        if (collected == null) {
+            return;
+        }
+        Reference<?> reference;
+        while ((reference = collected.poll()) != null) {
+            K key = ((CollectableValue<K>) reference).getKey();
+            Node<K> node = lookup(key);
+            if (node != null && node.value == reference) {
+                evict(node);
+            }
+        }
+    }
+
+    private long now() {
+        return timeSource.getResolution().toNanos(timeSource.getTime());
+    }
+
+    private static long toNanos(@Nullable TimePeriod timePeriod) {
+        return timePeriod == null ? 0 : Math.max(1, timePeriod.getDuration(TimeUnit.NANOSECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final AtomicIntegerFieldUpdater<Node<?>> REFRESHING =
+            (AtomicIntegerFieldUpdater<Node<?>>) (AtomicIntegerFieldUpdater<?>)
+                    AtomicIntegerFieldUpdater.newUpdater(Node.class, "refreshing");
+
+    @FunctionalInterface
+    interface Loader {
+        Object load(Object[] args) throws Exception;
+    }
+
+    private static final class Node<K> {
+
+        private final K key;
+        private volatile FutureTask<Object> loading;
+        private volatile Object value;
+        private volatile long writeTime;
+        private volatile long accessTime;
+        volatile int refreshing;
+
+        private Node(K key, FutureTask<Object> loading) {
+            this.key = key;
+            this.loading = loading;
+        }
+
+        /**
+         * @return loaded value, {@code NULL} for null result or {@code null} when collected
+         */
+        private @Nullable Object getValue() {
+            Object value = this.value;
+            return value instanceof CollectableValue ? ((Reference<?>) value).get() : value;
+        }
+    }
+
+    private interface CollectableValue<K> {
+        K getKey();
+    }
+
+    private static final class WeakValue<K> extends WeakReference<Object> implements CollectableValue<K> {
+
+        private final K key;
+
+        private WeakValue(K key, Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+    }
+
+    private static final class SoftValue<K> extends SoftReference<Object> implements CollectableValue<K> {
+
+        private final K key;
+
+        private SoftValue(K key, Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit saturating counters, four counters per cache entry. All counters are halved
+     * after the number of increments reaches ten times the cache size, so the frequencies reflect recent history.
+     * Updates are not atomic, counts lost under races only make the estimate a bit less precise.
+     */
+    static final class FrequencySketch {
+
+        private static final int[] SEEDS = { 0x97cb3127, 0xb3b4b1ab, 0x1e3e35bd, 0x7e5f3a2b };
+
+        private final byte[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(long maximumSize) {
+            int width = Integer.highestOneBit((int) Math.min(Math.max(maximumSize, 16), 1 << 22) - 1) << 3;
+            this.table = new byte[width];
+            this.mask = width - 1;
+            this.sampleSize = (int) Math.min(maximumSize * 10, Integer.MAX_VALUE);
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int seed : SEEDS) {
+                int index = index(hash, seed);
+                if (table[index] < 15) {
+                    table[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = Integer.MAX_VALUE;
+            for (int seed : SEEDS) {
+                frequency = Math.min(frequency, table[index(hash, seed)]);
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>>= 1;
+            }
+            additions /= 2;
+        }
+
+        private int index(int hash, int seed) {
+            int h = (hash ^ (hash >>> 16)) * seed;
+            return (h ^ (h >>> 15)) & mask;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package org.libsmith.anvil.reflection;
 
 import org.libsmith.anvil.reflection.ReflectiveOperationRuntimeException.NoSuchMemberRuntimeException;
 
+import javax.annotation.Nonnull;
 import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
 import java.util.EnumSet;
 import java.util.Optional;
@@ -33,12 +35,29 @@ public final class ReflectionCommons {
             return Optional.empty();
         }
 
+        /**
+         * @param string modifiers expression of {@link ModifierSet#matcher(String)}, e.g. {@code "public !static"}
+         */
         default S modifier(String string) {
-            return modifier(Modifier.pack(Modifier.parse(string)));
+            return modifier(ModifierSet.matcher(string));
         }
 
         default Optional<S> modifierOp(String string) {
-            return modifierOp(Modifier.pack(Modifier.parse(string)));
+            return modifierOp(ModifierSet.matcher(string));
+        }
+
+        default S modifier(ModifierSet.Matcher matcher) {
+            return modifierOp(matcher).orElseThrow(
+                    () -> new NoSuchMemberRuntimeException("Found member does not match modifier(s): " +
+                                                           matcher + ", member is " + getReflectionSubject()));
+        }
+
+        @SuppressWarnings("unchecked")
+        default Optional<S> modifierOp(ModifierSet.Matcher matcher) {
+            if (matcher.matches(getReflectionSubject().getModifiers())) {
+                return Optional.of((S) this);
+            }
+            return Optional.empty();
         }
 
         default S modifier(Modifier... modifiers) {
@@ -86,6 +105,32 @@ public final class ReflectionCommons {
         }
     }
 
+    public interface BackendCommons<S extends BackendCommons<S>> {
+
+        @Nonnull Backend getBackend();
+
+        S backend(@Nonnull Backend backend);
+    }
+
+    public enum Backend {
+
+        /**
+         * Plain {@code java.lang.reflect} calls, access is checked and arguments are packed into array on every call
+         */
+        REFLECTION,
+
+        /**
+         * Calls through method handles resolved once, functional views are spun by {@code LambdaMetafactory}
+         * where possible. Invocations wrap exceptions thrown by the member the same way as {@link #REFLECTION},
+         * into {@link ReflectiveOperationRuntimeException} caused by {@link InvocationTargetException}.
+         * <p>
+         * Spun functional views and bulk operations call the member directly, so its unchecked exceptions
+         * propagate from them as is. Members declaring checked exceptions are never spun, views that are not spun
+         * wrap exceptions like invocations.
+         */
+        COMPILED
+    }
+
     static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
     static final Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[0];
 }
@@ -0,0 +1,649 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Binary index of class metadata written at build time: hierarchy names, modifiers, declared annotations and
+ * user members (neither synthetic nor bridge) of every indexed class. Records are decoded on lookup straight from
+ * the memory mapped file, so opening the index costs a header check only.
+ * <p>
+ * Build step runs {@link #main(String[])} against the compiled classes and packs the output as {@link #RESOURCE}.
+ * {@link #getDefault()} loads the file named by {@link #PATH_PROPERTY} or the resource.
+ * <p>
+ * The index serves {@link ClassReflection#getMetadata()} only: names and modifiers readable without loading
+ * reflection data of the class. Member getters of {@link ClassReflection} always reflect, a {@link Method} or
+ * {@link Field} can't be built from the index, and entries are checked by modifiers and supertypes only, which
+ * doesn't prove the members are current. Classes missing in the index or changed since it was written fall back to
+ * live reflection. A record that fails to decode disables the whole index, lookups miss from then on.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 24.10.26 15:20
+ */
+public final class ReflectionIndex {
+
+    private static final Logger LOG = Logger.getLogger(ReflectionIndex.class.getName());
+
+    public static final String RESOURCE = "META-INF/libanvil/reflection.index";
+    /**
+     * System property with the index file path, empty value disables the index
+     */
+    public static final String PATH_PROPERTY = "org.libsmith.anvil.reflection.index";
+
+    private static final int MAGIC = 0x52464C58;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int classCount;
+    private final int stringsStart;
+    private final int recordsStart;
+    private final int classTableStart;
+    /**
+     * Strings are immutable, so racy initialization of the slots is benign
+     */
+    private final String[] strings;
+    private volatile boolean corrupted;
+
+    private ReflectionIndex(ByteBuffer buffer) {
+        this.buffer = buffer.asReadOnlyBuffer();
+        try {
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Not a reflection index");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IllegalArgumentException("Unsupported reflection index version " + buffer.getInt(4));
+            }
+            this.stringCount = buffer.getInt(8);
+            this.classCount = buffer.getInt(12);
+            this.stringsStart = buffer.getInt(16);
+            this.recordsStart = buffer.getInt(20);
+            this.classTableStart = HEADER_SIZE + stringCount * 4;
+            if (stringCount < 0 || classCount < 0 || recordsStart > buffer.limit() ||
+                    stringsStart < classTableStart + classCount * 8 || recordsStart < stringsStart) {
+                throw new IllegalArgumentException("Corrupted reflection index header");
+            }
+        }
+        catch (IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Truncated reflection index", ex);
+        }
+        this.strings = new String[stringCount];
+    }
+
+    //<editor-fold desc="Loading">
+    public static @Nonnull ReflectionIndex of(@Nonnull ByteBuffer buffer) {
+        return new ReflectionIndex(buffer);
+    }
+
+    /**
+     * Maps the file into memory, it stays mapped until the index is collected
+     */
+    public static @Nonnull ReflectionIndex load(@Nonnull Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return process wide index, or {@code null} if there is none or it can't be read
+     */
+    public static @Nullable ReflectionIndex getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static @Nullable ReflectionIndex loadDefault() {
+        try {
+            String path = System.getProperty(PATH_PROPERTY);
+            if (path != null) {
+                return path.isEmpty() ? null : load(Paths.get(path));
+            }
+            ClassLoader classLoader = ReflectionIndex.class.getClassLoader();
+            URL url = classLoader == null ? ClassLoader.getSystemResource(RESOURCE) : classLoader.getResource(RESOURCE);
+            if (url == null) {
+                return null;
+            }
+            if ("file".equals(url.getProtocol())) {
+                return load(Paths.get(url.toURI()));
+            }
+            try (InputStream input = url.openStream()) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] chunk = new byte[8192];
+                for (int read; (read = input.read(chunk)) >= 0; ) {
+                    output.write(chunk, 0, read);
+                }
+                return of(ByteBuffer.wrap(output.toByteArray()));
+            }
+        }
+        catch (IOException | URISyntaxException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Reflection index is not loaded, falling back to reflection", ex);
+            return null;
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final ReflectionIndex INSTANCE = loadDefault();
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Lookup">
+    public int size() {
+        return corrupted ? 0 : classCount;
+    }
+
+    /**
+     * @return {@code true} if a record failed to decode, the index is disabled then
+     */
+    public boolean isCorrupted() {
+        return corrupted;
+    }
+
+    /**
+     * @return indexed metadata of the class, or {@code null} if the class is not indexed or differs from the indexed
+     *         one by modifiers, superclass or interfaces
+     */
+    public @Nullable ClassMetadata get(@Nonnull Class<?> type) {
+        ClassMetadata metadata = get(type.getName());
+        if (metadata == null || metadata.modifiers != type.getModifiers()
+                || !Objects.equals(metadata.superName, type.getSuperclass() == null ? null
+                                                                                     : type.getSuperclass().getName())
+                || !metadata.interfaceNames.equals(names(type.getInterfaces()))) {
+            return null;
+        }
+        return metadata;
+    }
+
+    /**
+     * @return indexed metadata of the binary class name, decoded on every call, or {@code null} if the index is
+     *         corrupted
+     */
+    public @Nullable ClassMetadata get(@Nonnull String className) {
+        if (corrupted) {
+            return null;
+        }
+        try {
+            return find(className);
+        }
+        catch (IndexOutOfBoundsException | BufferUnderflowException | NegativeArraySizeException
+                | IllegalArgumentException ex) {
+            disable(ex);
+            return null;
+        }
+    }
+
+    public @Nonnull List<String> getClassNames() {
+        if (corrupted) {
+            return Collections.emptyList();
+        }
+        try {
+            List<String> names = new ArrayList<>(classCount);
+            for (int i = 0; i < classCount; i++) {
+                names.add(string(buffer.getInt(classTableStart + i * 8)));
+            }
+            return names;
+        }
+        catch (IndexOutOfBoundsException | BufferUnderflowException | NegativeArraySizeException
+                | IllegalArgumentException ex) {
+            disable(ex);
+            return Collections.emptyList();
+        }
+    }
+
+    private void disable(RuntimeException ex) {
+        if (!corrupted) {
+            corrupted = true;
+            LOG.log(Level.WARNING, "Reflection index is corrupted, falling back to reflection", ex);
+        }
+    }
+
+    private @Nullable ClassMetadata find(String className) {
+        int low = 0;
+        int high = classCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = classTableStart + middle * 8;
+            int compare = string(buffer.getInt(entry)).compareTo(className);
+            if (compare < 0) {
+                low = middle + 1;
+            }
+            else if (compare > 0) {
+                high = middle - 1;
+            }
+            else {
+                return new Cursor(recordsStart + buffer.getInt(entry + 4)).readClass(className);
+            }
+        }
+        return null;
+    }
+
+    private @Nullable String string(int index) {
+        if (index < 0) {
+            return null;
+        }
+        String string = strings[index];
+        if (string == null) {
+            int offset = stringsStart + buffer.getInt(HEADER_SIZE + index * 4);
+            byte[] bytes = new byte[buffer.getInt(offset)];
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(offset + 4);
+            duplicate.get(bytes);
+            strings[index] = string = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return string;
+    }
+
+    private final class Cursor {
+
+        private int position;
+
+        private Cursor(int position) {
+            this.position = position;
+        }
+
+        private int readInt() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        /**
+         * Bounds the count by the remaining bytes, so a corrupted one fails instead of allocating a huge array
+         */
+        private int readCount() {
+            int count = readInt();
+            if (count < 0 || count > (buffer.limit() - position) / 4) {
+                throw new IllegalArgumentException("Corrupted reflection index record at " + position);
+            }
+            return count;
+        }
+
+        private List<String> readStrings() {
+            int count = readCount();
+            if (count == 0) {
+                return Collections.emptyList();
+            }
+            String[] values = new String[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = string(readInt());
+            }
+            return Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        private ClassMetadata readClass(String name) {
+            int modifiers = readInt();
+            String superName = string(readInt());
+            List<String> interfaceNames = readStrings();
+            List<String> annotationNames = readStrings();
+            MemberMetadata[] fields = new MemberMetadata[readCount()];
+            for (int i = 0; i < fields.length; i++) {
+                String fieldName = string(readInt());
+                String typeName = string(readInt());
+                int fieldModifiers = readInt();
+                fields[i] = new MemberMetadata(fieldName, typeName, null, fieldModifiers, readStrings());
+            }
+            MemberMetadata[] methods = new MemberMetadata[readCount()];
+            for (int i = 0; i < methods.length; i++) {
+                String methodName = string(readInt());
+                String typeName = string(readInt());
+                int methodModifiers = readInt();
+                List<String> parameterTypeNames = readStrings();
+                methods[i] = new MemberMetadata(methodName, typeName, parameterTypeNames, methodModifiers,
+                                                readStrings());
+            }
+            return new ClassMetadata(name, superName, interfaceNames, modifiers, annotationNames,
+                                     Collections.unmodifiableList(Arrays.asList(fields)),
+                                     Collections.unmodifiableList(Arrays.asList(methods)));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Writing">
+    /**
+     * Build step: {@code java org.libsmith.anvil.reflection.ReflectionIndex <output file> <package>...} indexes
+     * classes of the packages found on the class path
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: ReflectionIndex <output file> <package>...");
+        }
+        ClassLoader classLoader = ReflectionIndex.class.getClassLoader();
+        ClassScanner.Index scanned = ClassScanner.ofClassPath()
+                                                 .withPackages(Arrays.copyOfRange(args, 1, args.length))
+                                                 .scan();
+        List<Class<?>> classes = scanned.getClasses().stream()
+                                        .map(classInfo -> classInfo.load(classLoader))
+                                        .collect(Collectors.toList());
+        write(classes, Paths.get(args[0]));
+        LOG.info("Reflection index of " + classes.size() + " classes is written to " + args[0]);
+    }
+
+    public static void write(@Nonnull Collection<? extends Class<?>> classes, @Nonnull Path path) {
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(classes, output);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static void write(@Nonnull Collection<? extends Class<?>> classes, @Nonnull OutputStream output)
+            throws IOException {
+        Map<String, Integer> stringIndexes = new LinkedHashMap<>();
+        SortedMap<String, Integer> classOffsets = new TreeMap<>();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordsOutput = new DataOutputStream(records);
+        Writer writer = new Writer(recordsOutput, stringIndexes);
+        for (Class<?> type : classes) {
+            if (classOffsets.putIfAbsent(type.getName(), recordsOutput.size()) == null) {
+                writer.writeClass(ClassMetadata.of(type));
+            }
+        }
+        classOffsets.keySet().forEach(writer::index);
+
+        ByteArrayOutputStream stringsBytes = new ByteArrayOutputStream();
+        DataOutputStream stringsOutput = new DataOutputStream(stringsBytes);
+        int[] stringOffsets = new int[stringIndexes.size()];
+        int index = 0;
+        for (String string : stringIndexes.keySet()) {
+            stringOffsets[index++] = stringsOutput.size();
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            stringsOutput.writeInt(bytes.length);
+            stringsOutput.write(bytes);
+        }
+
+        int stringsStart = HEADER_SIZE + stringOffsets.length * 4 + classOffsets.size() * 8;
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(stringOffsets.length);
+        data.writeInt(classOffsets.size());
+        data.writeInt(stringsStart);
+        data.writeInt(stringsStart + stringsBytes.size());
+        for (int stringOffset : stringOffsets) {
+            data.writeInt(stringOffset);
+        }
+        for (Map.Entry<String, Integer> entry : classOffsets.entrySet()) {
+            data.writeInt(stringIndexes.get(entry.getKey()));
+            data.writeInt(entry.getValue());
+        }
+        stringsBytes.writeTo(data);
+        records.writeTo(data);
+        data.flush();
+    }
+
+    private static final class Writer {
+
+        private final DataOutputStream output;
+        private final Map<String, Integer> stringIndexes;
+
+        private Writer(DataOutputStream output, Map<String, Integer> stringIndexes) {
+            this.output = output;
+            this.stringIndexes = stringIndexes;
+        }
+
+        private int index(@Nullable String string) {
+            return string == null ? -1 : stringIndexes.computeIfAbsent(string, s -> stringIndexes.size());
+        }
+
+        private void writeString(@Nullable String string) throws IOException {
+            output.writeInt(index(string));
+        }
+
+        private void writeStrings(List<String> strings) throws IOException {
+            output.writeInt(strings.size());
+            for (String string : strings) {
+                writeString(string);
+            }
+        }
+
+        private void writeClass(ClassMetadata metadata) throws IOException {
+            output.writeInt(metadata.modifiers);
+            writeString(metadata.superName);
+            writeStrings(metadata.interfaceNames);
+            writeStrings(metadata.annotationNames);
+            output.writeInt(metadata.fields.size());
+            for (MemberMetadata field : metadata.fields) {
+                writeString(field.name);
+                writeString(field.typeName);
+                output.writeInt(field.modifiers);
+                writeStrings(field.annotationNames);
+            }
+            output.writeInt(metadata.methods.size());
+            for (MemberMetadata method : metadata.methods) {
+                writeString(method.name);
+                writeString(method.typeName);
+                output.writeInt(method.modifiers);
+                writeStrings(method.getParameterTypeNames());
+                writeStrings(method.annotationNames);
+            }
+        }
+    }
+    //</editor-fold>
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " of " + classCount + " classes";
+    }
+
+    private static List<String> names(Class<?>[] classes) {
+        return Stream.of(classes).map(Class::getName).collect(Collectors.toList());
+    }
+
+    private static List<String> annotationNames(Annotation[] annotations) {
+        return Collections.unmodifiableList(Stream.of(annotations)
+                                                  .map(a -> a.annotationType().getName())
+                                                  .collect(Collectors.toList()));
+    }
+
+    /**
+     * Class names are binary names as returned by {@link Class#getName()}, annotations are the declared runtime
+     * visible ones
+     */
+    public static final class ClassMetadata {
+
+        private final String name;
+        private final @Nullable String superName;
+        private final List<String> interfaceNames;
+        private final int modifiers;
+        private final List<String> annotationNames;
+        private final List<MemberMetadata> fields;
+        private final List<MemberMetadata> methods;
+
+        private ClassMetadata(String name, @Nullable String superName, List<String> interfaceNames, int modifiers,
+                              List<String> annotationNames, List<MemberMetadata> fields, List<MemberMetadata> methods) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaceNames = interfaceNames;
+            this.modifiers = modifiers;
+            this.annotationNames = annotationNames;
+            this.fields = fields;
+            this.methods = methods;
+        }
+
+        /**
+         * @return metadata collected by reflection
+         */
+        public static @Nonnull ClassMetadata of(@Nonnull Class<?> type) {
+            return new ClassMetadata(
+                    type.getName(),
+                    type.getSuperclass() == null ? null : type.getSuperclass().getName(),
+                    Collections.unmodifiableList(names(type.getInterfaces())),
+                    type.getModifiers(),
+                    annotationNames(type.getDeclaredAnnotations()),
+                    Collections.unmodifiableList(
+                            Stream.of(type.getDeclaredFields())
+                                  .filter(field -> !field.isSynthetic())
+                                  .map(MemberMetadata::of)
+                                  .collect(Collectors.toList())),
+                    Collections.unmodifiableList(
+                            Stream.of(type.getDeclaredMethods())
+                                  .filter(method -> !method.isSynthetic() && !method.isBridge())
+                                  .map(MemberMetadata::of)
+                                  .collect(Collectors.toList())));
+        }
+
+        public @Nonnull String getName() {
+            return name;
+        }
+
+        public @Nullable String getSuperName() {
+            return superName;
+        }
+
+        public @Nonnull List<String> getInterfaceNames() {
+            return interfaceNames;
+        }
+
+        public @Nonnull ModifierSet getModifiers() {
+            return ModifierSet.of(modifiers);
+        }
+
+        public @Nonnull List<String> getAnnotationNames() {
+            return annotationNames;
+        }
+
+        public @Nonnull List<MemberMetadata> getFields() {
+            return fields;
+        }
+
+        public @Nonnull List<MemberMetadata> getMethods() {
+            return methods;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClassMetadata that = (ClassMetadata) o;
+            return modifiers == that.modifiers &&
+                   name.equals(that.name) &&
+                   Objects.equals(superName, that.superName) &&
+                   interfaceNames.equals(that.interfaceNames) &&
+                   annotationNames.equals(that.annotationNames) &&
+                   fields.equals(that.fields) &&
+                   methods.equals(that.methods);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, modifiers, fields, methods);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Field or method, type name is the field type or the method return type
+     */
+    public static final class MemberMetadata {
+
+        private final String name;
+        private final String typeName;
+        private final @Nullable List<String> parameterTypeNames;
+        private final int modifiers;
+        private final List<String> annotationNames;
+
+        private MemberMetadata(String name, String typeName, @Nullable List<String> parameterTypeNames, int modifiers,
+                               List<String> annotationNames) {
+            this.name = name;
+            this.typeName = typeName;
+            this.parameterTypeNames = parameterTypeNames;
+            this.modifiers = modifiers;
+            this.annotationNames = annotationNames;
+        }
+
+        private static MemberMetadata of(Field field) {
+            return new MemberMetadata(field.getName(), field.getType().getName(), null, field.getModifiers(),
+                                      annotationNames(field.getDeclaredAnnotations()));
+        }
+
+        private static MemberMetadata of(Method method) {
+            return new MemberMetadata(method.getName(), method.getReturnType().getName(),
+                                      Collections.unmodifiableList(names(method.getParameterTypes())),
+                                      method.getModifiers(), annotationNames(method.getDeclaredAnnotations()));
+        }
+
+        public @Nonnull String getName() {
+            return name;
+        }
+
+        public @Nonnull String getTypeName() {
+            return typeName;
+        }
+
+        public boolean isMethod() {
+            return parameterTypeNames != null;
+        }
+
+        /**
+         * @return parameter types of the method, empty for fields
+         */
+        public @Nonnull List<String> getParameterTypeNames() {
+            return parameterTypeNames == null ? Collections.emptyList() : parameterTypeNames;
+        }
+
+        public @Nonnull ModifierSet getModifiers() {
+            return ModifierSet.of(modifiers);
+        }
+
+        public @Nonnull List<String> getAnnotationNames() {
+            return annotationNames;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            MemberMetadata that = (MemberMetadata) o;
+            return modifiers == that.modifiers &&
+                   name.equals(that.name) &&
+                   typeName.equals(that.typeName) &&
+                   Objects.equals(parameterTypeNames, that.parameterTypeNames) &&
+                   annotationNames.equals(that.annotationNames);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, typeName, parameterTypeNames);
+        }
+
+        @Override
+        public String toString() {
+            return isMethod() ? typeName + " " + name + "(" + String.join(", ", parameterTypeNames) + ")"
+                              : typeName + " " + name;
+        }
+    }
+}
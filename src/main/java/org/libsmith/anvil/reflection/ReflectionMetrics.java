@@ -0,0 +1,492 @@
+package org.libsmith.anvil.reflection;
+
+import org.libsmith.anvil.UncheckedException;
+import org.libsmith.anvil.time.TimePeriod;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Member;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Process wide instrumentation of reflective calls: per member call and failure counters, latency histograms of
+ * sampled calls and hit ratios of the caches. Disabled by default, enabled by {@link #setEnabled(boolean)},
+ * the {@link #ENABLED_PROPERTY} system property or the MBean registered by {@link #registerMBean()}.
+ * <p>
+ * Disabled instrumentation costs a volatile read per call. Enabled one counts every call into striped counters
+ * and times one call of {@link #SAMPLE_RATE}. Functional views and bulk operations compiled into direct lambdas
+ * are not instrumented unless created while the instrumentation is enabled, neither are the {@link FieldHandle}
+ * accesses and the map properties of {@link DynamicBean} wrappers generated by the compiled backend.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 25.10.26 10:30
+ */
+public final class ReflectionMetrics {
+
+    public static final String ENABLED_PROPERTY = "org.libsmith.anvil.reflection.metrics";
+    public static final String OBJECT_NAME = "org.libsmith.anvil:type=ReflectionMetrics";
+    public static final int SAMPLE_RATE = 64;
+
+    static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Counters by {@link #describe(Member) member name}, so they don't pin classes and their class loaders
+     */
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    /**
+     * Lookup shortcut stored with the declaring class, it is collected along with the class
+     */
+    private static final ClassValue<ConcurrentMap<Member, Counter>> MEMBER_COUNTERS =
+            new ClassValue<ConcurrentMap<Member, Counter>>() {
+                @Override
+                protected ConcurrentMap<Member, Counter> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+    private static final ConcurrentMap<String, CacheCounter> CACHE_COUNTERS = new ConcurrentHashMap<>();
+
+    private ReflectionMetrics()
+    { }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ReflectionMetrics.enabled = enabled;
+    }
+
+    /**
+     * Zeroes all counters, members and caches seen so far stay in snapshots
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(Counter::reset);
+        CACHE_COUNTERS.values().forEach(CacheCounter::reset);
+    }
+
+    public static @Nonnull Snapshot snapshot() {
+        List<MemberSnapshot> members = COUNTERS.values().stream()
+                                               .map(Counter::snapshot)
+                                               .filter(s -> s.callCount > 0)
+                                               .sorted(Comparator.comparingLong(MemberSnapshot::getCallCount)
+                                                                 .reversed()
+                                                                 .thenComparing(MemberSnapshot::getName))
+                                               .collect(Collectors.toList());
+        List<CacheSnapshot> caches = CACHE_COUNTERS.values().stream()
+                                                   .map(CacheCounter::snapshot)
+                                                   .sorted(Comparator.comparing(CacheSnapshot::getName))
+                                                   .collect(Collectors.toList());
+        return new Snapshot(members, caches);
+    }
+
+    //<editor-fold desc="JMX">
+    /**
+     * Registers the MBean at the platform server under {@link #OBJECT_NAME}, does nothing if it is registered
+     */
+    public static @Nonnull ObjectName registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBeanImpl(), name);
+            }
+            catch (InstanceAlreadyExistsException ignored)
+            { }
+            return name;
+        }
+        catch (JMException ex) {
+            throw UncheckedException.wrap(ex);
+        }
+    }
+
+    public static void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.unregisterMBean(new ObjectName(OBJECT_NAME));
+        }
+        catch (InstanceNotFoundException ignored)
+        { }
+        catch (JMException ex) {
+            throw UncheckedException.wrap(ex);
+        }
+    }
+
+    /**
+     * Members are named like {@code java.lang.String.substring(int, int)}, latencies are in nanoseconds
+     */
+    public interface ReflectionMetricsMXBean {
+
+        boolean isEnabled();
+
+        void setEnabled(boolean enabled);
+
+        void reset();
+
+        Map<String, Long> getCallCounts();
+
+        Map<String, Long> getFailureCounts();
+
+        Map<String, Long> getMeanNanos();
+
+        Map<String, Long> getP99Nanos();
+
+        Map<String, Double> getCacheHitRatios();
+    }
+
+    private static final class MXBeanImpl implements ReflectionMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return ReflectionMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            ReflectionMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public void reset() {
+            ReflectionMetrics.reset();
+        }
+
+        @Override
+        public Map<String, Long> getCallCounts() {
+            return members(MemberSnapshot::getCallCount);
+        }
+
+        @Override
+        public Map<String, Long> getFailureCounts() {
+            return members(MemberSnapshot::getFailureCount);
+        }
+
+        @Override
+        public Map<String, Long> getMeanNanos() {
+            return members(s -> s.getMeanTime().getDuration(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public Map<String, Long> getP99Nanos() {
+            return members(s -> s.getPercentile(0.99).getDuration(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public Map<String, Double> getCacheHitRatios() {
+            Map<String, Double> ratios = new LinkedHashMap<>();
+            snapshot().getCaches().forEach(c -> ratios.put(c.getName(), c.getHitRatio()));
+            return ratios;
+        }
+
+        private static Map<String, Long> members(ToLongFunction<MemberSnapshot> value) {
+            Map<String, Long> values = new LinkedHashMap<>();
+            snapshot().getMembers().forEach(m -> values.put(m.getName(), value.applyAsLong(m)));
+            return values;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Recording">
+    /**
+     * @return counter of the member, or {@code null} if the instrumentation is disabled
+     */
+    static @Nullable Counter counter(@Nonnull Member member) {
+        if (!enabled) {
+            return null;
+        }
+        ConcurrentMap<Member, Counter> counters = MEMBER_COUNTERS.get(member.getDeclaringClass());
+        Counter counter = counters.get(member);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(member, m -> COUNTERS.computeIfAbsent(describe(m), Counter::new));
+        }
+        return counter;
+    }
+
+    /**
+     * @return counter of the cache, or {@code null} if the instrumentation is disabled
+     */
+    static @Nullable CacheCounter cacheCounter(@Nonnull String name) {
+        if (!enabled) {
+            return null;
+        }
+        CacheCounter counter = CACHE_COUNTERS.get(name);
+        return counter != null ? counter : CACHE_COUNTERS.computeIfAbsent(name, CacheCounter::new);
+    }
+
+    static @Nonnull String describe(@Nonnull Member member) {
+        String name = member.getDeclaringClass().getName() +
+                      (member instanceof Constructor ? "" : "." + member.getName());
+        if (!(member instanceof Executable)) {
+            return name;
+        }
+        StringJoiner parameters = new StringJoiner(", ", "(", ")");
+        for (Class<?> type : ((Executable) member).getParameterTypes()) {
+            parameters.add(type.getTypeName());
+        }
+        return name + parameters;
+    }
+
+    static final class Counter {
+
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder sampledNanos = new LongAdder();
+        /**
+         * Bucket {@code i} counts sampled calls taking {@code [2^i, 2^(i + 1))} nanoseconds
+         */
+        private final AtomicLongArray histogram = new AtomicLongArray(64);
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return start time of the sampled call, {@link #NOT_SAMPLED} otherwise
+         */
+        long enter() {
+            calls.increment();
+            return ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0 ? System.nanoTime() : NOT_SAMPLED;
+        }
+
+        void exit(long start) {
+            if (start != NOT_SAMPLED) {
+                long nanos = Math.max(System.nanoTime() - start, 1);
+                sampledNanos.add(nanos);
+                histogram.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos));
+            }
+        }
+
+        void fail() {
+            failures.increment();
+        }
+
+        private void reset() {
+            calls.reset();
+            failures.reset();
+            sampledNanos.reset();
+            for (int i = 0; i < histogram.length(); i++) {
+                histogram.set(i, 0);
+            }
+        }
+
+        private MemberSnapshot snapshot() {
+            long[] buckets = new long[histogram.length()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram.get(i);
+            }
+            return new MemberSnapshot(name, calls.sum(), failures.sum(), sampledNanos.sum(), buckets);
+        }
+    }
+
+    static final class CacheCounter {
+
+        private final String name;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private CacheCounter(String name) {
+            this.name = name;
+        }
+
+        void hit() {
+            requests.increment();
+        }
+
+        void miss() {
+            requests.increment();
+            misses.increment();
+        }
+
+        /**
+         * Counts the request, which is a hit unless followed by {@link #loaded()}
+         */
+        void request() {
+            requests.increment();
+        }
+
+        void loaded() {
+            misses.increment();
+        }
+
+        private void reset() {
+            requests.reset();
+            misses.reset();
+        }
+
+        private CacheSnapshot snapshot() {
+            long missCount = misses.sum();
+            return new CacheSnapshot(name, Math.max(requests.sum() - missCount, 0), missCount);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Snapshots">
+    public static final class Snapshot {
+
+        private final List<MemberSnapshot> members;
+        private final List<CacheSnapshot> caches;
+
+        private Snapshot(List<MemberSnapshot> members, List<CacheSnapshot> caches) {
+            this.members = Collections.unmodifiableList(members);
+            this.caches = Collections.unmodifiableList(caches);
+        }
+
+        /**
+         * @return members called since the last reset, the most called first
+         */
+        public @Nonnull List<MemberSnapshot> getMembers() {
+            return members;
+        }
+
+        public @Nonnull Optional<MemberSnapshot> getMember(@Nonnull Member member) {
+            String name = describe(member);
+            return members.stream().filter(m -> m.name.equals(name)).findFirst();
+        }
+
+        public @Nonnull List<CacheSnapshot> getCaches() {
+            return caches;
+        }
+
+        public @Nonnull Optional<CacheSnapshot> getCache(@Nonnull String name) {
+            return caches.stream().filter(c -> c.name.equals(name)).findFirst();
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{members=" + members + ", caches=" + caches + "}";
+        }
+    }
+
+    public static final class MemberSnapshot {
+
+        private final String name;
+        private final long callCount;
+        private final long failureCount;
+        private final long sampledNanos;
+        private final long[] histogram;
+        private final long sampleCount;
+
+        private MemberSnapshot(String name, long callCount, long failureCount, long sampledNanos, long[] histogram) {
+            this.name = name;
+            this.callCount = callCount;
+            this.failureCount = failureCount;
+            this.sampledNanos = sampledNanos;
+            this.histogram = histogram;
+            long sampleCount = 0;
+            for (long bucket : histogram) {
+                sampleCount += bucket;
+            }
+            this.sampleCount = sampleCount;
+        }
+
+        public @Nonnull String getName() {
+            return name;
+        }
+
+        public long getCallCount() {
+            return callCount;
+        }
+
+        /**
+         * Calls completed by an exception
+         */
+        public long getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * Calls timed for the latency histogram
+         */
+        public long getSampleCount() {
+            return sampleCount;
+        }
+
+        public @Nonnull TimePeriod getMeanTime() {
+            return TimePeriod.ofNanos(sampleCount == 0 ? 0 : sampledNanos / sampleCount);
+        }
+
+        /**
+         * @param quantile in range {@code (0, 1]}
+         * @return upper bound of the histogram bucket the quantile of sampled calls falls into
+         */
+        public @Nonnull TimePeriod getPercentile(double quantile) {
+            if (quantile <= 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantile must be in (0, 1]: " + quantile);
+            }
+            if (sampleCount == 0) {
+                return TimePeriod.ofNanos(0);
+            }
+            long rank = (long) Math.ceil(quantile * sampleCount);
+            long seen = 0;
+            int bucket = 0;
+            for (; bucket < histogram.length - 1; bucket++) {
+                seen += histogram[bucket];
+                if (seen >= rank) {
+                    break;
+                }
+            }
+            return TimePeriod.ofNanos(bucket >= 62 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1);
+        }
+
+        @Override
+        public String toString() {
+            return name + "{calls=" + callCount + ", failures=" + failureCount + ", mean=" + getMeanTime() + "}";
+        }
+    }
+
+    public static final class CacheSnapshot {
+
+        private final String name;
+        private final long hitCount;
+        private final long missCount;
+
+        private CacheSnapshot(String name, long hitCount, long missCount) {
+            this.name = name;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+        }
+
+        public @Nonnull String getName() {
+            return name;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return share of requests answered from the cache, {@code 1.0} if there were no requests
+         */
+        public double getHitRatio() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{hits=" + hitCount + ", misses=" + missCount + "}";
+        }
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,219 @@
+package org.libsmith.anvil.reflection;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Copy-on-write properties map for {@link DynamicBean}. Every modification copies the current generation,
+ * applies the change and atomically publishes the result as a new immutable {@link Snapshot}, readers never
+ * lock and always see properties of a single generation. {@link #update} and {@link #replace} publish
+ * several changes as one generation, so a configuration reload is seen by readers all at once.
+ * <p>
+ * Modifications that don't change any property publish nothing. {@link Listener Listeners} are notified
+ * on the writing thread after the generation is published, concurrent writers may notify concurrently.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 20.10.26 17:20
+ */
+public final class VersionedProperties extends AbstractMap<String, Object> implements DynamicBean.Versioned {
+
+    private static final Logger LOG = Logger.getLogger(VersionedProperties.class.getName());
+
+    private final AtomicReference<Snapshot> current;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public VersionedProperties() {
+        this(Collections.emptyMap());
+    }
+
+    public VersionedProperties(@Nonnull Map<String, ?> properties) {
+        this.current = new AtomicReference<>(new Snapshot(new HashMap<>(properties), 0));
+    }
+
+    public @Nonnull Snapshot snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public long getVersion() {
+        return current.get().version;
+    }
+
+    public void addListener(@Nonnull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@Nonnull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Applies modifications to the copy of the current generation and publishes it as a single generation.
+     * The mutation is applied again if another writer published meanwhile, it must not have side effects.
+     */
+    public @Nonnull Snapshot update(@Nonnull Consumer<? super Map<String, Object>> mutation) {
+        while (true) {
+            Snapshot previous = current.get();
+            Map<String, Object> properties = new HashMap<>(previous.properties);
+            mutation.accept(properties);
+            if (properties.equals(previous.properties)) {
+                return previous;
+            }
+            Snapshot next = new Snapshot(properties, previous.version + 1);
+            if (current.compareAndSet(previous, next)) {
+                notifyListeners(previous, next);
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Replaces all the properties in a single generation
+     */
+    public @Nonnull Snapshot replace(@Nonnull Map<String, ?> properties) {
+        return update(map -> {
+            map.clear();
+            map.putAll(properties);
+        });
+    }
+
+    //<editor-fold desc="Map">
+    @Override
+    public Object get(Object key) {
+        return current.get().properties.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return current.get().properties.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return current.get().properties.size();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object[] previous = new Object[1];
+        update(map -> previous[0] = map.put(key, value));
+        return previous[0];
+    }
+
+    @Override
+    public Object remove(Object key) {
+        Object[] previous = new Object[1];
+        update(map -> previous[0] = map.remove(key));
+        return previous[0];
+    }
+
+    @Override
+    public void putAll(@Nonnull Map<? extends String, ?> map) {
+        update(properties -> properties.putAll(map));
+    }
+
+    @Override
+    public void clear() {
+        update(Map::clear);
+    }
+
+    /**
+     * Entries of the current generation, read only
+     */
+    @Override
+    public @Nonnull Set<Entry<String, Object>> entrySet() {
+        return current.get().entrySet();
+    }
+    //</editor-fold>
+
+    private void notifyListeners(Snapshot previous, Snapshot next) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Set<String> changedKeys = new HashSet<>();
+        for (Entry<String, Object> entry : previous.properties.entrySet()) {
+            if (!Objects.equals(entry.getValue(), next.properties.get(entry.getKey())) ||
+                    !next.properties.containsKey(entry.getKey())) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (String key : next.properties.keySet()) {
+            if (!previous.properties.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        Set<String> unmodifiableChangedKeys = Collections.unmodifiableSet(changedKeys);
+        for (Listener listener : listeners) {
+            try {
+                listener.onChange(previous, next, unmodifiableChangedKeys);
+            }
+            catch (RuntimeException ex) {
+                LOG.log(Level.SEVERE, "Properties change listener " + listener + " failed", ex);
+            }
+        }
+    }
+
+    /**
+     * Immutable generation of the properties
+     */
+    public static final class Snapshot extends AbstractMap<String, Object> implements DynamicBean.Versioned {
+
+        private final Map<String, Object> properties;
+        private final long version;
+
+        private Snapshot(Map<String, Object> properties, long version) {
+            this.properties = properties;
+            this.version = version;
+        }
+
+        @SuppressWarnings("unchecked")
+        public static @Nonnull Snapshot copyOf(@Nonnull Map<?, ?> properties) {
+            if (properties instanceof Snapshot) {
+                return (Snapshot) properties;
+            }
+            if (properties instanceof VersionedProperties) {
+                return ((VersionedProperties) properties).snapshot();
+            }
+            return new Snapshot(new HashMap<>((Map<String, Object>) properties), 0);
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return properties.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return properties.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return properties.size();
+        }
+
+        @Override
+        public @Nonnull Set<Entry<String, Object>> entrySet() {
+            return Collections.unmodifiableMap(properties).entrySet();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * @param changedKeys properties added, removed or changed in the current generation
+         */
+        void onChange(@Nonnull Snapshot previous, @Nonnull Snapshot current, @Nonnull Set<String> changedKeys);
+    }
+}
@@ -0,0 +1,121 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 24.10.26 20:10
+ */
+public class BulkOperationTest extends AbstractTest {
+
+    private static final Item[] ITEMS = IntStream.range(0, 10_000).mapToObj(Item::new).toArray(Item[]::new);
+
+    @Test
+    public void methodBulkTest() {
+        for (Backend backend : Backend.values()) {
+            BulkOperation<Item, Integer> value = ClassReflection.of(Item.class).method("getValue").noParams()
+                                                                .returns(Integer.class).backend(backend).bulk();
+            Integer[] values = value.applyTo(ITEMS, new Integer[0]);
+            assertThat(values).hasSize(ITEMS.length);
+            assertThat(values[1234]).isEqualTo(1234);
+
+            BulkOperation<Item, ?> label = ClassReflection.of(Item.class).method("label").params(String.class)
+                                                          .backend(backend).bulk("#");
+            List<?> labels = label.applyTo(Arrays.asList(ITEMS[1], ITEMS[2]));
+            assertThat(labels).isEqualTo(Arrays.asList("#1", "#2"));
+
+            BulkOperation<Item, Integer> sum = ClassReflection.of(Item.class).method("sum")
+                                                              .paramsUnchecked(int[].class).returns(Integer.class)
+                                                              .backend(backend).bulk((Object) new int[] { 1, 2 });
+            List<Integer> sums = sum.applyTo(Arrays.asList(ITEMS).subList(0, 3));
+            assertThat(sums).containsExactly(3, 4, 5);
+        }
+    }
+
+    @Test
+    public void fieldBulkTest() {
+        FieldAccessor.Regular<Item, Integer> accessor = ClassReflection.of(Item.class).localField("value")
+                                                                      .accessible(true).type(Integer.class);
+        List<Integer> values = accessor.bulk().applyTo(Arrays.asList(ITEMS[3], ITEMS[4]));
+        assertThat(values).containsExactly(3, 4);
+        accessor.backend(Backend.COMPILED);
+        values = accessor.bulk().applyTo(Arrays.asList(ITEMS).subList(5, 7));
+        assertThat(values).containsExactly(5, 6);
+    }
+
+    @Test
+    public void parallelTest() {
+        BulkOperation<Item, Integer> sequential = BulkOperation.of(Item::getValue);
+        BulkOperation<Item, Integer> parallel = sequential.parallel(new ForkJoinPool(4), 100);
+        assertThat(sequential.isParallel()).isFalse();
+        assertThat(parallel.isParallel()).isTrue();
+        assertThat(parallel.sequential().isParallel()).isFalse();
+        assertThat(parallel.toString()).isEqualTo("BulkOperation parallel by 100");
+
+        Integer[] expected = sequential.applyTo(ITEMS, new Integer[ITEMS.length]);
+        Integer[] results = new Integer[ITEMS.length + 1];
+        results[ITEMS.length] = -1;
+        assertThat(parallel.applyTo(ITEMS, results)).isSameAs(results);
+        assertThat(Arrays.copyOf(results, ITEMS.length)).isEqualTo(expected);
+        assertThat(results[ITEMS.length]).isEqualTo(-1);
+
+        List<Integer> list = parallel.applyTo(Arrays.asList(ITEMS));
+        assertThat(list).isEqualTo(Arrays.asList(expected));
+
+        Set<Integer> set = parallel.applyTo(Arrays.stream(ITEMS), Collectors.toCollection(LinkedHashSet::new));
+        assertThat(set).hasSize(ITEMS.length);
+        assertThat(sequential.applyTo(Arrays.stream(ITEMS).limit(3), Collectors.toList())).containsExactly(0, 1, 2);
+        assertThat(BulkOperation.of(Item::getValue).parallel().applyTo(Arrays.asList(ITEMS)))
+                .isEqualTo(Arrays.asList(expected));
+    }
+
+    @Test
+    public void failureTest() {
+        BulkOperation<Item, Integer> failing = BulkOperation.of(item -> {
+            if (item.value == 5000) {
+                throw new IllegalStateException("fail");
+            }
+            return item.value;
+        });
+        assertThatThrownBy(() -> failing.applyTo(ITEMS, new Integer[0])).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> failing.parallel().applyTo(ITEMS, new Integer[0]))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> failing.parallel(ForkJoinPool.commonPool(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Item {
+
+        private final int value;
+
+        private Item(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        public String label(String prefix) {
+            return prefix + value;
+        }
+
+        public int sum(int ... args) {
+            return value + IntStream.of(args).sum();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Throughput of cached proxy calls by number of threads. Key space is larger than the number of calls, so the
+ * run is a mix of hits and misses on distinct keys, every miss costs some CPU work in the target.
+ *
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 18.10.26 15:20
+ */
+public class CachedProxyBenchmarkIT extends AbstractTest {
+
+    private static final Logger LOGGER = Logger.getLogger(CachedProxyBenchmarkIT.class.getName());
+
+    private static final int CALLS_PER_THREAD = 200_000;
+    private static final int KEYS = 20_000;
+
+    public interface Target {
+        long compute(int key);
+    }
+
+    private static class TargetClass implements Target {
+
+        private final LongAdder invocations = new LongAdder();
+
+        @Override
+        public long compute(int key) {
+            invocations.increment();
+            long hash = key;
+            for (int i = 0; i < 2_000; i++) {
+                hash = hash * 31 + i;
+            }
+            return hash;
+        }
+    }
+
+    @Test
+    public void throughputTest() throws Exception {
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            measure(threads);
+        }
+        if (Integer.bitCount(cores) != 1) {
+            measure(cores);
+        }
+    }
+
+    private void measure(int threads) throws Exception {
+
+        TargetClass targetObject = new TargetClass();
+        Target target = CachedProxy.wrap(targetObject, Target.class);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long sink = 0;
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        sink += target.compute((random.nextInt(KEYS) + seed) % KEYS);
+                    }
+                    return sink;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            long calls = (long) threads * CALLS_PER_THREAD;
+            LOGGER.info(String.format("%2d threads: %,12d calls/s, %,d misses", threads,
+                                      calls * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                                      targetObject.invocations.sum()));
+            assertTrue(targetObject.invocations.sum() <= KEYS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
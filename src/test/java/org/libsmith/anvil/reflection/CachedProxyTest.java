@@ -2,7 +2,15 @@ package org.libsmith.anvil.reflection;
 
 import org.junit.Test;
 import org.libsmith.anvil.AbstractTest;
+import org.libsmith.anvil.time.TimePeriod;
+import org.libsmith.anvil.time.TimeSource;
 
+import javax.annotation.Nonnull;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -57,4 +65,376 @@ public class CachedProxyTest extends AbstractTest {
         assertEquals(8, somethingProxy.methodA(0, true));
         assertEquals(9, somethingProxy.methodB(0, true));
     }
+
+    private interface SlowInterface {
+
+        int slowMethod(int a);
+
+        int failingMethod(int a);
+    }
+
+    private static class SlowClass implements SlowInterface {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public int slowMethod(int a) {
+            invocations.incrementAndGet();
+            if (a == 0) {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            return a;
+        }
+
+        @Override
+        public int failingMethod(int a) {
+            invocations.incrementAndGet();
+            throw new IllegalArgumentException();
+        }
+    }
+
+    @Test
+    public void singleFlightTest() throws Exception {
+
+        SlowClass slowObject = new SlowClass();
+        SlowInterface slowProxy = CachedProxy.wrap(slowObject, SlowInterface.class);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] blocked = new Future<?>[8];
+            for (int i = 0; i < blocked.length; i++) {
+                blocked[i] = executor.submit(() -> slowProxy.slowMethod(0));
+            }
+            assertEquals(1, slowProxy.slowMethod(1));
+            assertEquals(1, slowProxy.slowMethod(1));
+            for (Future<?> future : blocked) {
+                assertThat(future.isDone()).isFalse();
+            }
+            slowObject.release.countDown();
+            for (Future<?> future : blocked) {
+                assertEquals(0, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(2, slowObject.invocations.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failureIsNotCachedTest() throws Exception {
+
+        SlowClass slowObject = new SlowClass();
+        SlowInterface slowProxy = CachedProxy.wrap(slowObject, SlowInterface.class);
+        for (int i = 0; i < 2; i++) {
+            try {
+                slowProxy.failingMethod(0);
+            }
+            catch (RuntimeException ignored) {
+            }
+        }
+        assertEquals(2, slowObject.invocations.get());
+    }
+
+    private static class ManualTimeSource implements TimeSource {
+
+        private final AtomicLong time = new AtomicLong();
+
+        @Override
+        public long getTime() {
+            return time.get();
+        }
+
+        @Override
+        public @Nonnull TimeUnit getResolution() {
+            return TimeUnit.SECONDS;
+        }
+    }
+
+    @Test
+    public void maximumSizeTest() {
+
+        SomethingInterface lruProxy = CachedProxy.policy().maximumSize(2)
+                                                 .wrap(new SomethingClass(), SomethingInterface.class);
+        assertEquals(0, lruProxy.methodA(0, true));
+        assertEquals(1, lruProxy.methodA(1, true));
+        assertEquals(0, lruProxy.methodA(0, true));
+        assertEquals(2, lruProxy.methodA(2, true));
+        assertEquals(0, lruProxy.methodA(0, true));
+        assertEquals(3, lruProxy.methodA(1, true));
+
+        CachedProxy.Stats stats = ((CachedProxy) lruProxy).getCacheStats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(4, stats.getMissCount());
+        assertEquals(2, stats.getEvictionCount());
+        assertThat(stats.getHitRate()).isEqualTo(2.0 / 6);
+
+        SomethingInterface lfuProxy = CachedProxy.policy().maximumSize(2).eviction(CachedProxy.Eviction.TINY_LFU)
+                                                 .wrap(new SomethingClass(), SomethingInterface.class);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, lfuProxy.methodA(0, true));
+            assertEquals(1, lfuProxy.methodA(1, true));
+        }
+        for (int i = 2; i < 10; i++) {
+            lfuProxy.methodA(i, true);
+        }
+        assertEquals(0, lfuProxy.methodA(0, true));
+        assertEquals(1, lfuProxy.methodA(1, true));
+    }
+
+    @Test
+    public void expirationTest() {
+
+        ManualTimeSource timeSource = new ManualTimeSource();
+        SomethingInterface writeProxy = CachedProxy.policy().expireAfterWrite(TimePeriod.ofSeconds(10))
+                                                   .timeSource(timeSource)
+                                                   .wrap(new SomethingClass(), SomethingInterface.class);
+        assertEquals(0, writeProxy.methodA(0, true));
+        timeSource.time.set(5);
+        assertEquals(0, writeProxy.methodA(0, true));
+        timeSource.time.set(10);
+        assertEquals(1, writeProxy.methodA(0, true));
+        assertEquals(1, ((CachedProxy) writeProxy).getCacheStats().getEvictionCount());
+
+        SomethingInterface accessProxy = CachedProxy.policy().expireAfterAccess(TimePeriod.ofSeconds(10))
+                                                    .timeSource(timeSource)
+                                                    .wrap(new SomethingClass(), SomethingInterface.class);
+        assertEquals(0, accessProxy.methodA(0, true));
+        timeSource.time.set(15);
+        assertEquals(0, accessProxy.methodA(0, true));
+        timeSource.time.set(20);
+        assertEquals(0, accessProxy.methodA(0, true));
+        timeSource.time.set(30);
+        assertEquals(1, accessProxy.methodA(0, true));
+    }
+
+    @Test
+    public void referenceValuesTest() {
+
+        for (CachedProxy.ValueStrength values : CachedProxy.ValueStrength.values()) {
+            SomethingInterface proxy = CachedProxy.policy().values(values)
+                                                  .wrap(new SomethingClass(), SomethingInterface.class);
+            int value = proxy.methodA(0, true);
+            assertThat(proxy.methodA(0, true)).isIn(value, value + 1);
+        }
+    }
+
+    private interface AnnotatedInterface {
+
+        int zeroArg();
+
+        int singleArg(String a);
+
+        int pair(String a, int b);
+
+        @CachedProxy.NotCached
+        int notCached(int a);
+
+        @CachedProxy.Cached(maximumSize = 1, expireAfterWrite = "10s")
+        int cachedWithPolicy(int a);
+    }
+
+    private static class AnnotatedClass implements AnnotatedInterface {
+
+        private int counter;
+
+        @Override
+        public int zeroArg() {
+            return counter++;
+        }
+
+        @Override
+        public int singleArg(String a) {
+            return counter++;
+        }
+
+        @Override
+        public int pair(String a, int b) {
+            return counter++;
+        }
+
+        @Override
+        public int notCached(int a) {
+            return counter++;
+        }
+
+        @Override
+        public int cachedWithPolicy(int a) {
+            return counter++;
+        }
+    }
+
+    @Test
+    public void perMethodCacheTest() {
+
+        ManualTimeSource timeSource = new ManualTimeSource();
+        AnnotatedInterface proxy = CachedProxy.policy().timeSource(timeSource)
+                                              .wrap(new AnnotatedClass(), AnnotatedInterface.class);
+        assertEquals(0, proxy.zeroArg());
+        assertEquals(0, proxy.zeroArg());
+        assertEquals(1, proxy.singleArg("a"));
+        assertEquals(2, proxy.singleArg(null));
+        assertEquals(1, proxy.singleArg("a"));
+        assertEquals(2, proxy.singleArg(null));
+        assertEquals(3, proxy.pair("a", 1));
+        assertEquals(3, proxy.pair("a", 1));
+
+        assertEquals(4, proxy.notCached(1));
+        assertEquals(5, proxy.notCached(1));
+
+        assertEquals(6, proxy.cachedWithPolicy(1));
+        assertEquals(6, proxy.cachedWithPolicy(1));
+        assertEquals(7, proxy.cachedWithPolicy(2));
+        assertEquals(8, proxy.cachedWithPolicy(1));
+        timeSource.time.set(10);
+        assertEquals(9, proxy.cachedWithPolicy(1));
+
+        CachedProxy cachedProxy = (CachedProxy) proxy;
+        assertEquals(1, cachedProxy.getCacheStats("zeroArg").getHitCount());
+        assertEquals(2, cachedProxy.getCacheStats("singleArg").getMissCount());
+        assertEquals(0, cachedProxy.getCacheStats("notCached").getMissCount());
+        assertEquals(3, cachedProxy.getCacheStats("cachedWithPolicy").getEvictionCount());
+        assertEquals(5, cachedProxy.getCacheStats().getHitCount());
+    }
+
+    @Test
+    public void invalidationTest() {
+
+        AnnotatedInterface proxy = CachedProxy.wrap(new AnnotatedClass(), AnnotatedInterface.class);
+        CachedProxy cachedProxy = (CachedProxy) proxy;
+        assertEquals(0, proxy.zeroArg());
+        assertEquals(1, proxy.singleArg("a"));
+        assertEquals(2, proxy.singleArg("b"));
+        assertEquals(3, proxy.pair("a", 1));
+
+        cachedProxy.dropCachedValue("singleArg", "a");
+        assertEquals(4, proxy.singleArg("a"));
+        assertEquals(2, proxy.singleArg("b"));
+        assertEquals(0, proxy.zeroArg());
+
+        cachedProxy.dropCachedValue("pair", "a", 1);
+        assertEquals(5, proxy.pair("a", 1));
+
+        cachedProxy.dropCaches("zeroArg");
+        assertEquals(6, proxy.zeroArg());
+        assertEquals(4, proxy.singleArg("a"));
+
+        cachedProxy.dropCaches();
+        assertEquals(7, proxy.singleArg("a"));
+    }
+
+    @Test
+    public void annotatedOnlyTest() {
+
+        AnnotatedInterface proxy = CachedProxy.policy().annotatedOnly(true)
+                                              .wrap(new AnnotatedClass(), AnnotatedInterface.class);
+        assertEquals(0, proxy.zeroArg());
+        assertEquals(1, proxy.zeroArg());
+        assertEquals(2, proxy.cachedWithPolicy(1));
+        assertEquals(2, proxy.cachedWithPolicy(1));
+    }
+
+    private interface AsyncInterface {
+
+        CompletableFuture<Integer> lookup(int key);
+    }
+
+    private static class AsyncClass implements AsyncInterface {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+        private volatile CompletableFuture<Integer> next;
+
+        @Override
+        public CompletableFuture<Integer> lookup(int key) {
+            int invocation = invocations.getAndIncrement();
+            CompletableFuture<Integer> next = this.next;
+            return next != null ? next : CompletableFuture.completedFuture(invocation);
+        }
+    }
+
+    @Test
+    public void asyncTest() throws Exception {
+
+        AsyncClass asyncObject = new AsyncClass();
+        AsyncInterface asyncProxy = CachedProxy.wrap(asyncObject, AsyncInterface.class);
+
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        asyncObject.next = pending;
+        CompletableFuture<Integer> first = asyncProxy.lookup(1);
+        CompletableFuture<Integer> second = asyncProxy.lookup(1);
+        assertThat(first).isNotSameAs(second).isNotSameAs(pending);
+        assertThat(first.isDone()).isFalse();
+        assertEquals(1, asyncObject.invocations.get());
+
+        pending.complete(42);
+        assertEquals(42, (int) first.getNow(null));
+        assertEquals(42, (int) second.getNow(null));
+        first.obtrudeValue(0);
+        assertEquals(42, (int) asyncProxy.lookup(1).getNow(null));
+        assertEquals(1, asyncObject.invocations.get());
+
+        CompletableFuture<Integer> failing = new CompletableFuture<>();
+        asyncObject.next = failing;
+        CompletableFuture<Integer> failed = asyncProxy.lookup(2);
+        failing.completeExceptionally(new IllegalStateException());
+        assertThat(failed.isCompletedExceptionally()).isTrue();
+        asyncObject.next = null;
+        assertEquals(2, (int) asyncProxy.lookup(2).getNow(null));
+        assertEquals(1, ((CachedProxy) asyncProxy).getCacheStats().getLoadFailureCount());
+    }
+
+    @Test
+    public void asyncRefreshTest() throws Exception {
+
+        ManualTimeSource timeSource = new ManualTimeSource();
+        AsyncClass asyncObject = new AsyncClass();
+        AsyncInterface asyncProxy = CachedProxy.policy().expireAfterWrite(TimePeriod.ofSeconds(10))
+                                               .refreshAfterWrite(TimePeriod.ofSeconds(5))
+                                               .timeSource(timeSource)
+                                               .wrap(asyncObject, AsyncInterface.class);
+        assertEquals(0, (int) asyncProxy.lookup(1).getNow(null));
+        timeSource.time.set(4);
+        assertEquals(0, (int) asyncProxy.lookup(1).getNow(null));
+        assertEquals(1, asyncObject.invocations.get());
+
+        CompletableFuture<Integer> refreshing = new CompletableFuture<>();
+        asyncObject.next = refreshing;
+        timeSource.time.set(6);
+        assertEquals(0, (int) asyncProxy.lookup(1).getNow(null));
+        assertEquals(0, (int) asyncProxy.lookup(1).getNow(null));
+        assertEquals(2, asyncObject.invocations.get());
+
+        refreshing.complete(100);
+        assertEquals(100, (int) asyncProxy.lookup(1).getNow(null));
+        timeSource.time.set(10);
+        assertEquals(100, (int) asyncProxy.lookup(1).getNow(null));
+        assertEquals(2, asyncObject.invocations.get());
+    }
+
+    private interface StageInterface {
+
+        CompletionStage<Integer> stage(int key);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void completionStageTest() throws Exception {
+
+        AtomicInteger invocations = new AtomicInteger();
+        StageInterface stageObject = key -> {
+            CompletableFuture<Integer> future = CompletableFuture.completedFuture(invocations.getAndIncrement());
+            return (CompletionStage<Integer>) java.lang.reflect.Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[] { CompletionStage.class },
+                    (proxy, method, args) -> method.invoke(future, args));
+        };
+        StageInterface stageProxy = CachedProxy.wrap(stageObject, StageInterface.class);
+        assertEquals(0, (int) stageProxy.stage(1).toCompletableFuture().getNow(null));
+        assertEquals(0, (int) stageProxy.stage(1).toCompletableFuture().getNow(null));
+        assertEquals(1, invocations.get());
+    }
 }
@@ -0,0 +1,80 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 21.10.26 13:05
+ */
+public class ClassDispatcherTest extends AbstractTest {
+
+    @Test
+    public void mostSpecificDispatchTest() {
+        ClassDispatcher<String> dispatcher = ClassDispatcher.<String>create()
+                                                            .register(Object.class, "object")
+                                                            .register(Number.class, "number")
+                                                            .register(Integer.class, "integer")
+                                                            .register(CharSequence.class, "chars");
+
+        assertThat(dispatcher.dispatch(1)).isEqualTo("integer");
+        assertThat(dispatcher.dispatch(1L)).isEqualTo("number");
+        assertThat(dispatcher.dispatch(BigDecimal.ONE)).isEqualTo("number");
+        assertThat(dispatcher.dispatch("s")).isEqualTo("chars");
+        assertThat(dispatcher.dispatch(new Object())).isEqualTo("object");
+        assertThat(dispatcher.resolveType(Long.class)).isEqualTo(Number.class);
+        assertThat(dispatcher.resolveType(StringBuilder.class)).isEqualTo(CharSequence.class);
+    }
+
+    @Test
+    public void registrationInvalidatesCacheTest() {
+        ClassDispatcher<String> dispatcher = ClassDispatcher.create();
+        assertThat(dispatcher.dispatch(1L)).isNull();
+        assertThat(dispatcher.resolveType(Long.class)).isNull();
+
+        dispatcher.register(Number.class, "number");
+        assertThat(dispatcher.dispatch(1L)).isEqualTo("number");
+
+        dispatcher.register(Long.class, "long");
+        assertThat(dispatcher.dispatch(1L)).isEqualTo("long");
+        assertThat(dispatcher.dispatch(1)).isEqualTo("number");
+
+        dispatcher.register(Number.class, "another number");
+        assertThat(dispatcher.dispatch(1)).isEqualTo("another number");
+        assertThat(dispatcher.getHandlers().keySet()).containsExactly(Long.class, Number.class);
+
+        assertThat(dispatcher.unregister(Long.class)).isEqualTo("long");
+        assertThat(dispatcher.unregister(Long.class)).isNull();
+        assertThat(dispatcher.dispatch(1L)).isEqualTo("another number");
+    }
+
+    @Test
+    public void interfaceDispatchTest() {
+        ClassDispatcher<String> dispatcher = ClassDispatcher.<String>create()
+                                                            .register(Marker.class, "marker")
+                                                            .register(Ordered.class, "ordered");
+        assertThat(dispatcher.dispatch(new Both())).isEqualTo("ordered");
+        assertThat(dispatcher.dispatch(new OnlyMarker())).isEqualTo("marker");
+        assertThat(dispatcher.dispatch(new OrderedChild())).isEqualTo("ordered");
+        assertThat(dispatcher.dispatch(new Object())).isNull();
+    }
+
+    private interface Marker {
+    }
+
+    private interface Ordered {
+    }
+
+    private static class Both implements Marker, Ordered {
+    }
+
+    private static class OnlyMarker implements Marker {
+    }
+
+    private static class OrderedChild extends OnlyMarker implements Ordered {
+    }
+}
@@ -5,6 +5,8 @@ import org.libsmith.anvil.AbstractTest;
 import org.libsmith.anvil.EqualityAssertions;
 import org.libsmith.anvil.reflection.ReflectiveOperationRuntimeException.NoSuchMemberRuntimeException;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
@@ -41,6 +43,59 @@ public class ClassReflectionTest extends AbstractTest {
                                .getReflectionSubject());
     }
 
+    @Test
+    public void sharedInstanceTest() {
+
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+        assertThat(ClassReflection.of(Subject.class)).isSameAs(reflection);
+        assertThat(ClassReflection.ofInstance(new Subject())).isSameAs(reflection);
+        assertThat(reflection.getFullHierarchy()).isSameAs(ClassReflection.of(Subject.class).getFullHierarchy());
+
+        assertThat(reflection.getAllMethods()).isSameAs(ClassReflection.of(Subject.class).getAllMethods());
+        assertThat(reflection.getLocalFields()).isSameAs(ClassReflection.of(Subject.class).getLocalFields());
+
+        FieldAccessor.Regular<Subject, ?> accessor = reflection.localField("PRIVATE_FIELD").accessible(true);
+        assertThat(accessor.getReflectionSubject().isAccessible()).isTrue();
+        assertThat(reflection.getLocalField("PRIVATE_FIELD").isAccessible()).isFalse();
+        assertThat(reflection.getLocalFields()).allMatch(f -> !f.isAccessible());
+
+        MethodInvoker.NoArgument<Subject, ?> invoker = reflection.localMethod("privateMethod").noParams()
+                                                                 .accessible(true);
+        assertThat(invoker.invokeAt(new Subject())).isNotNull();
+        assertThat(reflection.getLocalMethod("privateMethod").isAccessible()).isFalse();
+        assertThat(reflection.getAllMethods()).allMatch(m -> !m.isAccessible());
+    }
+
+    @Test
+    public void indexedLookupTest() {
+
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+
+        Method method = reflection.getMethod("publicMethod");
+        assertThat(method).isSameAs(reflection.getMethod("publicMethod"));
+        assertThat(method.getDeclaringClass()).isEqualTo(Subject.class);
+
+        assertThat(reflection.getMethodOp("parentPublicMethod")).isPresent();
+        assertThat(reflection.getMethodOp("privateMethod")).isEmpty();
+        assertThat(reflection.getMethodOp("publicMethod", String.class)).isEmpty();
+        assertThat(reflection.getLocalMethodOp("privateMethod")).isPresent();
+        assertThat(reflection.getLocalMethodOp("parentPublicMethod")).isEmpty();
+
+        assertThat(reflection.getFieldOp("PARENT_PUBLIC_FIELD")).isPresent();
+        assertThat(reflection.getFieldOp("INTERFACE_FIELD")).isPresent();
+        assertThat(reflection.getFieldOp("PRIVATE_FIELD")).isEmpty();
+        assertThat(reflection.getLocalFieldOp("PRIVATE_FIELD").map(Field::getDeclaringClass)).contains(Subject.class);
+        assertThat(reflection.getLocalFieldOp("PARENT_PUBLIC_FIELD")).isEmpty();
+
+        assertThat(reflection.getConstructorOp()).isPresent();
+        assertThat(reflection.getConstructorOp(String.class)).isEmpty();
+
+        assertThatThrownBy(() -> reflection.getMethod("publicMethod", int.class))
+                .isInstanceOf(NoSuchMemberRuntimeException.class)
+                .hasCauseInstanceOf(NoSuchMethodException.class)
+                .hasMessageContaining("publicMethod(int)");
+    }
+
     @Test
     public void allFieldsTest() {
 
@@ -294,6 +349,35 @@ public class ClassReflectionTest extends AbstractTest {
                           .notEqualsTo(ClassReflection.of(Void.class));
     }
 
+    @Test
+    public void annotationIndexTest() throws NoSuchMethodException, NoSuchFieldException {
+
+        AnnotationIndex index = ClassReflection.of(AnnotatedSubject.class).getAnnotationIndex();
+        assertThat(index).isSameAs(ClassReflection.of(AnnotatedSubject.class).getAnnotationIndex());
+
+        assertThat(index.getAnnotation(Tag.class).value()).isEqualTo("subject");
+        assertThat(index.isAnnotated(Marked.class)).isTrue();
+        assertThat(index.getAnnotationOp(Deprecated.class)).isEmpty();
+
+        Method overriding = AnnotatedSubject.class.getDeclaredMethod("run");
+        Method overridden = AnnotatedInterface.class.getDeclaredMethod("run");
+        assertThat(index.getAnnotation(overriding, Tag.class).value()).isEqualTo("interface run");
+        assertThat(index.isAnnotated(overriding, Marked.class)).isTrue();
+        assertThat(index.getMethodsAnnotatedWith(Tag.class)).containsExactlyInAnyOrder(overriding, overridden);
+        assertThat(index.getMethodsAnnotatedWith(Marked.class))
+                .containsExactlyInAnyOrder(overriding, overridden, AnnotatedSubject.class.getDeclaredMethod("marked"));
+        assertThat(index.getMethodsAnnotatedWith(Deprecated.class)).isEmpty();
+        assertThat(index.getAnnotations(AnnotatedSubject.class.getDeclaredMethod("plain"))).isEmpty();
+
+        Field field = AnnotatedSubject.class.getDeclaredField("field");
+        assertThat(index.getFieldsAnnotatedWith(Marked.class)).containsExactly(field)
+                                                              .isSameAs(index.getFieldsAnnotatedWith(Marked.class));
+        assertThat(index.getAnnotation(field, Tag.class).value()).isEqualTo("field");
+
+        Method foreign = Subject.class.getDeclaredMethod("publicMethod");
+        assertThat(index.getAnnotations(foreign)).isEmpty();
+    }
+
     @SuppressWarnings("unused")
     private interface Interface {
         String INTERFACE_FIELD = "if";
@@ -340,4 +424,41 @@ public class ClassReflectionTest extends AbstractTest {
         @Override
         void abstractMethod() { }
     }
+
+    @Marked
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface Tag {
+        String value();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface Marked {
+    }
+
+    @Tag("interface")
+    private interface AnnotatedInterface extends Runnable {
+
+        @Override
+        @Tag("interface run")
+        void run();
+    }
+
+    @Tag("subject")
+    @SuppressWarnings("unused")
+    private static class AnnotatedSubject implements AnnotatedInterface {
+
+        @Tag("field")
+        private int field;
+
+        @Override
+        public void run() {
+        }
+
+        @Marked
+        void marked() {
+        }
+
+        void plain() {
+        }
+    }
 }
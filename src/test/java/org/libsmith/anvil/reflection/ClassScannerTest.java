@@ -0,0 +1,142 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.libsmith.anvil.AbstractTest;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 22.10.26 12:40
+ */
+public class ClassScannerTest extends AbstractTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void directoryScanTest() throws Exception {
+        Path root = Paths.get(ClassScannerTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        ClassScanner.Index index = ClassScanner.of(root)
+                                               .withPackages(ClassScannerTest.class.getPackage().getName())
+                                               .withPool(new ForkJoinPool(4))
+                                               .scan();
+
+        assertThat(index.get(ClassScannerTest.class.getName())).isNotNull();
+        assertThat(index.getClasses()).allMatch(c -> c.getName().startsWith("org.libsmith.anvil.reflection."));
+
+        assertThat(index.getAnnotatedWith(Marker.class).stream().map(ClassScanner.ClassInfo::getName))
+                .containsExactlyInAnyOrder(Annotated.class.getName(), MarkedInterface.class.getName());
+        assertThat(index.getSubtypesOf(Base.class).stream().map(ClassScanner.ClassInfo::getName))
+                .containsExactlyInAnyOrder(Annotated.class.getName(), SubAnnotated.class.getName());
+        assertThat(index.getSubtypesOf(MarkedInterface.class).stream().map(ClassScanner.ClassInfo::getName))
+                .containsExactlyInAnyOrder(Annotated.class.getName(), SubAnnotated.class.getName());
+
+        ClassScanner.ClassInfo annotated = index.get(Annotated.class.getName());
+        assertThat(annotated.getSuperName()).isEqualTo(Base.class.getName());
+        assertThat(annotated.getInterfaceNames()).containsExactly(MarkedInterface.class.getName());
+        assertThat(annotated.getAnnotationNames()).containsExactly(Marker.class.getName());
+        assertThat(annotated.isAnnotatedWith(Marker.class)).isTrue();
+        assertThat(annotated.isInterface()).isFalse();
+        assertThat(annotated.getModifiers()).containsExactly(Modifier.PUBLIC);
+        assertThat(annotated.getRoot()).isEqualTo(root);
+        assertThat(annotated.reflect(getClass().getClassLoader())).isSameAs(ClassReflection.of(Annotated.class));
+
+        ClassScanner.ClassInfo markedInterface = index.get(MarkedInterface.class.getName());
+        assertThat(markedInterface.isInterface()).isTrue();
+        assertThat(markedInterface.isAbstract()).isTrue();
+        assertThat(index.get(Marker.class.getName()).isAnnotation()).isTrue();
+    }
+
+    @Test
+    public void jarScanTest() throws Exception {
+        Path jar = temporaryFolder.newFile("classes.jar").toPath();
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Class<?> type : new Class<?>[] { Base.class, Annotated.class, SubAnnotated.class }) {
+                String path = type.getName().replace('.', '/') + ".class";
+                output.putNextEntry(new JarEntry(path));
+                try (InputStream input = type.getClassLoader().getResourceAsStream(path)) {
+                    copy(input, output);
+                }
+            }
+            output.putNextEntry(new JarEntry("org/example/Garbage.class"));
+            output.write(new byte[] { 1, 2, 3 });
+            output.putNextEntry(new JarEntry("META-INF/versions/9/org/example/Versioned.class"));
+            output.putNextEntry(new JarEntry("org/example/readme.txt"));
+        }
+        Path missing = temporaryFolder.getRoot().toPath().resolve("missing.jar");
+
+        ClassScanner.Index index = ClassScanner.of(jar, missing).scan();
+
+        assertThat(index.getClasses().stream().map(ClassScanner.ClassInfo::getName).collect(Collectors.toList()))
+                .containsExactly(Base.class.getName(), Annotated.class.getName(), SubAnnotated.class.getName());
+        assertThat(index.get(Annotated.class.getName()).getRoot()).isEqualTo(jar);
+        assertThat(index.getAnnotatedWith(Marker.class)).containsExactly(index.get(Annotated.class.getName()));
+        assertThat(index.getSubtypesOf(Object.class)).hasSize(3);
+    }
+
+    @Test
+    public void firstRootWinsTest() throws Exception {
+        Path first = temporaryFolder.newFolder("first").toPath();
+        Path second = temporaryFolder.newFile("second.jar").toPath();
+        String path = Base.class.getName().replace('.', '/') + ".class";
+        Files.createDirectories(first.resolve(path).getParent());
+        try (InputStream input = Base.class.getClassLoader().getResourceAsStream(path);
+             OutputStream output = Files.newOutputStream(first.resolve(path))) {
+            copy(input, output);
+        }
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(second));
+             InputStream input = Base.class.getClassLoader().getResourceAsStream(path)) {
+            output.putNextEntry(new JarEntry(path));
+            copy(input, output);
+        }
+
+        assertThat(ClassScanner.of(first, second).scan().get(Base.class.getName()).getRoot()).isEqualTo(first);
+        assertThat(ClassScanner.of(second, first).scan().get(Base.class.getName()).getRoot()).isEqualTo(second);
+    }
+
+    private static void copy(InputStream input, OutputStream output) throws Exception {
+        byte[] buffer = new byte[4096];
+        for (int read; (read = input.read(buffer)) >= 0; ) {
+            output.write(buffer, 0, read);
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Marker {
+        String[] value() default {};
+        ElementType type() default ElementType.TYPE;
+        Deprecated nested() default @Deprecated;
+        Class<?> target() default Object.class;
+    }
+
+    @Marker
+    public interface MarkedInterface
+    { }
+
+    public static class Base
+    { }
+
+    @Marker(value = { "a", "b" }, type = ElementType.FIELD, target = String.class)
+    public static class Annotated extends Base implements MarkedInterface
+    { }
+
+    @SuppressWarnings("unused")
+    public static class SubAnnotated extends Annotated
+    { }
+}
@@ -0,0 +1,103 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 17.10.26 19:12
+ */
+public class ConstructorInvokerTest extends AbstractTest {
+
+    @Test
+    public void compiledConstructionTest() {
+
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+
+        assertThat(reflection.constructor().noParams().accessible(true).backend(Backend.COMPILED).construct().value)
+                .isEqualTo("default");
+
+        assertThat(reflection.constructor().params(String.class).accessible(true).backend(Backend.COMPILED)
+                             .construct("a").value)
+                .isEqualTo("a");
+
+        assertThat(reflection.constructor().params(String.class, int.class).accessible(true)
+                             .backend(Backend.COMPILED).construct("b", 2).value)
+                .isEqualTo("bb");
+
+        assertThat(reflection.constructor().paramsUnchecked(String.class).accessible(true)
+                             .backend(Backend.COMPILED).construct("c").value)
+                .isEqualTo("c");
+    }
+
+    @Test
+    public void compiledFunctionalViewsTest() {
+
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+
+        Supplier<Subject> supplier = reflection.constructor().noParams().accessible(true)
+                                               .backend(Backend.COMPILED).asSupplier();
+        assertThat(supplier.get().value).isEqualTo("default");
+        assertThat(supplier.get()).isNotSameAs(supplier.get());
+
+        Function<String, Subject> function = reflection.constructor().params(String.class).accessible(true)
+                                                       .backend(Backend.COMPILED).asFunction();
+        assertThat(function.apply("x").value).isEqualTo("x");
+
+        BiFunction<String, Integer, Subject> biFunction = reflection.constructor().params(String.class, int.class)
+                                                                    .accessible(true).backend(Backend.COMPILED)
+                                                                    .asBiFunction();
+        assertThat(biFunction.apply("y", 3).value).isEqualTo("yyy");
+
+        Function<String, BigInteger> bigInteger = ClassReflection.of(BigInteger.class).constructor()
+                                                                 .params(String.class).backend(Backend.COMPILED)
+                                                                 .asFunction();
+        assertThat(bigInteger.apply("42").intValue()).isEqualTo(42);
+    }
+
+    @Test
+    public void exceptionPropagationTest() {
+
+        ConstructorInvoker.SingleArgument<BigInteger, String> invoker = ClassReflection.of(BigInteger.class)
+                                                                                       .constructor()
+                                                                                       .params(String.class);
+        for (Backend backend : Backend.values()) {
+            assertThatThrownBy(() -> invoker.backend(backend).construct("x"))
+                    .isInstanceOf(ReflectiveOperationRuntimeException.class)
+                    .hasCauseInstanceOf(InvocationTargetException.class)
+                    .hasRootCauseInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Subject {
+
+        private final String value;
+
+        private Subject() {
+            this("default");
+        }
+
+        private Subject(String value) {
+            this.value = value;
+        }
+
+        private Subject(String value, int times) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < times; i++) {
+                sb.append(value);
+            }
+            this.value = sb.toString();
+        }
+    }
+}
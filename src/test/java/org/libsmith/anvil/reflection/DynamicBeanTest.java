@@ -2,11 +2,23 @@ package org.libsmith.anvil.reflection;
 
 import org.junit.Assert;
 import org.junit.Test;
-
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
+import org.libsmith.anvil.time.ImmutableDate;
+import org.libsmith.anvil.time.TimePeriod;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -200,6 +212,25 @@ public class DynamicBeanTest {
         }
     }
 
+    @Test
+    public void declaredAnnotationsTest() {
+        HashMap<String, Object> map = new HashMap<>();
+        map.put("x", "plain");
+        map.put("z", "overridden");
+        map.put("com.test.x", "namespaced");
+        map.put("com.test.renamed", "described");
+
+        UndescribedChildIface child = DynamicBean.of(map).as(UndescribedChildIface.class);
+        Assert.assertEquals("plain", child.getX());
+        Assert.assertEquals("overridden", child.getZ());
+        Assert.assertEquals("described", DynamicBean.of(map).as(DescribedParentIface.class).getZ());
+        for (Backend backend : Backend.values()) {
+            child = DynamicBean.of(map).withBackend(backend).as(UndescribedChildIface.class);
+            Assert.assertEquals("plain", child.getX());
+            Assert.assertEquals("overridden", child.getZ());
+        }
+    }
+
     @Test
     public void asMapTest() {
         GenericInterface gi = DynamicBean.of(new HashMap<>()).as(GenericInterface.class);
@@ -247,6 +278,257 @@ public class DynamicBeanTest {
         Assert.assertNotEquals(dynamicBean.as(DefaultMethodInterface.class), dynamicBean.as(GenericInterface.class));
     }
 
+    @Test
+    public void compiledBackendTest() {
+        HashMap<String, Object> map = new HashMap<>();
+        DynamicBean dynamicBean = DynamicBean.of(map).withBackend(Backend.COMPILED);
+
+        DefaultMethodInterface dmi = dynamicBean.as(DefaultMethodInterface.class);
+        Assert.assertFalse(Proxy.isProxyClass(dmi.getClass()));
+        Assert.assertSame(dmi, dynamicBean.as(DefaultMethodInterface.class));
+        dmi.setSomeProperty("asdf");
+        Assert.assertEquals("asdf", map.get("someProperty"));
+        Assert.assertEquals("Hello asdf!", dmi.makeSomeHello());
+        Assert.assertEquals("asdf", dmi.as(OptionalGetterInterface.class).getSomeProperty().orElse(null));
+        Assert.assertEquals("asdf", dmi.as(Map.class).get("someProperty"));
+        Assert.assertEquals(dmi, dmi);
+        Assert.assertNotEquals(dmi, dynamicBean.detach().as(DefaultMethodInterface.class));
+
+        BooleanInterface booleanInterface = dynamicBean.as(BooleanInterface.class);
+        Assert.assertFalse(booleanInterface.isValue());
+        Assert.assertNull(booleanInterface.getValue());
+        booleanInterface.setValue(true);
+        Assert.assertTrue(booleanInterface.isValue());
+        Assert.assertTrue(booleanInterface.getValue());
+
+        PrimitiveInterface primitives = dynamicBean.as(PrimitiveInterface.class);
+        primitives.setLongValue(42L);
+        primitives.setDoubleValue(0.5);
+        Assert.assertEquals(42L, primitives.getLongValue());
+        Assert.assertEquals(0.5, primitives.getDoubleValue(), 0);
+        Assert.assertEquals(42L, primitives.setPreviousLongValue(43L));
+        Assert.assertEquals(43L, map.get("longValue"));
+        Assert.assertEquals("43:0.5", primitives.format(":"));
+
+        AsClassPnsNameSpacingIface ns = dynamicBean.as(AsClassPnsNameSpacingIface.class);
+        ns.setAsClValue("fffggg");
+        Assert.assertEquals("fffggg", map.get(AsClassNameSpacingIface.class.getCanonicalName() + ".asClValue"));
+        Assert.assertEquals("fffggg", ns.getAsClValue());
+
+        try {
+            dmi.unsupportedMethod();
+            Assert.fail();
+        }
+        catch (UnsupportedOperationException ignored)
+        { }
+    }
+
+    @Test
+    public void compiledContextMapTest() {
+        HashMap<String, Object> propetiesA = new HashMap<>();
+        HashMap<String, Object> propetiesB = new HashMap<>();
+        AtomicInteger a = new AtomicInteger();
+        DynamicBean dynamicBean = DynamicBean.of(() -> a.incrementAndGet() % 2 == 0 ? propetiesA : propetiesB)
+                                             .withBackend(Backend.COMPILED);
+        GenericInterface genericInterface = dynamicBean.as(GenericInterface.class);
+        genericInterface.setSomeProperty("qwerty");
+        genericInterface.setSomeProperty("asdfgh");
+        Assert.assertEquals("qwerty", genericInterface.getSomeProperty());
+        Assert.assertEquals("asdfgh", genericInterface.getSomeProperty());
+
+        GenericInterface detached = genericInterface.detach().as(GenericInterface.class);
+        Assert.assertFalse(Proxy.isProxyClass(detached.getClass()));
+        Assert.assertEquals("qwerty", detached.getSomeProperty());
+        Assert.assertEquals("qwerty", detached.getSomeProperty());
+    }
+
+    @Test
+    public void schemaTest() {
+        DynamicBeanSchema<PrimitiveInterface> schema = DynamicBean.schema(PrimitiveInterface.class);
+        Assert.assertSame(schema, DynamicBean.schema(PrimitiveInterface.class));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("longValue", "doubleValue")), schema.getPropertyNames());
+
+        PrimitiveInterface bean = schema.newInstance();
+        Assert.assertFalse(Proxy.isProxyClass(bean.getClass()));
+        Assert.assertEquals(0L, bean.getLongValue());
+        bean.setLongValue(42L);
+        bean.setDoubleValue(-0.5);
+        Assert.assertEquals(42L, bean.getLongValue());
+        Assert.assertEquals(-0.5, bean.getDoubleValue(), 0);
+        Assert.assertEquals(42L, bean.setPreviousLongValue(43L));
+        Assert.assertEquals(-0.5, bean.setDoubleValue(1.5));
+        Assert.assertEquals("43:1.5", bean.format(":"));
+
+        Map<String, Object> map = schema.toMap(bean);
+        Assert.assertEquals(43L, map.get("longValue"));
+        Assert.assertEquals(1.5, map.get("doubleValue"));
+        Assert.assertEquals(43L, bean.as(Map.class).get("longValue"));
+        Assert.assertEquals(43L, bean.detach().as(SplitLongGetterInterface.class).getLongValue());
+        Assert.assertSame(bean.as(Map.class), bean.as(Map.class));
+        bean.setLongValue(44L);
+        Assert.assertEquals(44L, bean.as(Map.class).get("longValue"));
+        Assert.assertEquals(44L, bean.as(SplitLongGetterInterface.class).getLongValue());
+        bean.setLongValue(43L);
+
+        PrimitiveInterface copy = schema.newInstance(map);
+        Assert.assertEquals(43L, copy.getLongValue());
+        schema.asMap(copy).put("longValue", 7L);
+        Assert.assertEquals(7L, copy.getLongValue());
+        Assert.assertEquals(43L, bean.getLongValue());
+        try {
+            schema.asMap(copy).put("unknown", 1);
+            Assert.fail();
+        }
+        catch (IllegalArgumentException ignored)
+        { }
+    }
+
+    @Test
+    public void schemaMixedSlotsTest() {
+        DynamicBeanSchema<BooleanInterface> schema = DynamicBean.schema(BooleanInterface.class);
+        BooleanInterface bean = schema.newInstance(Collections.singletonMap("value", true));
+        Assert.assertTrue(bean.isValue());
+        Assert.assertTrue(bean.getValue());
+        bean.setValue(false);
+        Assert.assertFalse(bean.isValue());
+        Assert.assertEquals(Boolean.FALSE, schema.asMap(bean).get("value"));
+
+        DynamicBeanSchema<AsClassPnsNameSpacingIface> namespaced = DynamicBean.schema(AsClassPnsNameSpacingIface.class);
+        AsClassPnsNameSpacingIface nsBean = namespaced.newInstance();
+        nsBean.setValue("qwe");
+        nsBean.setAsClValue("asd");
+        Assert.assertEquals("qwe", nsBean.getValue());
+        Assert.assertEquals("asd", nsBean.getAsClValue());
+        Assert.assertEquals("qwe", namespaced.asMap(nsBean).get("com.test.value"));
+        Assert.assertEquals("asd", namespaced.asMap(nsBean)
+                                             .get(AsClassNameSpacingIface.class.getCanonicalName() + ".asClValue"));
+        Assert.assertEquals(Optional.of("qwe"), Optional.ofNullable(nsBean.as(NameSpacingIface.class).getValue()));
+    }
+
+    @Test
+    public void typedConversionTest() {
+        for (Backend backend : Backend.values()) {
+            HashMap<String, Object> map = new HashMap<>();
+            map.put("port", "8080");
+            map.put("timeout", "30s");
+            map.put("retries", 3L);
+            map.put("codes", "1, 2,3");
+            map.put("since", "2016-10-05T01:38:00Z");
+            map.put("unit", "seconds");
+            map.put("enabled", "TRUE");
+            map.put("ratio", 0.25);
+            ConversionInterface bean = DynamicBean.of(map).withBackend(backend).as(ConversionInterface.class);
+
+            Assert.assertEquals(8080, bean.getPort());
+            Assert.assertEquals(TimePeriod.ofSeconds(30), bean.getTimeout());
+            Assert.assertSame(bean.getTimeout(), bean.getTimeout());
+            Assert.assertEquals(Optional.of(3), bean.getRetries());
+            Assert.assertEquals(Arrays.asList(1, 2, 3), bean.getCodes());
+            Assert.assertEquals(Instant.parse("2016-10-05T01:38:00Z").toEpochMilli(), bean.getSince().getTime());
+            Assert.assertEquals(TimeUnit.SECONDS, bean.getUnit());
+            Assert.assertTrue(bean.isEnabled());
+            Assert.assertEquals(new BigDecimal("0.25"), bean.getRatio());
+
+            bean.setTimeout("1m");
+            Assert.assertEquals(TimePeriod.ofMinutes(1), bean.getTimeout());
+            map.put("port", 80);
+            Assert.assertEquals(80, bean.getPort());
+            map.put("port", "http");
+            try {
+                bean.getPort();
+                Assert.fail();
+            }
+            catch (IllegalArgumentException ignored)
+            { }
+        }
+    }
+
+    @Test
+    public void passThroughConversionTest() {
+        for (Backend backend : Backend.values()) {
+            HashMap<String, Object> map = new HashMap<>();
+            List<String> names = new ArrayList<>(Arrays.asList("a", "b"));
+            map.put("names", names);
+            map.put("enabled", "yes");
+            ConversionInterface bean = DynamicBean.of(map).withBackend(backend).as(ConversionInterface.class);
+
+            Assert.assertSame(names, bean.getNames());
+            bean.getNames().add("c");
+            Assert.assertEquals(Arrays.asList("a", "b", "c"), names);
+            Assert.assertFalse(bean.isEnabled());
+
+            map.put("names", "x, y");
+            Assert.assertEquals(Arrays.asList("x", "y"), bean.getNames());
+        }
+    }
+
+    @Test
+    public void versionedConversionTest() {
+        AtomicInteger lookups = new AtomicInteger();
+        VersionedMap map = new VersionedMap(lookups);
+        map.put("port", "8080");
+        ConversionInterface bean = DynamicBean.of(map).as(ConversionInterface.class);
+
+        Assert.assertEquals(8080, bean.getPort());
+        Assert.assertEquals(8080, bean.getPort());
+        Assert.assertEquals(1, lookups.get());
+
+        map.put("port", "8081");
+        Assert.assertEquals(8081, bean.getPort());
+        Assert.assertEquals(8081, bean.getPort());
+        Assert.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void schemaConversionTest() {
+        DynamicBeanSchema<ConversionInterface> schema = DynamicBean.schema(ConversionInterface.class);
+        ConversionInterface bean = schema.newInstance(Collections.singletonMap("port", "8080"));
+        Assert.assertEquals(8080, bean.getPort());
+        schema.asMap(bean).put("timeout", "5s");
+        Assert.assertEquals(TimePeriod.ofSeconds(5), bean.getTimeout());
+    }
+
+    @Test
+    public void versionedPropertiesTest() {
+        VersionedProperties properties = new VersionedProperties(Collections.singletonMap("port", "8080"));
+        List<Set<String>> changes = new ArrayList<>();
+        properties.addListener((previous, current, changedKeys) -> {
+            Assert.assertEquals(previous.getVersion() + 1, current.getVersion());
+            changes.add(changedKeys);
+        });
+        DynamicBean dynamicBean = DynamicBean.of(properties);
+        ConversionInterface live = dynamicBean.as(ConversionInterface.class);
+        ConversionInterface snapshot = dynamicBean.snapshot().as(ConversionInterface.class);
+        Assert.assertEquals(8080, live.getPort());
+
+        live.setTimeout("5s");
+        Assert.assertEquals(1, properties.getVersion());
+        Assert.assertEquals(TimePeriod.ofSeconds(5), live.getTimeout());
+        Assert.assertNull(snapshot.getTimeout());
+
+        VersionedProperties.Snapshot before = properties.snapshot();
+        HashMap<String, Object> reloaded = new HashMap<>();
+        reloaded.put("port", "8081");
+        reloaded.put("timeout", "5s");
+        reloaded.put("unit", "DAYS");
+        properties.replace(reloaded);
+        properties.replace(reloaded);
+        Assert.assertEquals(2, properties.getVersion());
+        Assert.assertEquals(8081, live.getPort());
+        Assert.assertEquals(TimeUnit.DAYS, live.getUnit());
+        Assert.assertEquals(8080, snapshot.getPort());
+        Assert.assertEquals("8080", before.get("port"));
+        Assert.assertEquals(Arrays.asList(Collections.singleton("timeout"),
+                                          new HashSet<>(Arrays.asList("port", "unit"))), changes);
+
+        try {
+            dynamicBean.snapshot().as(ConversionInterface.class).setTimeout("1s");
+            Assert.fail();
+        }
+        catch (UnsupportedOperationException ignored)
+        { }
+    }
+
     interface PropertyDescribed {
 
         @DynamicBean.Property(name = "someProperty")
@@ -281,6 +563,66 @@ public class DynamicBeanTest {
         Boolean getValue();
     }
 
+    interface PrimitiveInterface extends DynamicBean {
+        long getLongValue();
+        void setLongValue(long value);
+        double getDoubleValue();
+        Object setDoubleValue(double value);
+
+        @DynamicBean.Property(name = "longValue")
+        Object setPreviousLongValue(long value);
+
+        default String format(String separator) {
+            return getLongValue() + separator + getDoubleValue();
+        }
+    }
+
+    interface SplitLongGetterInterface {
+        long getLongValue();
+    }
+
+    interface ConversionInterface {
+        int getPort();
+        TimePeriod getTimeout();
+        void setTimeout(String timeout);
+        Optional<Integer> getRetries();
+        List<Integer> getCodes();
+        List<String> getNames();
+        ImmutableDate getSince();
+        TimeUnit getUnit();
+        boolean isEnabled();
+        BigDecimal getRatio();
+    }
+
+    static class VersionedMap extends HashMap<String, Object> implements DynamicBean.Versioned {
+
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicInteger lookups;
+        private long version;
+
+        VersionedMap(AtomicInteger lookups) {
+            this.lookups = lookups;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public Object get(Object key) {
+            lookups.incrementAndGet();
+            return super.get(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            version++;
+            return super.put(key, value);
+        }
+    }
+
     interface OptionalGetterInterface {
         Optional<String> getSomeProperty();
     }
@@ -297,6 +639,21 @@ public class DynamicBeanTest {
         void setAnotherValue(String value);
     }
 
+    @DynamicBean.Namespace("com.test")
+    interface DescribedParentIface {
+
+        @DynamicBean.Property(name = "renamed")
+        String getZ();
+    }
+
+    interface UndescribedChildIface extends DescribedParentIface {
+
+        String getX();
+
+        @Override
+        String getZ();
+    }
+
     @DynamicBean.Namespace(as = AsClassNameSpacingIface.class)
     interface AsClassNameSpacingIface extends NameSpacingIface {
 
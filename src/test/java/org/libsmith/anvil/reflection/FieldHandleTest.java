@@ -0,0 +1,119 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 17.10.26 18:05
+ */
+public class FieldHandleTest extends AbstractTest {
+
+    @Test
+    public void primitiveAccessTest() {
+
+        Subject subject = new Subject();
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+
+        FieldHandle<Subject, ?> intHandle = reflection.localField("intField").accessible(true).asHandle();
+        assertThat(intHandle.getInt(subject)).isEqualTo(1);
+        intHandle.setInt(subject, 10);
+        assertThat(subject.intField).isEqualTo(10);
+
+        FieldHandle<Subject, ?> longHandle = reflection.localField("longField").accessible(true).asHandle();
+        longHandle.setLong(subject, 20L);
+        assertThat(longHandle.getLong(subject)).isEqualTo(20L);
+
+        FieldHandle<Subject, ?> doubleHandle = reflection.localField("doubleField").accessible(true).asHandle();
+        doubleHandle.setDouble(subject, 0.5);
+        assertThat(doubleHandle.getDouble(subject)).isEqualTo(0.5);
+
+        FieldHandle<Subject, ?> booleanHandle = reflection.localField("booleanField").accessible(true).asHandle();
+        booleanHandle.setBoolean(subject, true);
+        assertThat(booleanHandle.getBoolean(subject)).isTrue();
+
+        assertThatThrownBy(() -> intHandle.getLong(subject)).isInstanceOf(ClassCastException.class);
+    }
+
+    @Test
+    public void orderedAccessTest() {
+
+        Subject subject = new Subject();
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+
+        FieldHandle<Subject, ?> longHandle = reflection.localField("longField").accessible(true).asHandle();
+        longHandle.setLongVolatile(subject, 5);
+        assertThat(longHandle.getLongVolatile(subject)).isEqualTo(5);
+        assertThat(longHandle.compareAndSetLong(subject, 4, 6)).isFalse();
+        assertThat(longHandle.compareAndSetLong(subject, 5, 6)).isTrue();
+        assertThat(longHandle.getAndAddLong(subject, 10)).isEqualTo(6);
+        longHandle.setLongRelease(subject, 42);
+        assertThat(longHandle.getLongAcquire(subject)).isEqualTo(42);
+
+        FieldHandle<Subject, ?> intHandle = reflection.localField("intField").accessible(true).asHandle();
+        assertThat(intHandle.getAndAddInt(subject, 2)).isEqualTo(1);
+        assertThat(intHandle.compareAndSetInt(subject, 3, 7)).isTrue();
+        assertThat(intHandle.getIntVolatile(subject)).isEqualTo(7);
+
+        @SuppressWarnings("unchecked")
+        FieldHandle<Subject, String> stringHandle = (FieldHandle) reflection.localField("stringField")
+                                                                            .accessible(true).asHandle();
+        assertThat(stringHandle.compareAndSet(subject, "a", "b")).isTrue();
+        assertThat(stringHandle.getVolatile(subject)).isEqualTo("b");
+        stringHandle.setRelease(subject, "c");
+        assertThat(stringHandle.getAcquire(subject)).isEqualTo("c");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void safetyTest() {
+
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+
+        FieldHandle<Object, ?> intHandle = (FieldHandle) reflection.localField("intField").accessible(true).asHandle();
+        assertThatThrownBy(() -> intHandle.getIntVolatile(new Object())).isInstanceOf(ClassCastException.class);
+        assertThatThrownBy(() -> intHandle.getIntVolatile(null)).isInstanceOf(NullPointerException.class);
+
+        FieldHandle<Subject, Object> stringHandle = (FieldHandle) reflection.localField("stringField")
+                                                                            .accessible(true).asHandle();
+        assertThatThrownBy(() -> stringHandle.setVolatile(new Subject(), 1)).isInstanceOf(ClassCastException.class);
+
+        FieldHandle<Subject, ?> finalHandle = reflection.localField("FINAL_FIELD").accessible(true).asHandle();
+        assertThat(finalHandle.getInt(null)).isEqualTo(3);
+        assertThatThrownBy(() -> finalHandle.setInt(null, 4))
+                .isInstanceOf(ReflectiveOperationRuntimeException.class)
+                .hasCauseInstanceOf(IllegalAccessException.class);
+
+        assertThatThrownBy(() -> reflection.localField("intField").asHandle())
+                .isInstanceOf(ReflectiveOperationRuntimeException.class)
+                .hasCauseInstanceOf(IllegalAccessException.class);
+    }
+
+    @Test
+    public void compiledAccessorTest() {
+
+        Subject subject = new Subject();
+        FieldAccessor.Regular<Subject, ?> accessor = ClassReflection.of(Subject.class).localField("staticField")
+                                                                    .accessible(true).backend(Backend.COMPILED);
+        assertThat(accessor.asStatic().getBackend()).isEqualTo(Backend.COMPILED);
+        assertThat(accessor.getValueAt(subject)).isEqualTo("s");
+        assertThat(accessor.asStatic().getValue()).isEqualTo("s");
+    }
+
+    @SuppressWarnings("unused")
+    private static class Subject {
+
+        private static final int FINAL_FIELD = 3;
+        private static String staticField = "s";
+
+        private int intField = 1;
+        private long longField;
+        private double doubleField;
+        private boolean booleanField;
+        private String stringField = "a";
+    }
+}
@@ -11,6 +11,8 @@ import java.util.Collection;
 import java.util.Set;
 import java.util.function.Function;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.libsmith.anvil.reflection.GenericReflection.extractParameterOf;
@@ -51,6 +53,28 @@ public class GenericReflectionTest extends AbstractTest {
         assertEquals(Integer.class, extractParameterOf(L.class).atIndex(0).from(x));
     }
 
+    @Test
+    public void resolveAllTest() {
+        Type[] resolvedB = extractParameterOf(B.class).resolveAll(x);
+        assertEquals(3, resolvedB.length);
+        assertEquals(Integer.class, resolvedB[0]);
+        assertEquals(String.class, resolvedB[1]);
+        assertEquals(Set.class, ReflectionUtils.extractClass(resolvedB[2]));
+        assertArrayEquals(new Type[] { String.class, Double.class, Integer.class },
+                          extractParameterOf(C.class).resolveAll(G.class));
+        assertArrayEquals(new Type[] { Double.class, Integer.class }, extractParameterOf(H.class).resolveAll(x));
+
+        Type[] resolved = extractParameterOf(C.class).resolveAll(G.class);
+        resolved[0] = null;
+        assertEquals(String.class, extractParameterOf(C.class).atIndex(0).from(G.class));
+        assertEquals(Long.class, extractParameterOf(F.class).atIndex(1).from(G.class));
+
+        assertThatThrownBy(() -> extractParameterOf(F.class).resolveAll(F.class))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> extractParameterOf(A.class).resolveAll(B.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testSelfClass() {
         extractParameterOf(A.class).atIndex(0).from(A.class);
@@ -0,0 +1,204 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 17.10.26 15:40
+ */
+public class MethodInvokerTest extends AbstractTest {
+
+    @Test
+    public void backendSwitchTest() {
+
+        MethodInvoker.NoArgument<Subject, ?> invoker = ClassReflection.of(Subject.class).method("publicMethod")
+                                                                      .noParams();
+        assertThat(invoker.getBackend()).isEqualTo(Backend.REFLECTION);
+        assertThat(invoker.backend(Backend.COMPILED).getBackend()).isEqualTo(Backend.COMPILED);
+        assertThat(invoker.withObject(new Subject()).getBackend()).isEqualTo(Backend.COMPILED);
+        assertThat(invoker.backend(Backend.REFLECTION).withObject(new Subject()).getBackend())
+                .isEqualTo(Backend.REFLECTION);
+    }
+
+    @Test
+    public void compiledInvocationTest() {
+
+        Subject subject = new Subject();
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+
+        assertThat(reflection.method("publicMethod").noParams().backend(Backend.COMPILED).invokeAt(subject))
+                .isEqualTo("pum");
+
+        assertThat(reflection.localMethod("privateMethod").params(String.class).accessible(true)
+                             .backend(Backend.COMPILED).withObject(subject).invoke("x"))
+                .isEqualTo("prm x");
+
+        assertThat(reflection.localMethod("privateStaticMethod").params(int.class, long.class).accessible(true)
+                             .backend(Backend.COMPILED).asStatic().invoke(1, 2L))
+                .isEqualTo(3L);
+
+        assertThat(reflection.method("voidMethod").noParams().backend(Backend.COMPILED).invokeAt(subject))
+                .isNull();
+
+        assertThat(reflection.method("varargsMethod").paramsUnchecked(String[].class).backend(Backend.COMPILED)
+                             .invokeAt(subject, (Object) new String[] { "a", "b" }))
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void compiledFunctionalViewsTest() {
+
+        Subject subject = new Subject();
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+
+        Supplier<?> supplier = reflection.method("publicMethod").noParams()
+                                         .backend(Backend.COMPILED).withObject(subject).asSupplier();
+        assertThat(supplier.get()).isEqualTo("pum");
+
+        Function<Subject, ?> getter = reflection.method("publicMethod").noParams()
+                                                .backend(Backend.COMPILED).asFunction();
+        assertThat(getter.apply(subject)).isEqualTo("pum");
+
+        Function<String, ?> function = reflection.localMethod("privateMethod").params(String.class)
+                                                 .accessible(true).backend(Backend.COMPILED)
+                                                 .withObject(subject).asFunction();
+        assertThat(function.apply("y")).isEqualTo("prm y");
+
+        BiFunction<Integer, Long, ?> biFunction = reflection.localMethod("privateStaticMethod")
+                                                            .params(int.class, long.class).accessible(true)
+                                                            .backend(Backend.COMPILED).asStatic().asBiFunction();
+        assertThat(biFunction.apply(40, 2L)).isEqualTo(42L);
+
+        Supplier<?> voidSupplier = reflection.method("voidMethod").noParams()
+                                             .backend(Backend.COMPILED).withObject(subject).asSupplier();
+        assertThat(voidSupplier.get()).isNull();
+    }
+
+    @Test
+    public void exceptionPropagationTest() {
+
+        Subject subject = new Subject();
+        MethodInvoker.NoArgument<Subject, ?> invoker = ClassReflection.of(Subject.class).method("failingMethod")
+                                                                      .noParams();
+
+        for (Backend backend : Backend.values()) {
+            assertThatThrownBy(() -> invoker.backend(backend).invokeAt(subject))
+                    .isInstanceOf(ReflectiveOperationRuntimeException.class)
+                    .hasCauseInstanceOf(InvocationTargetException.class)
+                    .hasRootCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> invoker.backend(backend).withObject(subject).invoke())
+                    .isInstanceOf(ReflectiveOperationRuntimeException.class)
+                    .hasCauseInstanceOf(InvocationTargetException.class);
+        }
+
+        assertThatThrownBy(() -> invoker.backend(Backend.COMPILED).withObject(subject).asSupplier().get())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("fail");
+    }
+
+    @Test
+    public void checkedExceptionPropagationTest() {
+
+        Subject subject = new Subject();
+        MethodInvoker.NoArgument<Subject, ?> invoker = ClassReflection.of(Subject.class).method("checkedMethod")
+                                                                      .noParams();
+        for (Backend backend : Backend.values()) {
+            assertThatThrownBy(() -> invoker.backend(backend).invokeAt(subject))
+                    .isInstanceOf(ReflectiveOperationRuntimeException.class)
+                    .hasCauseInstanceOf(InvocationTargetException.class)
+                    .hasRootCauseInstanceOf(IOException.class);
+            assertThatThrownBy(() -> invoker.backend(backend).withObject(subject).asSupplier().get())
+                    .isInstanceOf(ReflectiveOperationRuntimeException.class)
+                    .hasCauseInstanceOf(InvocationTargetException.class);
+        }
+    }
+
+    @Test
+    public void lambdaCacheTest() {
+
+        Subject subject = new Subject();
+        MethodInvoker.NoArgument<Subject, ?> invoker = ClassReflection.of(Subject.class).method("publicMethod")
+                                                                      .noParams().backend(Backend.COMPILED);
+        Class<?> unbound = invoker.asFunction().getClass();
+        Class<?> bound = invoker.withObject(subject).asSupplier().getClass();
+        assertThat(invoker.asFunction().getClass()).isSameAs(unbound);
+        assertThat(invoker.withObject(subject).asSupplier().getClass()).isSameAs(bound);
+    }
+
+    @Test
+    public void compiledAccessCheckTest() {
+
+        assertThatThrownBy(() -> ClassReflection.of(Subject.class).localMethod("privateMethod").params(String.class)
+                                                .backend(Backend.COMPILED))
+                .isInstanceOf(ReflectiveOperationRuntimeException.class)
+                .hasCauseInstanceOf(IllegalAccessException.class);
+    }
+
+    @Test
+    public void arityInvokersTest() {
+
+        Subject subject = new Subject();
+        ClassReflection<Subject> reflection = ClassReflection.of(Subject.class);
+        for (Backend backend : Backend.values()) {
+            MethodInvoker.TriArgument<Subject, String, Integer, Long, ?> tri
+                    = reflection.method("triMethod").params3(String.class, int.class, long.class).backend(backend);
+            assertThat(tri.invokeAt(subject, "a", 1, 2L)).isEqualTo("a3");
+            assertThat(tri.withObject(subject).invoke("b", 2, 3L)).isEqualTo("b5");
+            assertThat(tri.invokeSpreadAt(subject, new Object[] { "c", 3, 4L })).isEqualTo("c7");
+            assertThat(tri.withObject(subject).invokeSpread(new Object[] { "d", 4, 5L })).isEqualTo("d9");
+
+            MethodInvoker.OctaArgument<Subject, Integer, Integer, Integer, Integer,
+                                       Integer, Integer, Integer, Integer, ?> octa
+                    = reflection.localMethod("octaStaticMethod")
+                                .params8(int.class, int.class, int.class, int.class,
+                                         int.class, int.class, int.class, int.class)
+                                .accessible(true).backend(backend);
+            assertThat(octa.asStatic().invoke(1, 2, 3, 4, 5, 6, 7, 8)).isEqualTo(36);
+            assertThat(octa.invokeAt(subject, 1, 1, 1, 1, 1, 1, 1, 1)).isEqualTo(8);
+            assertThat(octa.asStatic().invokeSpread(new Object[] { 1, 2, 3, 4, 5, 6, 7, 8 })).isEqualTo(36);
+
+            assertThat(reflection.method("triMethod").params3Op(String.class, int.class, int.class)).isNotPresent();
+            assertThat(reflection.method("triMethod").params3Op(String.class, int.class, long.class)
+                                 .map(m -> (Object) m.invokeAt(subject, "e", 0, 0L))).contains("e0");
+
+            MethodInvoker.BiAndRestArgument<Subject, String, Integer, ?> rest
+                    = reflection.method("triMethod").params(String.class, int.class, long.class).backend(backend);
+            assertThat(rest.invokeAt(subject, "f", 1, 2L)).isEqualTo("f3");
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Subject {
+
+        private static long privateStaticMethod(int a, long b) { return a + b; }
+
+        private String privateMethod(String arg) { return "prm " + arg; }
+
+        public String publicMethod() { return "pum"; }
+
+        public void voidMethod() { }
+
+        public int varargsMethod(String ... args) { return args.length; }
+
+        public String failingMethod() { throw new IllegalStateException("fail"); }
+
+        public String checkedMethod() throws IOException { throw new IOException("fail"); }
+
+        public String triMethod(String a, int b, long c) { return a + (b + c); }
+
+        private static int octaStaticMethod(int a, int b, int c, int d, int e, int f, int g, int h) {
+            return a + b + c + d + e + f + g + h;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.libsmith.anvil.reflection.Modifier.*;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 21.10.26 17:05
+ */
+public class ModifierSetTest {
+
+    @Test
+    public void internTest() {
+        assertThat(ModifierSet.of(PUBLIC, STATIC)).isSameAs(ModifierSet.of(PUBLIC.getMask() | STATIC.getMask()));
+        assertThat(ModifierSet.of(EnumSet.of(FINAL))).isSameAs(ModifierSet.of(FINAL));
+        assertThat(ModifierSet.parse("public static")).isSameAs(ModifierSet.of(PUBLIC, STATIC));
+        assertThat(ModifierSet.of(0)).isSameAs(ModifierSet.EMPTY);
+        assertThat(ModifierSet.of(-1)).isSameAs(ModifierSet.ALL);
+        assertThat(ModifierSet.ALL).containsExactly(Modifier.values());
+        assertThat(ModifierSet.METHOD_MODIFIERS).isEqualTo(Modifier.METHOD_MODIFIERS);
+        assertThat(ModifierSet.FIELD_MODIFIERS.getMask()).isEqualTo(java.lang.reflect.Modifier.fieldModifiers());
+    }
+
+    @Test
+    public void setTest() {
+        ModifierSet set = ModifierSet.of(STATIC, PUBLIC, FINAL);
+        assertThat(set).containsExactly(PUBLIC, STATIC, FINAL);
+        assertThat(set).hasSize(3);
+        assertThat(set).isEqualTo(EnumSet.of(PUBLIC, STATIC, FINAL));
+        assertThat(EnumSet.of(PUBLIC, STATIC, FINAL)).isEqualTo(set);
+        assertThat(set.hashCode()).isEqualTo(EnumSet.of(PUBLIC, STATIC, FINAL).hashCode());
+        assertThat(new HashSet<>(set)).isEqualTo(set);
+        assertThat(set.toEnumSet()).isEqualTo(set);
+        assertThat(set.toString()).isEqualTo("public static final");
+        assertThat(ModifierSet.EMPTY).isEmpty();
+        assertThatThrownBy(() -> set.add(ABSTRACT)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void algebraTest() {
+        ModifierSet publicStatic = ModifierSet.of(PUBLIC, STATIC);
+        ModifierSet staticFinal = ModifierSet.of(STATIC, FINAL);
+
+        assertThat(publicStatic.union(staticFinal)).isSameAs(ModifierSet.of(PUBLIC, STATIC, FINAL));
+        assertThat(publicStatic.intersection(staticFinal)).isSameAs(ModifierSet.of(STATIC));
+        assertThat(publicStatic.difference(staticFinal)).isSameAs(ModifierSet.of(PUBLIC));
+        assertThat(publicStatic.with(FINAL).without(PUBLIC)).isSameAs(staticFinal);
+        assertThat(publicStatic.complement().union(publicStatic)).isSameAs(ModifierSet.ALL);
+        assertThat(publicStatic.complement()).doesNotContain(PUBLIC, STATIC);
+
+        assertThat(publicStatic.containsAll(ModifierSet.of(STATIC))).isTrue();
+        assertThat(publicStatic.containsAll(staticFinal)).isFalse();
+        assertThat(publicStatic.containsAll(EnumSet.of(PUBLIC))).isTrue();
+        assertThat(publicStatic.containsAny(staticFinal)).isTrue();
+        assertThat(publicStatic.contains((Object) "public")).isFalse();
+    }
+
+    @Test
+    public void matcherTest() throws NoSuchMethodException {
+        Method valueOf = String.class.getMethod("valueOf", int.class);
+        Method length = String.class.getMethod("length");
+
+        ModifierSet.Matcher publicStatic = ModifierSet.matcher("public static");
+        assertThat(publicStatic.matches(valueOf)).isTrue();
+        assertThat(publicStatic.matches(length)).isFalse();
+
+        ModifierSet.Matcher publicNotStatic = ModifierSet.matcher("  public   !static ");
+        assertThat(publicNotStatic.test(valueOf)).isFalse();
+        assertThat(publicNotStatic.test(length)).isTrue();
+        assertThat(publicNotStatic.getRequired()).isSameAs(ModifierSet.of(PUBLIC));
+        assertThat(publicNotStatic.getForbidden()).isSameAs(ModifierSet.of(STATIC));
+        assertThat(publicNotStatic.toString()).isEqualTo("public !static");
+        assertThat(ModifierSet.matcher("public !static")).isSameAs(ModifierSet.matcher("public !static"));
+
+        assertThat(ModifierSet.matcher("").matches(0)).isTrue();
+        assertThatThrownBy(() -> ModifierSet.matcher("static !static"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ModifierSet.matcher("public !fainal"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
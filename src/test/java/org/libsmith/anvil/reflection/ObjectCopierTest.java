@@ -0,0 +1,169 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+import org.libsmith.anvil.time.ImmutableDate;
+import org.libsmith.anvil.time.TimePeriod;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 23.10.26 12:15
+ */
+public class ObjectCopierTest extends AbstractTest {
+
+    @Test
+    public void shallowCopyTest() {
+        Entity source = new Entity("entity", 42);
+        source.tags.add("a");
+
+        Entity copy = ObjectCopier.shallow(Entity.class).copy(source);
+        assertThat(copy).isNotSameAs(source);
+        assertCopiedPrimitives(source, copy);
+        assertThat(copy.id).isEqualTo("entity");
+        assertThat(copy.tags).isSameAs(source.tags);
+        assertThat(copy.parentField).isEqualTo(source.parentField);
+
+        Entity staticCopy = ObjectCopier.shallowCopy(source);
+        assertThat(staticCopy).isNotSameAs(source);
+        assertThat(staticCopy.tags).isSameAs(source.tags);
+        int[] array = { 1, 2, 3 };
+        assertThat(ObjectCopier.shallowCopy(array)).isNotSameAs(array).containsExactly(1, 2, 3);
+        assertThat(ObjectCopier.shallowCopy("string")).isSameAs("string");
+        assertThat(ObjectCopier.shallowCopy((Object) null)).isNull();
+    }
+
+    @Test
+    public void deepCopyTest() {
+        Entity source = new Entity("entity", 42);
+        source.tags.add("a");
+        source.children = new Entity[] { new Entity("child", 1), null };
+        source.children[0].parent = source;
+        source.properties.put("key", new ArrayList<>(Arrays.asList(1, 2)));
+        source.date = new ImmutableDate(1000);
+        source.period = TimePeriod.ofMillis(5);
+        source.localDate = LocalDate.of(2026, 10, 23);
+        source.matrix = new int[][] { { 1 }, { 2 } };
+
+        Entity copy = ObjectCopier.deep(Entity.class).copy(source);
+        assertCopiedPrimitives(source, copy);
+        assertThat(copy.tags).isNotSameAs(source.tags).containsExactly("a");
+        assertThat(copy.children).isNotSameAs(source.children).hasSize(2);
+        assertThat(copy.children[0]).isNotSameAs(source.children[0]);
+        assertThat(copy.children[0].id).isEqualTo("child");
+        assertThat(copy.children[0].parent).isSameAs(copy);
+        assertThat(copy.children[1]).isNull();
+        assertThat(copy.properties).isNotSameAs(source.properties).isEqualTo(source.properties);
+        assertThat(copy.properties.get("key")).isNotSameAs(source.properties.get("key"));
+        assertThat(copy.date).isSameAs(source.date);
+        assertThat(copy.period).isSameAs(source.period);
+        assertThat(copy.localDate).isSameAs(source.localDate);
+        assertThat(copy.matrix).isNotSameAs(source.matrix);
+        assertThat(Arrays.deepEquals(copy.matrix, source.matrix)).isTrue();
+        assertThat(copy.matrix[0]).isNotSameAs(source.matrix[0]);
+
+        source.tags.add("b");
+        assertThat(copy.tags).containsExactly("a");
+
+        Object[] cyclic = new Object[1];
+        cyclic[0] = cyclic;
+        Object[] cyclicCopy = ObjectCopier.deepCopy(cyclic);
+        assertThat(cyclicCopy).isNotSameAs(cyclic);
+        assertThat(cyclicCopy[0]).isSameAs(cyclicCopy);
+    }
+
+    @Test
+    public void copyToTest() {
+        Entity source = new Entity("source", 42);
+        source.tags.add("a");
+        Entity target = new Entity("target", 0);
+
+        ObjectCopier.shallow(Entity.class).copyTo(source, target);
+        assertCopiedPrimitives(source, target);
+        assertThat(target.id).as("final field").isEqualTo("target");
+        assertThat(target.tags).isSameAs(source.tags);
+
+        ObjectCopier.deep(ParentEntity.class).copyTo(new Entity("other", 7), target);
+        assertThat(target.parentField).isEqualTo(7);
+        assertThat(target.intValue).isEqualTo(42);
+    }
+
+    @Test
+    public void subclassAndErrorsTest() {
+        Entity source = new Entity("entity", 3);
+        ParentEntity copy = ObjectCopier.shallow(ParentEntity.class).copy(source);
+        assertThat(copy).isInstanceOf(Entity.class);
+        assertThat(((Entity) copy).intValue).isEqualTo(3);
+
+        assertThat(ObjectCopier.deep(Entity.class)).isSameAs(ObjectCopier.deep(Entity.class));
+        assertThat(ObjectCopier.deep(Entity.class).isDeep()).isTrue();
+        assertThat(ObjectCopier.shallow(Entity.class).isDeep()).isFalse();
+        assertThat(ObjectCopier.deep(Entity.class).toString()).isEqualTo("Deep copier of " + Entity.class.getName());
+        assertThatThrownBy(() -> ObjectCopier.shallow(int[].class)).isInstanceOf(IllegalArgumentException.class);
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        ObjectCopier<Object> raw = (ObjectCopier) ObjectCopier.shallow(Entity.class);
+        assertThatThrownBy(() -> raw.copy("string")).isInstanceOf(ClassCastException.class);
+    }
+
+    private static void assertCopiedPrimitives(Entity source, Entity copy) {
+        assertThat(copy.intValue).isEqualTo(source.intValue);
+        assertThat(copy.longValue).isEqualTo(source.longValue);
+        assertThat(copy.doubleValue).isEqualTo(source.doubleValue);
+        assertThat(copy.floatValue).isEqualTo(source.floatValue);
+        assertThat(copy.booleanValue).isEqualTo(source.booleanValue);
+        assertThat(copy.byteValue).isEqualTo(source.byteValue);
+        assertThat(copy.shortValue).isEqualTo(source.shortValue);
+        assertThat(copy.charValue).isEqualTo(source.charValue);
+    }
+
+    private static class ParentEntity {
+        int parentField;
+    }
+
+    @SuppressWarnings("unused")
+    private static class Entity extends ParentEntity {
+
+        private static int counter;
+
+        private final String id;
+        private int intValue;
+        private long longValue;
+        private double doubleValue;
+        private float floatValue;
+        private boolean booleanValue;
+        private byte byteValue;
+        private short shortValue;
+        private char charValue;
+        private List<String> tags = new ArrayList<>();
+        private Map<String, Object> properties = new HashMap<>();
+        private Entity[] children;
+        private Entity parent;
+        private ImmutableDate date;
+        private TimePeriod period;
+        private LocalDate localDate;
+        private int[][] matrix;
+
+        private Entity(String id, int value) {
+            this.id = id;
+            this.intValue = value;
+            this.longValue = value * 10L;
+            this.doubleValue = value / 2.0;
+            this.floatValue = value / 4f;
+            this.booleanValue = value % 2 == 0;
+            this.byteValue = (byte) value;
+            this.shortValue = (short) (value * 2);
+            this.charValue = (char) ('a' + value % 26);
+            this.parentField = value;
+            counter++;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 23.10.26 16:45
+ */
+public class ObjectMethodsTest extends AbstractTest {
+
+    private final ObjectMethods<Value> methods = ObjectMethods.of(Value.class);
+
+    @Test
+    public void equalsTest() {
+        assertThat(methods.equals(new Value("a", 1), new Value("a", 1))).isTrue();
+        assertThat(methods.equals(new Value("a", 1), new Value("a", 2))).isFalse();
+        assertThat(methods.equals(new Value("a", 1), new Value("b", 1))).isFalse();
+        assertThat(methods.equals(new Value(null, 1), new Value(null, 1))).isTrue();
+        assertThat(methods.equals(new Value("a", 1), null)).isFalse();
+        assertThat(methods.equals(null, null)).isTrue();
+        assertThat(methods.equals(new Value("a", 1), new SubValue("a", 1))).isFalse();
+        assertThat(methods.test(new Value("a", Double.NaN), new Value("a", Double.NaN))).isTrue();
+
+        Value value = new Value("a", 1);
+        value.cache = "ignored";
+        assertThat(methods.equals(value, new Value("a", 1))).as("transient field").isTrue();
+
+        Value arrays = new Value("a", 1);
+        arrays.numbers = new int[] { 1, 2 };
+        arrays.nested = new Object[] { "x", new long[] { 3 } };
+        Value sameArrays = new Value("a", 1);
+        sameArrays.numbers = new int[] { 1, 2 };
+        sameArrays.nested = new Object[] { "x", new long[] { 3 } };
+        assertThat(methods.equals(arrays, sameArrays)).isTrue();
+        assertThat(methods.hashCode(arrays)).isEqualTo(methods.hashCode(sameArrays));
+        sameArrays.numbers[1] = 3;
+        assertThat(methods.equals(arrays, sameArrays)).isFalse();
+    }
+
+    @Test
+    public void hashCodeTest() {
+        Value value = new Value("a", 1.5);
+        value.flag = true;
+        value.letter = 'z';
+        assertThat(methods.hashCode(value))
+                .isEqualTo(Objects.hash(3L, 'z', (byte) 0, (short) 0, 0f, true, "a", 1.5, null, null))
+                .isEqualTo(methods.applyAsInt(value));
+        assertThat(methods.hashCode(null)).isZero();
+    }
+
+    @Test
+    public void toStringTest() {
+        Value value = new Value("a", 1.5);
+        value.numbers = new int[] { 1, 2 };
+        assertThat(methods.toString(value)).isEqualTo("Value{id=3, letter=\u0000, tiny=0, small=0, ratio=0.0, " +
+                                                      "flag=false, name=a, amount=1.5, numbers=[1, 2], nested=null}");
+        assertThat(methods.toString(null)).isEqualTo("null");
+        assertThat(methods.toString()).startsWith("ObjectMethods of " + Value.class.getName() + "[id, letter");
+    }
+
+    @Test
+    public void collectionsTest() {
+        Set<ObjectMethods.Wrapper<Value>> set = new HashSet<>();
+        set.add(methods.wrap(new Value("a", 1)));
+        set.add(methods.wrap(new Value("a", 1)));
+        set.add(methods.wrap(new Value("b", 1)));
+        assertThat(set).hasSize(2);
+        assertThat(set).contains(methods.wrap(new Value("b", 1)));
+        assertThat(methods.wrap(new Value("a", 1)).get().name).isEqualTo("a");
+
+        TreeSet<Value> sorted = new TreeSet<>(methods.comparator());
+        sorted.addAll(Arrays.asList(new Value("b", 1), new Value("a", 2), new Value("a", 1), new Value("a", 1)));
+        assertThat(sorted).extracting(v -> v.name + v.amount).containsExactly("a1.0", "a2.0", "b1.0");
+
+        Value arrays = new Value("a", 1);
+        arrays.numbers = new int[0];
+        Value otherArrays = new Value("a", 1);
+        otherArrays.numbers = new int[0];
+        assertThat(methods.comparator().compare(arrays, new Value("a", 1))).isPositive();
+        assertThatThrownBy(() -> methods.comparator().compare(arrays, otherArrays))
+                .isInstanceOf(ClassCastException.class);
+    }
+
+    @Test
+    public void customFieldsTest() {
+        ObjectMethods<Value> byName = ObjectMethods.of(Value.class, field -> field.getName().equals("name"));
+        assertThat(byName.equals(new Value("a", 1), new Value("a", 2))).isTrue();
+        assertThat(byName.toString(new Value("a", 1))).isEqualTo("Value{name=a}");
+        assertThat(ObjectMethods.of(Value.class)).isSameAs(methods);
+
+        List<Object> mixed = Arrays.asList(new Value("a", 1), "string");
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        ObjectMethods<Object> raw = (ObjectMethods) methods;
+        assertThatThrownBy(() -> raw.hashCode(mixed.get(1))).isInstanceOf(ClassCastException.class);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Base {
+        private final long id = 3;
+        char letter;
+        byte tiny;
+        short small;
+        float ratio;
+        boolean flag;
+    }
+
+    @SuppressWarnings("unused")
+    private static class Value extends Base {
+
+        private static int counter;
+
+        private final String name;
+        private final double amount;
+        private int[] numbers;
+        private Object[] nested;
+        private transient String cache;
+
+        private Value(String name, double amount) {
+            this.name = name;
+            this.amount = amount;
+        }
+    }
+
+    private static class SubValue extends Value {
+        private SubValue(String name, double amount) {
+            super(name, amount);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+import org.libsmith.anvil.reflection.DynamicBean.Namespace;
+import org.libsmith.anvil.reflection.DynamicBean.Property;
+import org.libsmith.anvil.time.TimePeriod;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 24.10.26 12:40
+ */
+public class PropertyMapperTest extends AbstractTest {
+
+    @Test
+    public void propertyNamesTest() {
+        PropertyMapper<Settings> mapper = PropertyMapper.of(Settings.class);
+        assertThat(mapper).isSameAs(PropertyMapper.of(Settings.class));
+        assertThat(mapper.getType()).isSameAs(Settings.class);
+        assertThat(mapper.getPropertyNames()).containsExactly("app.version", "app.host", "app.port",
+                                                              Settings.class.getCanonicalName() + ".enabled",
+                                                              "app.timeout", "app.mode", "app.tags", "app.directory");
+
+        assertThat(PropertyMapper.of(Plain.class, DynamicBean.makeNamespace("ns")).getPropertyNames())
+                .containsExactly("ns.name", "ns.count");
+        assertThat(PropertyMapper.of(Plain.class).getPropertyNames()).containsExactly("name", "count");
+    }
+
+    @Test
+    public void toMapTest() {
+        Settings settings = new Settings();
+        settings.host = "localhost";
+        settings.portNumber = 8080;
+        settings.enabled = true;
+        settings.timeout = TimePeriod.ofSeconds(5);
+        settings.mode = TimeUnit.SECONDS;
+
+        Map<String, Object> map = PropertyMapper.of(Settings.class).toMap(settings);
+        assertThat(map).containsExactly(entry("app.version", 1),
+                                        entry("app.host", "localhost"),
+                                        entry("app.port", 8080),
+                                        entry(Settings.class.getCanonicalName() + ".enabled", true),
+                                        entry("app.timeout", TimePeriod.ofSeconds(5)),
+                                        entry("app.mode", TimeUnit.SECONDS),
+                                        entry("app.tags", null),
+                                        entry("app.directory", null));
+
+        Map<String, Object> target = new HashMap<>();
+        target.put("other", "value");
+        PropertyMapper.of(Settings.class).toMap(settings, target);
+        assertThat(target).hasSize(9).containsEntry("other", "value").containsEntry("app.port", 8080);
+    }
+
+    @Test
+    public void fromMapTest() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("app.version", 7);
+        map.put("app.host", "example.org");
+        map.put("app.port", "443");
+        map.put(Settings.class.getCanonicalName() + ".enabled", "true");
+        map.put("app.timeout", "10s");
+        map.put("app.mode", "MINUTES");
+        map.put("app.tags", "a");
+        map.put("app.directory", "/tmp");
+        map.put("unknown", "ignored");
+
+        Settings settings = PropertyMapper.of(Settings.class).fromMap(map);
+        assertThat(settings.version).as("final field").isEqualTo(1);
+        assertThat(settings.host).isEqualTo("example.org");
+        assertThat(settings.portNumber).isEqualTo(443);
+        assertThat(settings.enabled).isTrue();
+        assertThat(settings.timeout).isEqualTo(TimePeriod.ofSeconds(10));
+        assertThat(settings.mode).isEqualTo(TimeUnit.MINUTES);
+        assertThat(settings.tags).containsExactly("a");
+        assertThat(settings.dir).isEqualTo("/tmp");
+
+        Map<String, Object> partial = new HashMap<>();
+        partial.put("app.port", null);
+        partial.put("app.host", null);
+        PropertyMapper.of(Settings.class).fromMap(partial, settings);
+        assertThat(settings.portNumber).isZero();
+        assertThat(settings.host).isNull();
+        assertThat(settings.mode).isEqualTo(TimeUnit.MINUTES);
+
+        assertThatThrownBy(() -> PropertyMapper.of(Settings.class).fromMap(singleton("app.port", "port")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PropertyMapper.of(NoDefaultConstructor.class).fromMap(new HashMap<>()))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void elementConversionTest() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("codes", Arrays.asList("1", "2"));
+
+        Codes codes = PropertyMapper.of(Codes.class).fromMap(map);
+        assertThat(codes.codes).containsExactly(1, 2);
+        assertThat(codes.codes.get(0)).isInstanceOf(Integer.class);
+    }
+
+    @Test
+    public void roundTripAndStreamsTest() {
+        List<Plain> plains = Stream.of("a", "bb", "ccc").map(Plain::new).collect(Collectors.toList());
+        PropertyMapper<Plain> mapper = PropertyMapper.of(Plain.class);
+
+        List<Map<String, Object>> maps = mapper.toMaps(plains.stream()).collect(Collectors.toList());
+        assertThat(maps).extracting(m -> m.get("count")).containsExactly(1, 2, 3);
+
+        List<Plain> copies = mapper.fromMaps(maps.stream()).collect(Collectors.toList());
+        assertThat(copies).extracting(p -> p.name).containsExactly("a", "bb", "ccc");
+        assertThat(copies).extracting(p -> p.count).containsExactly(1, 2, 3);
+        assertThat(mapper.toString()).isEqualTo("PropertyMapper<" + Plain.class.getName() + ">[name, count]");
+    }
+
+    @Test
+    public void toBeanTest() {
+        Plain plain = new Plain("bean");
+        PlainBean bean = PropertyMapper.of(Plain.class).toBean(plain).as(PlainBean.class);
+        assertThat(bean.getName()).isEqualTo("bean");
+        assertThat(bean.getCount()).isEqualTo(4);
+
+        Settings settings = new Settings();
+        settings.portNumber = 1234;
+        SettingsBean settingsBean = PropertyMapper.of(Settings.class).toBean(settings).as(SettingsBean.class);
+        assertThat(settingsBean.getPort()).isEqualTo(1234);
+    }
+
+    @Test
+    public void duplicatePropertyTest() {
+        assertThatThrownBy(() -> PropertyMapper.of(Duplicate.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'name'");
+    }
+
+    private static Map<String, Object> singleton(String key, Object value) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+
+    @Namespace("app")
+    @SuppressWarnings("unused")
+    private static class BaseSettings {
+        final Integer version = 1;
+    }
+
+    @SuppressWarnings("unused")
+    private static class Settings extends BaseSettings {
+
+        private static final String CONSTANT = "constant";
+
+        private String host;
+        @Property(name = "port")
+        private int portNumber;
+        private boolean enabled;
+        private TimePeriod timeout;
+        private TimeUnit mode;
+        private List<String> tags;
+        private String dir;
+        private transient Object cache;
+
+        @Property(name = "directory")
+        public String getDir() {
+            return dir;
+        }
+
+        @Namespace(as = Namespace.Self.class)
+        public boolean isEnabled() {
+            return enabled;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Plain {
+
+        private String name;
+        private int count;
+
+        private Plain()
+        { }
+
+        private Plain(String name) {
+            this.name = name;
+            this.count = name.length();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Codes {
+        private List<Integer> codes;
+    }
+
+    private static class NoDefaultConstructor {
+        @SuppressWarnings("unused")
+        private NoDefaultConstructor(int value)
+        { }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Duplicate {
+        private String name;
+        @Property(name = "name")
+        private String alias;
+    }
+
+    public interface PlainBean {
+        String getName();
+        int getCount();
+    }
+
+    @Namespace("app")
+    public interface SettingsBean {
+        int getPort();
+    }
+}
@@ -0,0 +1,147 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.libsmith.anvil.AbstractTest;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 24.10.26 17:05
+ */
+public class ReflectionIndexTest extends AbstractTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void writeAndLoadTest() throws Exception {
+        Path path = temporaryFolder.newFile("reflection.index").toPath();
+        ReflectionIndex.write(Arrays.asList(Indexed.class, Empty.class, Indexed.class, Indexed.Nested.class), path);
+
+        ReflectionIndex index = ReflectionIndex.load(path);
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.getClassNames()).containsExactly(Empty.class.getName(), Indexed.class.getName(),
+                                                          Indexed.Nested.class.getName());
+        assertThat(index.toString()).isEqualTo("ReflectionIndex of 3 classes");
+
+        ReflectionIndex.ClassMetadata metadata = index.get(Indexed.class);
+        assertThat(metadata).isEqualTo(ReflectionIndex.ClassMetadata.of(Indexed.class));
+        assertThat(metadata.getName()).isEqualTo(Indexed.class.getName());
+        assertThat(metadata.getSuperName()).isEqualTo(Empty.class.getName());
+        assertThat(metadata.getInterfaceNames()).containsExactly(Runnable.class.getName());
+        assertThat(metadata.getModifiers()).containsExactlyInAnyOrder(Modifier.STATIC);
+        assertThat(metadata.getAnnotationNames()).containsExactly(Indexable.class.getName());
+        assertThat(metadata.getFields()).extracting(ReflectionIndex.MemberMetadata::toString)
+                                        .containsExactlyInAnyOrder("int counter", "[Ljava.lang.String; names");
+        assertThat(metadata.getMethods()).extracting(ReflectionIndex.MemberMetadata::toString)
+                                         .containsExactlyInAnyOrder("void run()",
+                                                                    "java.lang.String name(int, java.lang.Object)");
+
+        ReflectionIndex.MemberMetadata method = metadata.getMethods().stream()
+                                                        .filter(m -> m.getName().equals("name"))
+                                                        .findFirst().get();
+        assertThat(method.isMethod()).isTrue();
+        assertThat(method.getParameterTypeNames()).containsExactly("int", Object.class.getName());
+        assertThat(method.getModifiers()).containsExactly(Modifier.PRIVATE);
+        assertThat(method.getAnnotationNames()).containsExactly(Indexable.class.getName());
+
+        assertThat(index.get(Empty.class).getFields()).isEmpty();
+        assertThat(index.get(Empty.class).getSuperName()).isEqualTo(Object.class.getName());
+        assertThat(index.get(Object.class)).isNull();
+        assertThat(index.get("missing.Class")).isNull();
+        assertThat(index.get(Indexed.Nested.class.getName()).getMethods()).isEmpty();
+    }
+
+    @Test
+    public void staleIndexTest() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ReflectionIndex.write(Collections.singletonList(Indexed.class), output);
+        byte[] bytes = output.toByteArray();
+        ReflectionIndex index = ReflectionIndex.of(ByteBuffer.wrap(bytes));
+        assertThat(index.get(Indexed.class)).isNotNull();
+
+        int recordsStart = ByteBuffer.wrap(bytes).getInt(20);
+        ByteBuffer.wrap(bytes).putInt(recordsStart, java.lang.reflect.Modifier.PUBLIC);
+        ReflectionIndex stale = ReflectionIndex.of(ByteBuffer.wrap(bytes));
+        assertThat(stale.get(Indexed.class.getName())).isNotNull();
+        assertThat(stale.get(Indexed.class)).isNull();
+    }
+
+    @Test
+    public void corruptedRecordTest() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ReflectionIndex.write(Arrays.asList(Indexed.class, Empty.class), output);
+        byte[] bytes = output.toByteArray();
+        int recordsStart = ByteBuffer.wrap(bytes).getInt(20);
+
+        ReflectionIndex truncated = ReflectionIndex.of(ByteBuffer.wrap(Arrays.copyOf(bytes, recordsStart + 4)));
+        assertThat(truncated.get(Indexed.class)).isNull();
+        assertThat(truncated.isCorrupted()).isTrue();
+        assertThat(truncated.get(Empty.class.getName())).isNull();
+        assertThat(truncated.getClassNames()).isEmpty();
+        assertThat(truncated.size()).isZero();
+
+        byte[] counts = bytes.clone();
+        ByteBuffer.wrap(counts).putInt(recordsStart + 8, Integer.MAX_VALUE);
+        ReflectionIndex corrupted = ReflectionIndex.of(ByteBuffer.wrap(counts));
+        assertThat(corrupted.getClassNames()).hasSize(2);
+        assertThat(corrupted.get(Indexed.class.getName())).isNull();
+        assertThat(corrupted.get(Empty.class.getName())).isNull();
+        assertThat(corrupted.isCorrupted()).isTrue();
+    }
+
+    @Test
+    public void malformedIndexTest() {
+        assertThatThrownBy(() -> ReflectionIndex.of(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 })))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ReflectionIndex.of(ByteBuffer.wrap(new byte[] { 0x52, 0x46, 0x4C, 0x58 })))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void classReflectionMetadataTest() {
+        assertThat(ClassReflection.of(Indexed.class).getMetadata())
+                .isEqualTo(ReflectionIndex.ClassMetadata.of(Indexed.class))
+                .isSameAs(ClassReflection.of(Indexed.class).getMetadata());
+        assertThat(ClassReflection.of(Indexed.class).getLocalMethods()).hasSize(2);
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface Indexable {
+    }
+
+    private static class Empty {
+    }
+
+    @Indexable
+    static class Indexed extends Empty implements Runnable {
+
+        private int counter;
+        String[] names;
+
+        @Override
+        public void run() {
+            counter++;
+        }
+
+        @Indexable
+        private String name(int index, Object fallback) {
+            return names.length > index ? names[index] : String.valueOf(fallback);
+        }
+
+        interface Nested {
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.libsmith.anvil.reflection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.libsmith.anvil.AbstractTest;
+import org.libsmith.anvil.reflection.ReflectionCommons.Backend;
+import org.libsmith.anvil.time.TimePeriod;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Dmitriy Balakin <dmitriy.balakin@0x0000.ru>
+ * @created 25.10.26 11:20
+ */
+public class ReflectionMetricsTest extends AbstractTest {
+
+    @Before
+    public void setUp() {
+        ReflectionMetrics.setEnabled(true);
+        ReflectionMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        ReflectionMetrics.setEnabled(false);
+        ReflectionMetrics.reset();
+        ReflectionMetrics.unregisterMBean();
+    }
+
+    @Test
+    public void methodMetricsTest() throws Exception {
+        Method method = Subject.class.getDeclaredMethod("twice", int.class);
+        Subject subject = new Subject();
+        for (Backend backend : Backend.values()) {
+            MethodInvoker.SingleArgument<Subject, Integer, Integer> invoker =
+                    ClassReflection.of(Subject.class).localMethod("twice").params(int.class).returns(Integer.class)
+                                   .accessible(true).backend(backend);
+            for (int i = 0; i < 1000; i++) {
+                assertThat(invoker.invokeAt(subject, i)).isEqualTo(i * 2);
+            }
+            Function<Integer, Integer> function = invoker.withObject(subject).asFunction();
+            assertThat(function.apply(1)).isEqualTo(2);
+            assertThat(invoker.bulk(3).applyTo(Arrays.asList(subject, subject))).containsExactly(6, 6);
+        }
+
+        ReflectionMetrics.MemberSnapshot snapshot = ReflectionMetrics.snapshot().getMember(method).get();
+        assertThat(snapshot.getName()).isEqualTo(Subject.class.getName() + ".twice(int)");
+        assertThat(snapshot.getCallCount()).isEqualTo(2006);
+        assertThat(snapshot.getFailureCount()).isZero();
+        assertThat(snapshot.getSampleCount()).isBetween(1L, 2006L);
+        assertThat(snapshot.getMeanTime()).isGreaterThan(TimePeriod.ZERO);
+        assertThat(snapshot.getPercentile(0.99)).isGreaterThanOrEqualTo(snapshot.getPercentile(0.5))
+                                                .isGreaterThan(TimePeriod.ZERO);
+        assertThatThrownBy(() -> snapshot.getPercentile(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void failureMetricsTest() throws Exception {
+        Method method = Subject.class.getDeclaredMethod("fail");
+        Subject subject = new Subject();
+        for (Backend backend : Backend.values()) {
+            MethodInvoker.NoArgument<Subject, ?> invoker = ClassReflection.of(Subject.class).localMethod("fail")
+                                                                          .noParams().accessible(true)
+                                                                          .backend(backend);
+            assertThatThrownBy(() -> invoker.invokeAt(subject)).isInstanceOf(RuntimeException.class);
+        }
+        ReflectionMetrics.MemberSnapshot snapshot = ReflectionMetrics.snapshot().getMember(method).get();
+        assertThat(snapshot.getCallCount()).isEqualTo(2);
+        assertThat(snapshot.getFailureCount()).isEqualTo(2);
+
+        ReflectionMetrics.reset();
+        assertThat(ReflectionMetrics.snapshot().getMember(method)).isEmpty();
+    }
+
+    @Test
+    public void fieldAndConstructorMetricsTest() throws Exception {
+        for (Backend backend : Backend.values()) {
+            Subject subject = ClassReflection.of(Subject.class).constructor().noParams().accessible(true)
+                                             .backend(backend).construct();
+            FieldAccessor.Regular<Subject, Integer> accessor = ClassReflection.of(Subject.class).localField("value")
+                                                                              .accessible(true).type(Integer.class)
+                                                                              .backend(backend);
+            accessor.setValueAt(subject, 5);
+            assertThat(accessor.getValueAt(subject)).isEqualTo(5);
+            assertThat(accessor.bulk().applyTo(Arrays.asList(subject, subject))).containsExactly(5, 5);
+        }
+        ReflectionMetrics.Snapshot snapshot = ReflectionMetrics.snapshot();
+        assertThat(snapshot.getMember(Subject.class.getDeclaredField("value")).get().getCallCount()).isEqualTo(8);
+        assertThat(snapshot.getMember(Subject.class.getDeclaredConstructor()).get().getName())
+                .isEqualTo(Subject.class.getName() + "()");
+        assertThat(snapshot.getMember(Subject.class.getDeclaredConstructor()).get().getCallCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void disabledTest() throws Exception {
+        ReflectionMetrics.setEnabled(false);
+        assertThat(ReflectionMetrics.isEnabled()).isFalse();
+        Subject subject = new Subject();
+        assertThat(ClassReflection.of(Subject.class).localMethod("twice").params(int.class).returns(Integer.class)
+                                  .accessible(true).invokeAt(subject, 1)).isEqualTo(2);
+        assertThat(ReflectionMetrics.snapshot().getMember(Subject.class.getDeclaredMethod("twice", int.class)))
+                .isEmpty();
+    }
+
+    @Test
+    public void cachedProxyMetricsTest() throws Exception {
+        Cached proxy = CachedProxy.wrap(new Subject(), Cached.class);
+        assertThat(proxy.cached(1)).isEqualTo(1);
+        assertThat(proxy.cached(1)).isEqualTo(1);
+        assertThat(proxy.cached(1)).isEqualTo(1);
+        assertThat(proxy.cached(2)).isEqualTo(2);
+
+        Method method = Cached.class.getDeclaredMethod("cached", int.class);
+        ReflectionMetrics.Snapshot snapshot = ReflectionMetrics.snapshot();
+        assertThat(snapshot.getMember(method).get().getCallCount()).isEqualTo(4);
+        ReflectionMetrics.CacheSnapshot cache = snapshot.getCache("CachedProxy " + Cached.class.getName()
+                                                                  + ".cached(int)").get();
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void dynamicBeanMetricsTest() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("port", "80");
+        Bean bean = DynamicBean.of(properties).withBackend(Backend.REFLECTION).as(Bean.class);
+        assertThat(bean.getPort()).isEqualTo(80);
+        assertThat(bean.getPort()).isEqualTo(80);
+        assertThat(bean.getPort()).isEqualTo(80);
+        properties.put("port", "81");
+        assertThat(bean.getPort()).isEqualTo(81);
+
+        ReflectionMetrics.Snapshot snapshot = ReflectionMetrics.snapshot();
+        assertThat(snapshot.getMember(Bean.class.getDeclaredMethod("getPort")).get().getCallCount()).isEqualTo(4);
+        ReflectionMetrics.CacheSnapshot cache = snapshot.getCache(PropertyConversion.Memo.METRICS_NAME).get();
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void mbeanTest() throws Exception {
+        ObjectName name = ReflectionMetrics.registerMBean();
+        assertThat(ReflectionMetrics.registerMBean()).isEqualTo(name);
+        new Subject().twice(1);
+        ClassReflection.of(Subject.class).localMethod("twice").params(int.class).accessible(true)
+                       .invokeAt(new Subject(), 1);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertThat(server.getAttribute(name, "Enabled")).isEqualTo(true);
+        TabularData callCounts = (TabularData) server.getAttribute(name, "CallCounts");
+        CompositeData row = callCounts.get(new Object[] { Subject.class.getName() + ".twice(int)" });
+        assertThat(row.get("value")).isEqualTo(1L);
+
+        server.setAttribute(name, new javax.management.Attribute("Enabled", false));
+        assertThat(ReflectionMetrics.isEnabled()).isFalse();
+        server.invoke(name, "reset", new Object[0], new String[0]);
+        assertThat(((TabularData) server.getAttribute(name, "CallCounts")).isEmpty()).isTrue();
+
+        ReflectionMetrics.unregisterMBean();
+        assertThat(server.isRegistered(name)).isFalse();
+    }
+
+    private interface Cached {
+
+        int cached(int value);
+    }
+
+    private interface Bean {
+
+        int getPort();
+    }
+
+    @SuppressWarnings("unused")
+    private static class Subject implements Cached {
+
+        private int value;
+
+        private Subject()
+        { }
+
+        private int twice(int value) {
+            return value * 2;
+        }
+
+        private void fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        @Override
+        public int cached(int value) {
+            return value;
+        }
+    }
+}